@@ -6,4 +6,12 @@ public interface Action {
 
     void apply(final Sequencer sequencer);
 
+    /**
+     * As {@link #apply(Sequencer)}, with the sequencer number of the message the algo was reacting to, for the
+     * actions that pass it on.
+     */
+    default void apply(final Sequencer sequencer, final long causeSequencerNumber) {
+        apply(sequencer);
+    }
+
 }
@@ -0,0 +1,45 @@
+package codingblackfemales.action;
+
+import codingblackfemales.sequencer.Sequencer;
+import codingblackfemales.sotw.ChildOrder;
+import messages.order.AmendOrderEncoder;
+
+/**
+ * Amends a child order to a new price and a new quantity left to fill, a quantity of 0 cancels it.
+ */
+public class AmendChildOrder implements Action {
+
+    private final ChildOrder orderToAmend;
+    private final long quantity;
+    private final long price;
+
+    public AmendChildOrder(final ChildOrder orderToAmend, final long quantity, final long price) {
+        this.orderToAmend = orderToAmend;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    @Override
+    public String toString() {
+        return "AmendChildOrder(" + orderToAmend + ",quantity=" + quantity + ",price=" + price + ")";
+    }
+
+    @Override
+    public void apply(final Sequencer sequencer) {
+        apply(sequencer, 0L);
+    }
+
+    @Override
+    public void apply(final Sequencer sequencer, final long causeSequencerNumber) {
+        final CommandEncoders encoders = CommandEncoders.get();
+        final AmendOrderEncoder encoder = encoders.amendOrder;
+
+        encoder.wrapAndApplyHeader(encoders.buffer, 0, encoders.headerEncoder);
+        encoder.orderId(orderToAmend.getOrderId());
+        encoder.price(price);
+        encoder.quantity(quantity);
+        encoder.causeSequencerNumber(causeSequencerNumber);
+
+        sequencer.onCommand(encoders.buffer);
+    }
+}
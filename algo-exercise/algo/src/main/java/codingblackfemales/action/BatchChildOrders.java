@@ -0,0 +1,60 @@
+package codingblackfemales.action;
+
+import codingblackfemales.sequencer.Sequencer;
+import codingblackfemales.sotw.ChildOrder;
+import messages.order.BatchOrderCommandEncoder;
+import messages.order.Side;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Many creates and cancels sent as one command, so they are sequenced and dispatched once between them, e.g. to
+ * re-quote a whole ladder. The cancels take effect before the creates.
+ */
+public class BatchChildOrders implements Action {
+
+    private final List<CreateChildOrder> creates = new ArrayList<>();
+    private final List<ChildOrder> cancels = new ArrayList<>();
+
+    public BatchChildOrders create(final Side side, final long quantity, final long price) {
+        creates.add(new CreateChildOrder(side, quantity, price));
+        return this;
+    }
+
+    public BatchChildOrders cancel(final ChildOrder orderToCancel) {
+        cancels.add(orderToCancel);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchChildOrders(creates=" + creates + ",cancels=" + cancels + ")";
+    }
+
+    @Override
+    public void apply(final Sequencer sequencer) {
+        apply(sequencer, 0L);
+    }
+
+    @Override
+    public void apply(final Sequencer sequencer, final long causeSequencerNumber) {
+        final CommandEncoders encoders = CommandEncoders.get();
+        final BatchOrderCommandEncoder encoder = encoders.batchOrderCommand;
+
+        encoder.wrapAndApplyHeader(encoders.buffer, 0, encoders.headerEncoder);
+        encoder.causeSequencerNumber(causeSequencerNumber);
+
+        final BatchOrderCommandEncoder.CancelsEncoder cancelsEncoder = encoder.cancelsCount(cancels.size());
+        for (ChildOrder cancel : cancels) {
+            cancelsEncoder.next().orderId(cancel.getOrderId());
+        }
+
+        final BatchOrderCommandEncoder.CreatesEncoder createsEncoder = encoder.createsCount(creates.size());
+        for (CreateChildOrder create : creates) {
+            createsEncoder.next().price(create.price).quantity(create.quantity).side(create.side);
+        }
+
+        sequencer.onCommand(encoders.buffer);
+    }
+}
@@ -3,10 +3,6 @@ package codingblackfemales.action;
 import codingblackfemales.sequencer.Sequencer;
 import codingblackfemales.sotw.ChildOrder;
 import messages.order.CancelOrderEncoder;
-import messages.order.MessageHeaderEncoder;
-import org.agrona.concurrent.UnsafeBuffer;
-
-import java.nio.ByteBuffer;
 
 public class CancelChildOrder implements Action{
 
@@ -24,17 +20,12 @@ public class CancelChildOrder implements Action{
     @Override
     public void apply(final Sequencer sequencer) {
 
-        final CancelOrderEncoder encoder = new CancelOrderEncoder();
-        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
-        final UnsafeBuffer directBuffer = new UnsafeBuffer(byteBuffer);
-        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
-
-        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
-        headerEncoder.schemaId(CancelOrderEncoder.SCHEMA_ID);
-        headerEncoder.version(CancelOrderEncoder.SCHEMA_VERSION);
+        final CommandEncoders encoders = CommandEncoders.get();
+        final CancelOrderEncoder encoder = encoders.cancelOrder;
 
+        encoder.wrapAndApplyHeader(encoders.buffer, 0, encoders.headerEncoder);
         encoder.orderId(orderToCancel.getOrderId());
 
-        sequencer.onCommand(directBuffer);
+        sequencer.onCommand(encoders.buffer);
     }
 }
@@ -0,0 +1,39 @@
+package codingblackfemales.action;
+
+import messages.order.AmendOrderEncoder;
+import messages.order.BatchOrderCommandEncoder;
+import messages.order.CancelOrderEncoder;
+import messages.order.CreateOrderEncoder;
+import messages.order.MessageHeaderEncoder;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The buffer and encoders the actions write their commands with, kept per thread so applying an action doesn't
+ * allocate. The sequencer copies a command before dispatching it, so the buffer can be written again straight away,
+ * even by an action applied while the last one is being dispatched.
+ *
+ * The buffer comes back zeroed, as a new one would be, so fields an action doesn't set aren't left over from the last
+ * command, e.g. a command id the sequencer would drop as a duplicate.
+ */
+final class CommandEncoders {
+
+    private static final ThreadLocal<CommandEncoders> ENCODERS = ThreadLocal.withInitial(CommandEncoders::new);
+
+    final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+    final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    final CreateOrderEncoder createOrder = new CreateOrderEncoder();
+    final CancelOrderEncoder cancelOrder = new CancelOrderEncoder();
+    final AmendOrderEncoder amendOrder = new AmendOrderEncoder();
+    final BatchOrderCommandEncoder batchOrderCommand = new BatchOrderCommandEncoder();
+
+    private CommandEncoders() {
+    }
+
+    static CommandEncoders get(){
+        final CommandEncoders encoders = ENCODERS.get();
+        encoders.buffer.setMemory(0, encoders.buffer.capacity(), (byte) 0);
+        return encoders;
+    }
+}
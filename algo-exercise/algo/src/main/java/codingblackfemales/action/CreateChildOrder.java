@@ -2,21 +2,17 @@ package codingblackfemales.action;
 
 import codingblackfemales.sequencer.Sequencer;
 import messages.order.CreateOrderEncoder;
-import messages.order.MessageHeaderEncoder;
 import messages.order.Side;
-import org.agrona.concurrent.UnsafeBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.ByteBuffer;
-
 public class CreateChildOrder implements Action {
 
     private static final Logger logger = LoggerFactory.getLogger(CreateChildOrder.class);
     public final long quantity;
     public final long price;
 
-    private final Side side;
+    public final Side side;
 
     public CreateChildOrder(final Side side, final long quantity, final long price) {
         this.quantity = quantity;
@@ -31,17 +27,19 @@ public class CreateChildOrder implements Action {
 
     @Override
     public void apply(Sequencer sequencer) {
-        final CreateOrderEncoder encoder = new CreateOrderEncoder();
-        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
-        final UnsafeBuffer directBuffer = new UnsafeBuffer(byteBuffer);
-        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
-
-        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
-        headerEncoder.schemaId(CreateOrderEncoder.SCHEMA_ID);
-        headerEncoder.version(CreateOrderEncoder.SCHEMA_VERSION);
+        apply(sequencer, 0L);
+    }
+
+    @Override
+    public void apply(Sequencer sequencer, long causeSequencerNumber) {
+        final CommandEncoders encoders = CommandEncoders.get();
+        final CreateOrderEncoder encoder = encoders.createOrder;
+
+        encoder.wrapAndApplyHeader(encoders.buffer, 0, encoders.headerEncoder);
         encoder.price(price);
         encoder.quantity(quantity);
         encoder.side(side);
-        sequencer.onCommand(directBuffer);
+        encoder.causeSequencerNumber(causeSequencerNumber);
+        sequencer.onCommand(encoders.buffer);
     }
 }
@@ -24,6 +24,12 @@ public class SniperAlgoLogic implements AlgoLogic {
 
         logger.info("[SNIPERALGO] Algo Sees Book as:\n" + book);
 
+        //nothing left on the far side to snipe
+        if (state.getAskLevels() == 0) {
+            logger.info("[SNIPERALGO] Ask side of the book is empty, nothing to snipe.");
+            return NoAction;
+        }
+
         final AskLevel farTouch = state.getAskAt(0);
 
         //take as much as we can from the far touch....
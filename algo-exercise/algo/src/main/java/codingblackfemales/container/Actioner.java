@@ -16,7 +16,15 @@ public class Actioner {
     }
 
     public void processAction(final Action action){
+        processAction(action, 0L);
+    }
+
+    public void processAction(final Action action, final long causeSequencerNumber){
         logger.info("[ALGO] Actioner, sending action:" + action);
-        action.apply(sequencer);
+        action.apply(sequencer, causeSequencerNumber);
+    }
+
+    public boolean hasPendingCommands(){
+        return sequencer.hasPendingCommands();
     }
 }
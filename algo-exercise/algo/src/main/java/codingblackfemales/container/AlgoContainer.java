@@ -7,10 +7,22 @@ import codingblackfemales.service.MarketDataService;
 import codingblackfemales.service.OrderService;
 import codingblackfemales.sotw.SimpleAlgoState;
 import codingblackfemales.sotw.SimpleAlgoStateImpl;
+import messages.marketdata.MessageHeaderDecoder;
 import org.agrona.DirectBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class AlgoContainer implements Consumer {
 
+    private static final Logger logger = LoggerFactory.getLogger(AlgoContainer.class);
+
+    public enum EvaluationMode {
+        //evaluate after any message that changed the state
+        PER_MESSAGE,
+        //evaluate once at the end of a batch, however many messages in it changed the state
+        PER_BATCH
+    }
+
     private final MarketDataService marketDataService;
     private final OrderService orderService;
     private final RunTrigger runTrigger;
@@ -20,6 +32,17 @@ public class AlgoContainer implements Consumer {
 
     private final SimpleAlgoState state;
 
+    private EvaluationMode evaluationMode = EvaluationMode.PER_MESSAGE;
+
+    //messages that would have run the logic had we evaluated per message, and the evaluations we actually ran
+    private long triggeringMessages = 0;
+    private long evaluations = 0;
+    private long lastTriggerCount = 0;
+
+    //the last message to change the state, what any order the logic sends is in reaction to
+    private long causeSequencerNumber = 0;
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+
     public AlgoContainer(final MarketDataService marketDataService,
                          final OrderService orderService,
                          final RunTrigger runTrigger,
@@ -43,9 +66,36 @@ public class AlgoContainer implements Consumer {
         this.logic = logic;
     }
 
+    public void setEvaluationMode(EvaluationMode evaluationMode){
+        this.evaluationMode = evaluationMode;
+    }
+
+    public long getTriggeringMessages(){
+        return triggeringMessages;
+    }
+
+    public long getEvaluations(){
+        return evaluations;
+    }
+
+    public long getConflatedEvaluations(){
+        return triggeringMessages - evaluations;
+    }
+
     @Override
     public void onMessage(DirectBuffer buffer){
-        if(runTrigger.shouldRun()){
+        if(runTrigger.triggerCount() != lastTriggerCount){
+            lastTriggerCount = runTrigger.triggerCount();
+            triggeringMessages++;
+            causeSequencerNumber = headerDecoder.wrap(buffer, 0).sequencerNumber();
+        }
+
+        if(evaluationMode == EvaluationMode.PER_BATCH){
+            return;
+        }
+
+        //the reactions to this message are still to be sequenced, wait for them rather than act on half the picture
+        if(runTrigger.shouldRun() && !actioner.hasPendingCommands()){
             runAlgoLogic();
 
         }else {
@@ -53,13 +103,25 @@ public class AlgoContainer implements Consumer {
         }
     }
 
+    @Override
+    public void onBatchEnd() {
+        if(evaluationMode == EvaluationMode.PER_BATCH && runTrigger.shouldRun()){
+            runAlgoLogic();
+            if(logger.isDebugEnabled()){
+                logger.debug("[ALGO] Evaluated " + evaluations + " times for " + triggeringMessages + " triggering messages, conflated " + getConflatedEvaluations());
+            }
+        }
+    }
+
     private void runAlgoLogic(){
+        evaluations++;
+
         final var action = logic.evaluate(state);
 
         runTrigger.hasRun();
 
         if(action !=null && (!action.equals(NoAction.NoAction))){
-            actioner.processAction(action);
+            actioner.processAction(action, causeSequencerNumber);
         }
     }
 
@@ -3,9 +3,15 @@ package codingblackfemales.container;
 public class RunTrigger {
 
     private boolean shouldRun = false;
+    private long triggerCount = 0;
 
     public void triggerRun(){
         shouldRun = true;
+        triggerCount++;
+    }
+
+    public long triggerCount(){
+        return triggerCount;
     }
 
     public boolean shouldRun(){
@@ -12,6 +12,7 @@ public class MarketDataEncoder {
     private final BookUpdateEncoder bookUpdateEncoder = new BookUpdateEncoder();
     private final AskBookUpdateEncoder askBookUpdateEncoder = new AskBookUpdateEncoder();
     private final BidBookUpdateEncoder bidBookUpdateEncoder = new BidBookUpdateEncoder();
+    private final BookDeltaEncoder bookDeltaEncoder = new BookDeltaEncoder();
 
     public UnsafeBuffer encode(final MarketDataMessage message) {
         switch (message.updateType()) {
@@ -21,6 +22,8 @@ public class MarketDataEncoder {
                 return doEncode((AskBookUpdate) message);
             case BidUpdate:
                 return doEncode((BidBookUpdate) message);
+            case BookDelta:
+                return doEncode((BookDelta) message);
             default:
                 throw new RuntimeException(format("Unsupported updateType=[%s] message=[%s]", message.updateType(), message));
         }
@@ -58,23 +61,38 @@ public class MarketDataEncoder {
         bookUpdateEncoder.venue(update.venue());
         bookUpdateEncoder.instrumentId(update.instrumentId());
 
-        BookUpdateEncoder.AskBookEncoder askBookEncoder = bookUpdateEncoder.askBookCount(update.askBook().size());
-        for (int i = 0; i < update.askBook().size(); i++) {
-            BookEntry bookEntry = update.askBook().get(i);
-            askBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
-        }
-
+        //groups have to go in schema order, bids first
         BookUpdateEncoder.BidBookEncoder bidBookEncoder = bookUpdateEncoder.bidBookCount(update.bidBook().size());
         for (int i = 0; i < update.bidBook().size(); i++) {
             BookEntry bookEntry = update.bidBook().get(i);
             bidBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
         }
 
+        BookUpdateEncoder.AskBookEncoder askBookEncoder = bookUpdateEncoder.askBookCount(update.askBook().size());
+        for (int i = 0; i < update.askBook().size(); i++) {
+            BookEntry bookEntry = update.askBook().get(i);
+            askBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
+        }
+
         bookUpdateEncoder.instrumentStatus(update.instrumentStatus());
         bookUpdateEncoder.source(Source.STREAM);
         return directBuffer;
     }
 
+    private UnsafeBuffer doEncode(final BookDelta delta) {
+        final UnsafeBuffer directBuffer = buffer();
+        bookDeltaEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        bookDeltaEncoder.venue(delta.venue());
+        bookDeltaEncoder.instrumentId(delta.instrumentId());
+        bookDeltaEncoder.source(Source.STREAM);
+        BookDeltaEncoder.EntriesEncoder entriesEncoder = bookDeltaEncoder.entriesCount(delta.entries().size());
+        for (int i = 0; i < delta.entries().size(); i++) {
+            BookDeltaEntry entry = delta.entries().get(i);
+            entriesEncoder.next().side(entry.side()).action(entry.action()).price(entry.price()).size(entry.size());
+        }
+        return directBuffer;
+    }
+
     private UnsafeBuffer buffer() {
         final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
         return new UnsafeBuffer(byteBuffer);
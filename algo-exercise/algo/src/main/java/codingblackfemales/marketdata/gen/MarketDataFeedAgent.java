@@ -0,0 +1,56 @@
+package codingblackfemales.marketdata.gen;
+
+import codingblackfemales.marketdata.api.MarketDataEncoder;
+import codingblackfemales.sequencer.Sequencer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.SystemNanoClock;
+
+/**
+ * Sends the next message from a generator to the sequencer every interval, as a duty cycle rather than a thread
+ * sleeping between updates, so it can share a runtime with the other agents and idle however they are configured to.
+ */
+public class MarketDataFeedAgent implements Agent {
+
+    private final MarketDataGenerator generator;
+    private final Sequencer sequencer;
+    private final long intervalNanos;
+    private final NanoClock clock;
+
+    private final MarketDataEncoder encoder = new MarketDataEncoder();
+
+    private long nextUpdateNanos;
+
+    public MarketDataFeedAgent(final MarketDataGenerator generator, final Sequencer sequencer, final long intervalNanos) {
+        this(generator, sequencer, intervalNanos, SystemNanoClock.INSTANCE);
+    }
+
+    public MarketDataFeedAgent(final MarketDataGenerator generator, final Sequencer sequencer, final long intervalNanos, final NanoClock clock) {
+        this.generator = generator;
+        this.sequencer = sequencer;
+        this.intervalNanos = intervalNanos;
+        this.clock = clock;
+    }
+
+    @Override
+    public void onStart() {
+        nextUpdateNanos = clock.nanoTime() + intervalNanos;
+    }
+
+    @Override
+    public int doWork() {
+        final long now = clock.nanoTime();
+        if(now - nextUpdateNanos < 0){
+            return 0;
+        }
+
+        nextUpdateNanos = now + intervalNanos;
+        sequencer.onCommand(encoder.encode(generator.next()));
+        return 1;
+    }
+
+    @Override
+    public String roleName() {
+        return "market-data";
+    }
+}
@@ -0,0 +1,43 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.api.BookDelta;
+import codingblackfemales.marketdata.api.BookDeltaEntry;
+import messages.marketdata.Venue;
+
+import java.util.List;
+
+public class BookDeltaImpl implements BookDelta {
+    private long instrumentId;
+    private Venue venue;
+    private List<BookDeltaEntry> entries;
+
+    public BookDeltaImpl(long instrumentId, Venue venue, List<BookDeltaEntry> entries) {
+        this.instrumentId = instrumentId;
+        this.venue = venue;
+        this.entries = entries;
+    }
+
+    @Override
+    public List<BookDeltaEntry> entries() {
+        return entries;
+    }
+
+    @Override
+    public long instrumentId() {
+        return instrumentId;
+    }
+
+    @Override
+    public Venue venue() {
+        return venue;
+    }
+
+    @Override
+    public String toString() {
+        return "BookDeltaImpl{" +
+                "instrumentId=" + instrumentId +
+                ", venue=" + venue +
+                ", entries=" + entries +
+                '}';
+    }
+}
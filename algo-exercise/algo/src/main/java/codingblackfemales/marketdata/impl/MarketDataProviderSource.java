@@ -0,0 +1,65 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.api.MarketDataEncoder;
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.api.MarketDataProvider;
+import codingblackfemales.sequencer.merge.MergeSource;
+import codingblackfemales.sequencer.util.MessageLength;
+import org.agrona.DirectBuffer;
+
+/**
+ * A {@link MarketDataProvider} as one input to a {@link codingblackfemales.sequencer.merge.TimeOrderedMerge}.
+ *
+ * The provider's messages don't carry a time, so they are timed as if they arrived every interval from the start,
+ * the same way the {@link codingblackfemales.marketdata.gen.MarketDataFeedAgent} paces a generator.
+ */
+public class MarketDataProviderSource implements MergeSource {
+
+    private final MarketDataProvider provider;
+    private final long intervalNanos;
+
+    private final MarketDataEncoder encoder = new MarketDataEncoder();
+
+    private long timestamp;
+    private DirectBuffer buffer;
+    private int length;
+
+    public MarketDataProviderSource(final MarketDataProvider provider, final long startNanos, final long intervalNanos) {
+        this.provider = provider;
+        this.intervalNanos = intervalNanos;
+        this.timestamp = startNanos - intervalNanos;
+    }
+
+    @Override
+    public boolean next() {
+        final MarketDataMessage message = provider.poll();
+        if(message == null){
+            return false;
+        }
+
+        timestamp += intervalNanos;
+        buffer = encoder.encode(message);
+        length = MessageLength.of(buffer, 0);
+        return true;
+    }
+
+    @Override
+    public long timestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public DirectBuffer buffer() {
+        return buffer;
+    }
+
+    @Override
+    public int offset() {
+        return 0;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+}
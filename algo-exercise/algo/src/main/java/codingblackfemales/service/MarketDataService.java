@@ -2,14 +2,21 @@ package codingblackfemales.service;
 
 import codingblackfemales.container.RunTrigger;
 import codingblackfemales.sequencer.event.MarketDataEventListener;
+import codingblackfemales.sotw.marketdata.AbstractLevel;
 import codingblackfemales.sotw.marketdata.AskLevel;
 import codingblackfemales.sotw.marketdata.BidLevel;
 import messages.marketdata.AskBookUpdateDecoder;
 import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookSide;
 import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.DeltaAction;
+import messages.marketdata.TradeDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.function.Supplier;
+
 public class MarketDataService extends MarketDataEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(MarketDataService.class);
@@ -20,8 +27,16 @@ public class MarketDataService extends MarketDataEventListener {
     private long instrumentId;
     private final BidLevel[] bidBook = new BidLevel[15];
     private final AskLevel[] askBook = new AskLevel[15];
+    private final SpareLevels<BidLevel> spareBids = new SpareLevels<>(new BidLevel[15], BidLevel::new);
+    private final SpareLevels<AskLevel> spareAsks = new SpareLevels<>(new AskLevel[15], AskLevel::new);
     private final RunTrigger runTrigger;
 
+    //running totals of the trades printed, so a VWAP costs nothing to keep up
+    private long lastTradePrice = 0L;
+    private long tradedVolume = 0L;
+    private double tradedNotional = 0.0;
+    private long tradeCount = 0L;
+
     public MarketDataService(RunTrigger runTrigger) {
         this.runTrigger = runTrigger;
     }
@@ -44,6 +59,25 @@ public class MarketDataService extends MarketDataEventListener {
 
     public long getInstrumentId(){return instrumentId;}
 
+    public long getLastTradePrice(){
+        return lastTradePrice;
+    }
+
+    public long getTradedVolume(){
+        return tradedVolume;
+    }
+
+    public long getTradeCount(){
+        return tradeCount;
+    }
+
+    /**
+     * The volume weighted average price of every trade seen, or 0 before the first.
+     */
+    public double getVwap(){
+        return tradedVolume == 0 ? 0.0 : tradedNotional / tradedVolume;
+    }
+
     private static void empty(BidLevel[] levels){
         for (int i=0; i<levels.length; i++) {
             levels[i] = null;
@@ -74,10 +108,10 @@ public class MarketDataService extends MarketDataEventListener {
             logger.debug("[ALGO] BID: price:" + price + " quantity:" + quantity);
 
             bookLevel+= 1;
-            bidLength = bookLevel;
-
         }
 
+        bidLength = bookLevel;
+
         empty(askBook);
 
         bookLevel = 0;
@@ -93,9 +127,10 @@ public class MarketDataService extends MarketDataEventListener {
             logger.debug("[ALGO] ASK: price:" + price + " quantity:" + quantity);
 
             bookLevel+= 1;
-            askLength = bookLevel;
         }
 
+        askLength = bookLevel;
+
         runTrigger.triggerRun();
     }
 
@@ -117,10 +152,10 @@ public class MarketDataService extends MarketDataEventListener {
             logger.debug("[ALGO] ASK: price:" + price + " quantity:" + quantity);
 
             bookLevel+= 1;
-            askLength = bookLevel;
-
         }
 
+        askLength = bookLevel;
+
         runTrigger.triggerRun();
     }
 
@@ -141,9 +176,143 @@ public class MarketDataService extends MarketDataEventListener {
             logger.debug("[ALGO] BID: price:" + price + " quantity:" + quantity);
 
             bookLevel+= 1;
-            bidLength = bookLevel;
+        }
+
+        bidLength = bookLevel;
+
+        runTrigger.triggerRun();
+    }
+
+    @Override
+    public void onTrade(TradeDecoder trade) {
+        final long price = trade.price();
+        final long size = trade.size();
+
+        lastTradePrice = price;
+        tradedVolume += size;
+        tradedNotional += (double) price * size;
+        tradeCount += 1;
+
+        logger.debug("[ALGO] TRADE: price:" + price + " size:" + size + " aggressor:" + trade.aggressorSide());
+
+        //prints go out mid-match, the book update after the match is what runs the algo
+    }
+
+    /**
+     * Applies only the levels that changed, shifting the ones behind an added or deleted level along by one. An add or
+     * modify of a price we have is an update of its quantity, and one of a price we don't have is an insert, so a
+     * delta applies the same whichever of the two the venue sent. A size of 0 is a delete, as it is for the order book.
+     * A level added beyond the depth we keep is dropped. Levels a delta takes off are kept for the next one it adds.
+     */
+    @Override
+    public void onBookDelta(BookDeltaDecoder bookDelta) {
+
+        instrumentId = bookDelta.instrumentId();
+
+        for(BookDeltaDecoder.EntriesDecoder decoder : bookDelta.entries()){
+            final long price = decoder.price();
+            final long quantity = decoder.size();
+            final boolean delete = decoder.action() == DeltaAction.DELETE || quantity == 0;
+
+            if(decoder.side() == BookSide.BID){
+                bidLength = delete ? delete(bidBook, bidLength, price, spareBids) : upsertBid(price, quantity);
+                logger.debug("[ALGO] BID " + decoder.action() + ": price:" + price + " quantity:" + quantity);
+            }else{
+                askLength = delete ? delete(askBook, askLength, price, spareAsks) : upsertAsk(price, quantity);
+                logger.debug("[ALGO] ASK " + decoder.action() + ": price:" + price + " quantity:" + quantity);
+            }
         }
 
         runTrigger.triggerRun();
     }
+
+    private int upsertBid(final long price, final long quantity){
+        //bids are best (highest) first
+        int index = 0;
+        while(index < bidLength && bidBook[index].getPrice() > price){
+            index++;
+        }
+
+        if(index < bidLength && bidBook[index].getPrice() == price){
+            bidBook[index].setQuantity(quantity);
+            return bidLength;
+        }
+
+        return insert(bidBook, bidLength, index, price, quantity, spareBids);
+    }
+
+    private int upsertAsk(final long price, final long quantity){
+        //asks are best (lowest) first
+        int index = 0;
+        while(index < askLength && askBook[index].getPrice() < price){
+            index++;
+        }
+
+        if(index < askLength && askBook[index].getPrice() == price){
+            askBook[index].setQuantity(quantity);
+            return askLength;
+        }
+
+        return insert(askBook, askLength, index, price, quantity, spareAsks);
+    }
+
+    private static <T extends AbstractLevel> int insert(final T[] levels, final int length, final int index, final long price, final long quantity, final SpareLevels<T> spares){
+        if(index >= levels.length){
+            return length;
+        }
+
+        //the deepest level falls off a full book
+        if(length == levels.length){
+            spares.give(levels[length - 1]);
+        }
+
+        final T level = spares.take();
+        level.setPrice(price);
+        level.setQuantity(quantity);
+
+        final int newLength = Math.min(length + 1, levels.length);
+        System.arraycopy(levels, index, levels, index + 1, newLength - 1 - index);
+        levels[index] = level;
+        return newLength;
+    }
+
+    private static <T extends AbstractLevel> int delete(final T[] levels, final int length, final long price, final SpareLevels<T> spares){
+        for (int index = 0; index < length; index++) {
+            if(levels[index].getPrice() == price){
+                spares.give(levels[index]);
+                System.arraycopy(levels, index + 1, levels, index, length - 1 - index);
+                levels[length - 1] = null;
+                return length - 1;
+            }
+        }
+        return length;
+    }
+
+    //levels a delta took off the book, handed out again before any new one is made
+    private static final class SpareLevels<T extends AbstractLevel> {
+
+        private final T[] levels;
+        private final Supplier<T> newLevel;
+        private int count = 0;
+
+        private SpareLevels(final T[] levels, final Supplier<T> newLevel) {
+            this.levels = levels;
+            this.newLevel = newLevel;
+        }
+
+        private T take(){
+            if(count == 0){
+                return newLevel.get();
+            }
+            final T level = levels[--count];
+            levels[count] = null;
+            return level;
+        }
+
+        private void give(final T level){
+            if(count < levels.length){
+                levels[count++] = level;
+            }
+        }
+    }
 }
@@ -5,12 +5,17 @@ import codingblackfemales.sequencer.event.OrderEventListener;
 import codingblackfemales.sotw.ChildOrder;
 import codingblackfemales.sotw.OrderState;
 import messages.order.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 
 public class OrderService extends OrderEventListener {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
     private final RunTrigger runTrigger;
 
     private List<ChildOrder> children = new LinkedList<>();
@@ -42,8 +47,29 @@ public class OrderService extends OrderEventListener {
         triggerRun();
     }
 
+    @Override
+    public void onBatchOrderCommand(final BatchOrderCommandDecoder batch) {
+        //one unknown cancel doesn't stop the rest of the batch
+        for(BatchOrderCommandDecoder.CancelsDecoder cancel : batch.cancels()){
+            final Optional<ChildOrder> found = lookup(cancel.orderId());
+            if(found.isEmpty()){
+                logger.warn("[ORDERSERVICE] Ignoring batch cancel of unknown order: " + cancel.orderId());
+                continue;
+            }
+            updateState(found.get(), OrderState.CANCELLED);
+        }
+        for(BatchOrderCommandDecoder.CreatesDecoder create : batch.creates()){
+            children.add(new ChildOrder(create.side(), create.orderId(), create.quantity(), create.price(), OrderState.PENDING));
+        }
+        triggerRun();
+    }
+
+    private Optional<ChildOrder> lookup(long orderId){
+        return children.stream().filter( order -> order.getOrderId() == orderId).findFirst();
+    }
+
     private ChildOrder find(long orderId){
-        return children.stream().filter( order -> order.getOrderId() == orderId).findFirst().get();
+        return lookup(orderId).get();
     }
 
     @Override
@@ -52,6 +78,24 @@ public class OrderService extends OrderEventListener {
         triggerRun();
     }
 
+    @Override
+    public void onAmendOrder(final AmendOrderDecoder amend) {
+        final Optional<ChildOrder> found = lookup(amend.orderId());
+        if(found.isEmpty()){
+            logger.warn("[ORDERSERVICE] Ignoring amend of unknown order: " + amend.orderId());
+            return;
+        }
+
+        //the amend is of what's left to fill, the child keeps its total
+        final ChildOrder child = found.get();
+        child.setPrice(amend.price());
+        child.setQuantity(child.getFilledQuantity() + amend.quantity());
+        if(amend.quantity() == 0){
+            updateState(child, OrderState.CANCELLED);
+        }
+        triggerRun();
+    }
+
     @Override
     public void onAckedOrder(final AckedOrderDecoder acked) {
         updateState(find(acked.orderId()), OrderState.ACKED);
@@ -40,6 +40,14 @@ public class ChildOrder {
         return price;
     }
 
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    public void setPrice(long price) {
+        this.price = price;
+    }
+
     public long getFilledQuantity() {
         return fills.stream().map( cf -> cf.getQuantity()).collect(Collectors.summingLong(Long::longValue));
     }
@@ -20,4 +20,17 @@ public interface SimpleAlgoState {
     public List<ChildOrder> getActiveChildOrders();
 
     public long getInstrumentId();
+
+    //trades are optional, so states that don't see any needn't say so
+    public default long getLastTradePrice() {
+        return 0L;
+    }
+
+    public default long getTradedVolume() {
+        return 0L;
+    }
+
+    public default double getVwap() {
+        return 0.0;
+    }
 }
@@ -23,6 +23,21 @@ public class SimpleAlgoStateImpl implements SimpleAlgoState {
         return marketDataService.getInstrumentId();
     }
 
+    @Override
+    public long getLastTradePrice() {
+        return marketDataService.getLastTradePrice();
+    }
+
+    @Override
+    public long getTradedVolume() {
+        return marketDataService.getTradedVolume();
+    }
+
+    @Override
+    public double getVwap() {
+        return marketDataService.getVwap();
+    }
+
     @Override
     public String getSymbol() {
         return null;
@@ -0,0 +1,58 @@
+package codingblackfemales.action;
+
+import codingblackfemales.sequencer.Sequencer;
+import messages.order.CreateOrderDecoder;
+import messages.order.MessageHeaderDecoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CommandEncodersTest {
+
+    private final List<DirectBuffer> sent = new ArrayList<>();
+    private final List<DirectBuffer> copies = new ArrayList<>();
+
+    //copies, as the sequencer does
+    private final Sequencer sequencer = buffer -> {
+        sent.add(buffer);
+        final UnsafeBuffer copy = new UnsafeBuffer(new byte[buffer.capacity()]);
+        copy.putBytes(0, buffer, 0, buffer.capacity());
+        copies.add(copy);
+    };
+
+    @Test
+    public void actionsOnOneThreadWriteTheSameBuffer() {
+        new CreateChildOrder(Side.BUY, 100L, 99L).apply(sequencer);
+        new BatchChildOrders().create(Side.SELL, 100L, 101L).apply(sequencer);
+        new CreateChildOrder(Side.BUY, 100L, 98L).apply(sequencer);
+
+        assertSame(sent.get(0), sent.get(1));
+        assertSame(sent.get(1), sent.get(2));
+    }
+
+    @Test
+    public void noFieldIsLeftOverFromTheCommandBefore() {
+        final BatchChildOrders batch = new BatchChildOrders();
+        for (int i = 0; i < 10; i++) {
+            batch.create(Side.SELL, 100L + i, 101L + i);
+        }
+        batch.apply(sequencer, 7L);
+        new CreateChildOrder(Side.BUY, 100L, 99L).apply(sequencer);
+
+        final MessageHeaderDecoder header = new MessageHeaderDecoder().wrap(copies.get(1), 0);
+        final CreateOrderDecoder create = new CreateOrderDecoder()
+                .wrap(copies.get(1), header.encodedLength(), header.blockLength(), header.version());
+
+        assertEquals(CreateOrderDecoder.TEMPLATE_ID, header.templateId());
+        assertEquals(0L, create.commandId());
+        assertEquals(0L, create.causeSequencerNumber());
+        assertEquals(99L, create.price());
+    }
+}
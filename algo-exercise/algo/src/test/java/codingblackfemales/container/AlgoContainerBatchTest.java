@@ -0,0 +1,138 @@
+package codingblackfemales.container;
+
+import codingblackfemales.action.BatchChildOrders;
+import codingblackfemales.action.CreateChildOrder;
+import codingblackfemales.action.NoAction;
+import codingblackfemales.algo.PassiveAlgoLogic;
+import codingblackfemales.container.AlgoContainer.EvaluationMode;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.DefaultSequencer.CommandOrdering;
+import codingblackfemales.sequencer.Sequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.service.MarketDataService;
+import codingblackfemales.service.OrderService;
+import messages.marketdata.*;
+import messages.order.BatchOrderCommandDecoder;
+import messages.order.CreateOrderDecoder;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class AlgoContainerBatchTest {
+
+    private Sequencer sequencer;
+    private AlgoContainer container;
+    private int evaluations = 0;
+    private final List<Long> causeSequencerNumbers = new ArrayList<>();
+
+    private void createContainer(final EvaluationMode evaluationMode){
+        final TestNetwork network = new TestNetwork();
+        sequencer = new DefaultSequencer(network, CommandOrdering.QUEUED);
+
+        final RunTrigger runTrigger = new RunTrigger();
+        container = new AlgoContainer(new MarketDataService(runTrigger), new OrderService(runTrigger), runTrigger, new Actioner(sequencer));
+        container.setEvaluationMode(evaluationMode);
+        container.setLogic(state -> {
+            evaluations++;
+            return NoAction.NoAction;
+        });
+
+        network.addConsumer(container.getMarketDataService());
+        network.addConsumer(container.getOrderService());
+        network.addConsumer(container);
+        network.addConsumer(buffer -> {
+            final messages.order.MessageHeaderDecoder header = new messages.order.MessageHeaderDecoder().wrap(buffer, 0);
+            if(header.schemaId() == CreateOrderDecoder.SCHEMA_ID && header.templateId() == CreateOrderDecoder.TEMPLATE_ID){
+                causeSequencerNumbers.add(new CreateOrderDecoder().wrap(buffer, header.encodedLength(), header.blockLength(), header.version()).causeSequencerNumber());
+            }else if(header.schemaId() == BatchOrderCommandDecoder.SCHEMA_ID && header.templateId() == BatchOrderCommandDecoder.TEMPLATE_ID){
+                causeSequencerNumbers.add(new BatchOrderCommandDecoder().wrap(buffer, header.encodedLength(), header.blockLength(), header.version()).causeSequencerNumber());
+            }
+        });
+    }
+
+    private UnsafeBuffer createTick(final long bidPrice){
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.askBookCount(1).next().price(bidPrice + 2).size(100L);
+        encoder.bidBookCount(1).next().price(bidPrice).size(100L);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+
+        return directBuffer;
+    }
+
+    private void sendBurst(){
+        sequencer.beginBatch();
+        for (int i = 0; i < 5; i++) {
+            sequencer.onCommand(createTick(98L - i));
+        }
+        sequencer.endBatch();
+    }
+
+    @Test
+    public void perBatchEvaluatesOnceForABurst() {
+        createContainer(EvaluationMode.PER_BATCH);
+
+        sendBurst();
+
+        assertEquals(1, evaluations);
+        assertEquals(5, container.getTriggeringMessages());
+        assertEquals(4, container.getConflatedEvaluations());
+    }
+
+    @Test
+    public void perMessageEvaluatesForEveryMessageInABurst() {
+        createContainer(EvaluationMode.PER_MESSAGE);
+
+        sendBurst();
+
+        assertEquals(5, evaluations);
+        assertEquals(0, container.getConflatedEvaluations());
+    }
+
+    @Test
+    public void commandsSentAtTheEndOfABatchAreEvaluatedInTheirOwnBatch() {
+        createContainer(EvaluationMode.PER_BATCH);
+        container.setLogic(new PassiveAlgoLogic());
+
+        sequencer.onCommand(createTick(98L));
+
+        //one child order per batch until it has three
+        assertEquals(3, container.getState().getChildOrders().size());
+        assertEquals(4, container.getEvaluations());
+    }
+
+    @Test
+    public void ordersCarryTheSequencerNumberOfTheTickTheyWereSentFor() {
+        createContainer(EvaluationMode.PER_BATCH);
+        container.setLogic(state -> state.getChildOrders().isEmpty() ? new CreateChildOrder(Side.BUY, 100L, 98L) : NoAction.NoAction);
+
+        //evaluated once, after the last of the five ticks
+        sendBurst();
+
+        assertEquals(List.of(5L), causeSequencerNumbers);
+    }
+
+    @Test
+    public void batchesOfOrdersCarryTheSequencerNumberOfTheTickTheyWereSentFor() {
+        createContainer(EvaluationMode.PER_BATCH);
+        container.setLogic(state -> state.getChildOrders().isEmpty()
+                ? new BatchChildOrders().create(Side.BUY, 100L, 98L).create(Side.BUY, 100L, 97L)
+                : NoAction.NoAction);
+
+        sendBurst();
+
+        assertEquals(List.of(5L), causeSequencerNumbers);
+    }
+}
@@ -0,0 +1,108 @@
+package codingblackfemales.service;
+
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.marketdata.api.BookDeltaEntry;
+import codingblackfemales.marketdata.api.BookEntry;
+import codingblackfemales.marketdata.api.MarketDataEncoder;
+import codingblackfemales.marketdata.impl.BookDeltaImpl;
+import codingblackfemales.marketdata.impl.BookUpdateImpl;
+import messages.marketdata.BookSide;
+import messages.marketdata.DeltaAction;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.Venue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class MarketDataServiceDeltaTest {
+
+    private final MarketDataEncoder encoder = new MarketDataEncoder();
+    private final MarketDataService service = new MarketDataService(new RunTrigger());
+
+    private static BookDeltaEntry entry(final BookSide side, final DeltaAction action, final long price, final long size){
+        return new BookDeltaEntry().setSide(side).setAction(action).setPrice(price).setSize(size);
+    }
+
+    private void delta(final BookDeltaEntry... entries){
+        service.onMessage(encoder.encode(new BookDeltaImpl(123L, Venue.XLON, List.of(entries))));
+    }
+
+    private void assertBids(final long... pricesAndQuantities){
+        assertEquals(pricesAndQuantities.length / 2, service.getBidLength());
+        for (int i = 0; i < pricesAndQuantities.length; i += 2) {
+            assertEquals(pricesAndQuantities[i], service.getBidLevel(i / 2).getPrice());
+            assertEquals(pricesAndQuantities[i + 1], service.getBidLevel(i / 2).getQuantity());
+        }
+        assertNull(service.getBidLevel(service.getBidLength()));
+    }
+
+    private void assertAsks(final long... pricesAndQuantities){
+        assertEquals(pricesAndQuantities.length / 2, service.getAskLength());
+        for (int i = 0; i < pricesAndQuantities.length; i += 2) {
+            assertEquals(pricesAndQuantities[i], service.getAskLevel(i / 2).getPrice());
+            assertEquals(pricesAndQuantities[i + 1], service.getAskLevel(i / 2).getQuantity());
+        }
+        assertNull(service.getAskLevel(service.getAskLength()));
+    }
+
+    @Test
+    public void deltasApplyOnTopOfAFullBook() {
+        final List<BookEntry> bids = List.of(new BookEntry().setPrice(98L).setSize(100L), new BookEntry().setPrice(95L).setSize(200L), new BookEntry().setPrice(91L).setSize(300L));
+        final List<BookEntry> asks = List.of(new BookEntry().setPrice(100L).setSize(101L), new BookEntry().setPrice(110L).setSize(200L));
+        service.onMessage(encoder.encode(new BookUpdateImpl(123L, Venue.XLON, InstrumentStatus.CONTINUOUS, bids, asks)));
+
+        final Object untouched = service.getBidLevel(2);
+
+        delta(entry(BookSide.BID, DeltaAction.ADD, 99L, 50L),
+                entry(BookSide.BID, DeltaAction.DELETE, 95L, 0L),
+                entry(BookSide.ASK, DeltaAction.MODIFY, 110L, 250L),
+                entry(BookSide.ASK, DeltaAction.ADD, 105L, 10L),
+                entry(BookSide.ASK, DeltaAction.ADD, 120L, 20L));
+
+        assertBids(99L, 50L, 98L, 100L, 91L, 300L);
+        assertAsks(100L, 101L, 105L, 10L, 110L, 250L, 120L, 20L);
+        assertSame(untouched, service.getBidLevel(2));
+        assertEquals(123L, service.getInstrumentId());
+
+        //a delete of a price we don't have changes nothing
+        delta(entry(BookSide.ASK, DeltaAction.DELETE, 101L, 0L));
+        assertAsks(100L, 101L, 105L, 10L, 110L, 250L, 120L, 20L);
+    }
+
+    @Test
+    public void aLevelAddedToAFullBookPushesOutTheDeepest() {
+        final List<BookDeltaEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            entries.add(entry(BookSide.ASK, DeltaAction.ADD, 100L + i, 10L));
+        }
+        service.onMessage(encoder.encode(new BookDeltaImpl(123L, Venue.XLON, entries)));
+        assertEquals(15, service.getAskLength());
+
+        delta(entry(BookSide.ASK, DeltaAction.ADD, 99L, 5L),
+                entry(BookSide.ASK, DeltaAction.ADD, 200L, 5L));
+
+        assertEquals(15, service.getAskLength());
+        assertEquals(99L, service.getAskLevel(0).getPrice());
+        assertEquals(113L, service.getAskLevel(14).getPrice());
+    }
+
+    @Test
+    public void aSizeOfNothingIsADeleteAndTheLevelIsReused() {
+        delta(entry(BookSide.BID, DeltaAction.ADD, 98L, 100L),
+                entry(BookSide.BID, DeltaAction.ADD, 97L, 200L));
+        final Object removed = service.getBidLevel(0);
+
+        //as the order book does, rather than keeping a level with nothing on it
+        delta(entry(BookSide.BID, DeltaAction.MODIFY, 98L, 0L));
+        assertBids(97L, 200L);
+
+        delta(entry(BookSide.BID, DeltaAction.ADD, 99L, 50L));
+        assertBids(99L, 50L, 97L, 200L);
+        assertSame(removed, service.getBidLevel(0));
+    }
+}
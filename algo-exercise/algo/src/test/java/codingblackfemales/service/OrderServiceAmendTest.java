@@ -0,0 +1,74 @@
+package codingblackfemales.service;
+
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.sotw.ChildOrder;
+import codingblackfemales.sotw.OrderState;
+import messages.order.AmendOrderEncoder;
+import messages.order.CreateOrderEncoder;
+import messages.order.MessageHeaderEncoder;
+import messages.order.PartialFillOrderEncoder;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+public class OrderServiceAmendTest {
+
+    private final OrderService orderService = new OrderService(new RunTrigger());
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    private ChildOrder child;
+
+    @Before
+    public void setup() {
+        new CreateOrderEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder())
+                .instrumentId(123L).price(99L).quantity(10L).side(Side.BUY).orderId(2L);
+        orderService.onMessage(buffer);
+        child = orderService.children().get(0);
+    }
+
+    private void partialFill(final long quantity){
+        new PartialFillOrderEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder())
+                .orderId(2L).quantity(quantity).price(99L);
+        orderService.onMessage(buffer);
+    }
+
+    private void amend(final long orderId, final long price, final long quantity){
+        new AmendOrderEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder())
+                .orderId(orderId).price(price).quantity(quantity);
+        orderService.onMessage(buffer);
+    }
+
+    @Test
+    public void anAmendAfterAPartialFillIsOfWhatIsLeft() {
+        partialFill(4L);
+        amend(2L, 98L, 3L);
+
+        //the book now has 3 left, as the child does
+        assertEquals(7L, child.getQuantity());
+        assertEquals(3L, child.getQuantity() - child.getFilledQuantity());
+        assertEquals(98L, child.getPrice());
+        assertEquals(OrderState.PENDING, child.getState());
+    }
+
+    @Test
+    public void anAmendToNothingCancelsTheChild() {
+        partialFill(4L);
+        amend(2L, 99L, 0L);
+
+        assertEquals(4L, child.getQuantity());
+        assertEquals(OrderState.CANCELLED, child.getState());
+    }
+
+    @Test
+    public void anAmendOfAnUnknownOrderIsIgnored() {
+        amend(42L, 99L, 5L);
+
+        assertEquals(1, orderService.children().size());
+        assertEquals(10L, child.getQuantity());
+    }
+}
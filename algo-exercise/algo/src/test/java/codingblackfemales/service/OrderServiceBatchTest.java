@@ -0,0 +1,41 @@
+package codingblackfemales.service;
+
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.sotw.ChildOrder;
+import codingblackfemales.sotw.OrderState;
+import messages.order.BatchOrderCommandEncoder;
+import messages.order.CreateOrderEncoder;
+import messages.order.MessageHeaderEncoder;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+public class OrderServiceBatchTest {
+
+    private final OrderService orderService = new OrderService(new RunTrigger());
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    @Test
+    public void aCancelOfAnUnknownOrderDoesNotStopTheRestOfTheBatch() {
+        new CreateOrderEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder())
+                .instrumentId(123L).price(99L).quantity(10L).side(Side.BUY).orderId(2L);
+        orderService.onMessage(buffer);
+
+        final BatchOrderCommandEncoder batch = new BatchOrderCommandEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder());
+        final BatchOrderCommandEncoder.CancelsEncoder cancels = batch.cancelsCount(2);
+        cancels.next().orderId(42L);
+        cancels.next().orderId(2L);
+        batch.createsCount(1).next().price(98L).quantity(5L).side(Side.BUY).orderId(3L);
+        orderService.onMessage(buffer);
+
+        final ChildOrder cancelled = orderService.children().get(0);
+        final ChildOrder created = orderService.children().get(1);
+        assertEquals(OrderState.CANCELLED, cancelled.getState());
+        assertEquals(3L, created.getOrderId());
+        assertEquals(2, orderService.children().size());
+    }
+}
@@ -5,14 +5,19 @@ import codingblackfemales.orderbook.channel.OrderChannel;
 import codingblackfemales.orderbook.order.LimitOrderFlyweight;
 import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
 import codingblackfemales.orderbook.visitor.CancelOrderVisitor;
+import codingblackfemales.orderbook.visitor.MutatingAmendOrderVisitor;
 import codingblackfemales.orderbook.visitor.MutatingMatchOneMarketDataOrderVisitor;
 import codingblackfemales.orderbook.visitor.MutatingMatchOneOrderVisitor;
 import codingblackfemales.orderbook.visitor.ReadOnlyMarketDataChannelPublishVisitor;
 import codingblackfemales.sequencer.event.MarketDataEventListener;
 import messages.marketdata.AskBookUpdateDecoder;
 import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookSide;
 import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.DeltaAction;
 import messages.marketdata.Source;
+import messages.marketdata.Venue;
 import messages.order.Side;
 import org.agrona.MutableDirectBuffer;
 import org.slf4j.Logger;
@@ -22,15 +27,23 @@ public class OrderBook extends MarketDataEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderBook.class);
 
+    //what the book is published and trades are printed as, until market data says otherwise
+    public static final long DEFAULT_INSTRUMENT_ID = 123L;
+    public static final Venue DEFAULT_VENUE = Venue.XLON;
+
     private final MarketDataChannel marketDataChannel;
     private final OrderChannel orderChannel;
 
+    private long instrumentId = DEFAULT_INSTRUMENT_ID;
+    private Venue venue = DEFAULT_VENUE;
+
     public OrderBook(final MarketDataChannel marketDataChannel, final OrderChannel orderChannel) {
         this.marketDataChannel = marketDataChannel;
         this.orderChannel = orderChannel;
     }
 
     private ReadOnlyMarketDataChannelPublishVisitor mktDataVisitor = new ReadOnlyMarketDataChannelPublishVisitor();
+    private final MutatingAmendOrderVisitor amendVisitor = new MutatingAmendOrderVisitor();
 
     private AskBookSide askBookSide = new AskBookSide();
     private BidBookSide bidBookSide = new BidBookSide();
@@ -43,6 +56,14 @@ public class OrderBook extends MarketDataEventListener {
         return bidBookSide;
     }
 
+    public long getInstrumentId() {
+        return instrumentId;
+    }
+
+    public Venue getVenue() {
+        return venue;
+    }
+
     public boolean canMatch(final Side side, final long price){
         boolean canMatch = false;
 
@@ -60,6 +81,8 @@ public class OrderBook extends MarketDataEventListener {
         //don't process updates from ourself.
         if(!bookUpdate.source().equals(Source.ORDERBOOK)){
             logger.info("[ORDERBOOK] Processing Mkt Data Update");
+            instrumentId = bookUpdate.instrumentId();
+            venue = bookUpdate.venue();
             getBidBookSide().removeMarketDataOrders();
             addOrMatchBidMarketDataOrders(bookUpdate);
 
@@ -126,18 +149,51 @@ public class OrderBook extends MarketDataEventListener {
 
     @Override
     public void onAskBook(AskBookUpdateDecoder askBook) {
+        instrumentId = askBook.instrumentId();
+        venue = askBook.venue();
         getAskBookSide().removeMarketDataOrders();
         addOrMatchAskMarketDataOrders(askBook);
     }
 
     @Override
     public void onBidBook(BidBookUpdateDecoder bidBook) {
+        instrumentId = bidBook.instrumentId();
+        venue = bidBook.venue();
         getBidBookSide().removeMarketDataOrders();
         addOrMatchBidMarketDataOrders(bidBook);
     }
 
+    @Override
+    public void onBookDelta(BookDeltaDecoder bookDelta) {
+        //don't process updates from ourself.
+        if(!bookDelta.source().equals(Source.ORDERBOOK)){
+            logger.info("[ORDERBOOK] Processing Mkt Data Delta");
+            instrumentId = bookDelta.instrumentId();
+            venue = bookDelta.venue();
+            //each entry replaces whatever the stream had at its price, so only the levels in the delta are visited, and a size of 0 leaves nothing there
+            for(BookDeltaDecoder.EntriesDecoder decoder : bookDelta.entries()) {
+                final long price = decoder.price();
+                final long quantity = decoder.size();
+                final Side side = decoder.side() == BookSide.BID ? Side.BUY : Side.SELL;
+                final OrderBookSide bookSide = side == Side.BUY ? getBidBookSide() : getAskBookSide();
+
+                bookSide.removeMarketDataOrder(price);
+
+                if(decoder.action() != DeltaAction.DELETE && quantity > 0){
+                    var marketOrder = new MarketDataOrderFlyweight(side, price, quantity);
+                    logger.debug("[ORDERBOOK] " + side + ": Adding order" + marketOrder);
+                    if(canMatch(side, price)){
+                        matchMarketDataOrder(marketOrder);
+                    }else{
+                        bookSide.addMarketDataOrder(marketOrder);
+                    }
+                }
+            }
+        }
+    }
+
     public void matchOrder(final LimitOrderFlyweight limit) {
-        final MutatingMatchOneOrderVisitor visitor = new MutatingMatchOneOrderVisitor(limit, orderChannel);
+        final MutatingMatchOneOrderVisitor visitor = new MutatingMatchOneOrderVisitor(limit, orderChannel, marketDataChannel, instrumentId, venue);
         if(limit.getSide().equals(Side.BUY)){
             getAskBookSide().accept(visitor);
         }else if(limit.getSide().equals(Side.SELL)){
@@ -146,7 +202,7 @@ public class OrderBook extends MarketDataEventListener {
     }
 
     public void matchMarketDataOrder(final MarketDataOrderFlyweight market) {
-        final MutatingMatchOneMarketDataOrderVisitor visitor = new MutatingMatchOneMarketDataOrderVisitor(market, orderChannel);
+        final MutatingMatchOneMarketDataOrderVisitor visitor = new MutatingMatchOneMarketDataOrderVisitor(market, orderChannel, marketDataChannel, instrumentId, venue);
         if(market.getSide().equals(Side.BUY)){
             getAskBookSide().accept(visitor);
         }else if(market.getSide().equals(Side.SELL)){
@@ -165,31 +221,63 @@ public class OrderBook extends MarketDataEventListener {
     }
 
     public void onLimitOrder(final LimitOrderFlyweight limit) {
+        addOrMatchLimitOrder(limit);
+        publishBook();
+    }
+
+    public void onCancelOrder(final long orderIdToCancel){
+        cancelOrder(orderIdToCancel);
+        publishBook();
+    }
+
+    public void onAmendOrder(final long orderId, final long price, final long quantity){
+        amendOrder(orderId, price, quantity);
+        publishBook();
+    }
+
+    /**
+     * Like {@link #onLimitOrder(LimitOrderFlyweight)} without publishing the book, for when many orders arrive together.
+     */
+    public void addOrMatchLimitOrder(final LimitOrderFlyweight limit) {
         if(canMatch(limit.getSide(), limit.getPrice())){
             matchOrder(limit);
         }else{
             addLiquidity(limit);
         }
-
-        publishBook();
     }
 
-    public void onCancelOrder(final long orderIdToCancel){
+    /**
+     * Like {@link #onCancelOrder(long)} without publishing the book.
+     */
+    public void cancelOrder(final long orderIdToCancel){
         logger.info("[ORDERBOOK] Cancelling order (id=:" + orderIdToCancel + ")");
         var cancelVisitor = new CancelOrderVisitor(orderIdToCancel);
         getAskBookSide().accept(cancelVisitor);
         getBidBookSide().accept(cancelVisitor);
-        publishBook();
     }
 
 
+    /**
+     * Like {@link #onAmendOrder(long, long, long)} without publishing the book. A moved order can match at its new price.
+     */
+    public void amendOrder(final long orderId, final long price, final long quantity){
+        amendVisitor.setAmend(orderId, price, quantity);
+        getAskBookSide().accept(amendVisitor);
+        getBidBookSide().accept(amendVisitor);
+
+        final LimitOrderFlyweight moved = amendVisitor.getMovedOrder();
+        if(moved != null){
+            addOrMatchLimitOrder(moved);
+        }
+    }
+
     public void publishBook(){
         final var messageBuffer = getBookUpdateMessage();
         marketDataChannel.publish(messageBuffer);
     }
 
     public MutableDirectBuffer getBookUpdateMessage(){
-        mktDataVisitor.start();
+        mktDataVisitor.start(instrumentId, venue);
         getBidBookSide().accept(mktDataVisitor);
         getAskBookSide().accept(mktDataVisitor);
         return mktDataVisitor.end();
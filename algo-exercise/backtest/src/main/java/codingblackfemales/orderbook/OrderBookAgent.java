@@ -0,0 +1,32 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.consumer.OrderBookInboundOrderConsumer;
+import codingblackfemales.sequencer.net.RingBufferConsumer;
+import codingblackfemales.sequencer.net.TestNetwork;
+
+/**
+ * The exchange simulator as an agent: the {@link OrderBook} and the consumer of the orders sent to it, on a thread of
+ * their own. Add it to the sequencer's network and to an {@link codingblackfemales.sequencer.runtime.AgentRuntime}.
+ */
+public class OrderBookAgent extends RingBufferConsumer {
+
+    public static final String ROLE_NAME = "exchange";
+
+    private final OrderBook orderBook;
+
+    public OrderBookAgent(final OrderBook orderBook) {
+        super(ROLE_NAME, networkFor(orderBook));
+        this.orderBook = orderBook;
+    }
+
+    public OrderBook getOrderBook() {
+        return orderBook;
+    }
+
+    private static TestNetwork networkFor(final OrderBook orderBook){
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(orderBook);
+        network.addConsumer(new OrderBookInboundOrderConsumer(orderBook));
+        return network;
+    }
+}
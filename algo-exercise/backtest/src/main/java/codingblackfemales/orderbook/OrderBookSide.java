@@ -5,6 +5,7 @@ import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
 import codingblackfemales.orderbook.visitor.FilteringOrderBookVisitor;
 import codingblackfemales.orderbook.visitor.MutatingAddOrderVisitor;
 import codingblackfemales.orderbook.visitor.MutatingRemoveAllMarketDataOrdersVisitor;
+import codingblackfemales.orderbook.visitor.MutatingRemoveMarketDataOrderVisitor;
 import codingblackfemales.orderbook.visitor.OrderBookVisitor;
 
 import java.util.Comparator;
@@ -14,6 +15,7 @@ public abstract class OrderBookSide {
     private final MutatingAddOrderVisitor addOrderVisitor = new MutatingAddOrderVisitor();
 
     private final MutatingRemoveAllMarketDataOrdersVisitor removeMarketDataOrderVisitor = new MutatingRemoveAllMarketDataOrdersVisitor();
+    private final MutatingRemoveMarketDataOrderVisitor removeMarketDataOrderAtPriceVisitor = new MutatingRemoveMarketDataOrderVisitor();
 
     public boolean canMatch(OrderBookSide side, long quantity, long price){
         return false;
@@ -68,10 +70,15 @@ public abstract class OrderBookSide {
             if (priceToFind == levelToVisit.getPrice()) {
                 levelToVisit.accept(visitor, this);
             } else if (isBetweenLevels(levelToVisit, nextLevel, priceToFind)) {
-                visitor.missingBookLevel(levelToVisit, nextLevel, priceToFind);
+                OrderBookLevel level = visitor.missingBookLevel(levelToVisit, nextLevel, priceToFind);
+                if(level != null) {
+                    levelToVisit.insertAfter(level);
+                }
             } else if (isNewDeepestLevel(levelToVisit, nextLevel, priceToFind)) {
                 OrderBookLevel level = visitor.missingBookLevel(levelToVisit, nextLevel, priceToFind);
-                levelToVisit.last().add(level);
+                if(level != null) {
+                    levelToVisit.last().add(level);
+                }
             }
         }else{
             levelToVisit.accept(visitor, this);
@@ -107,6 +114,11 @@ public abstract class OrderBookSide {
         this.accept(removeMarketDataOrderVisitor);
     }
 
+    void removeMarketDataOrder(long price){
+        removeMarketDataOrderAtPriceVisitor.setPrice(price);
+        this.accept(removeMarketDataOrderAtPriceVisitor);
+    }
+
     void addMarketDataOrder(MarketDataOrderFlyweight order){
         this.getAddOrderVisitor().setOrderToAdd(order);
         this.accept(this.getAddOrderVisitor());
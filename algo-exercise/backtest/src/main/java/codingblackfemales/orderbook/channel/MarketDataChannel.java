@@ -1,16 +1,32 @@
 package codingblackfemales.orderbook.channel;
 
 import codingblackfemales.sequencer.Sequencer;
+import messages.marketdata.AggressorSide;
+import messages.marketdata.MessageHeaderEncoder;
+import messages.marketdata.TradeEncoder;
+import messages.marketdata.Venue;
+import messages.order.Side;
 import org.agrona.DirectBuffer;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
+
 public class MarketDataChannel {
 
     private static final Logger logger = LoggerFactory.getLogger(MarketDataChannel.class);
 
     private final Sequencer sequencer;
 
+    //the sequencer copies what it's given, so one buffer does for every trade
+    private final UnsafeBuffer tradeBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final TradeEncoder tradeEncoder = new TradeEncoder();
+    //by instrument, the last trade sequence printed
+    private final Long2LongHashMap tradeSequences = new Long2LongHashMap(0L);
+
     public MarketDataChannel(Sequencer sequencer) {
         this.sequencer = sequencer;
     }
@@ -19,4 +35,21 @@ public class MarketDataChannel {
         logger.info("[ORDERBOOK] Sending market data update...");
         sequencer.onCommand(buffer);
     }
+
+    public void publishTrade(final long instrumentId, final Venue venue, final long price, final long size, final Side aggressorSide){
+        final long tradeSequence = tradeSequences.get(instrumentId) + 1;
+        tradeSequences.put(instrumentId, tradeSequence);
+
+        tradeEncoder.wrapAndApplyHeader(tradeBuffer, 0, headerEncoder)
+                .instrumentId(instrumentId)
+                .venue(venue)
+                .price(price)
+                .size(size)
+                .aggressorSide(aggressorSide == Side.BUY ? AggressorSide.BUY : AggressorSide.SELL)
+                .tradeSequence(tradeSequence);
+
+        logger.info("[ORDERBOOK] publishing trade to stream: " + tradeEncoder);
+
+        sequencer.onCommand(tradeBuffer);
+    }
 }
@@ -29,6 +29,26 @@ public class OrderBookInboundOrderConsumer extends OrderEventListener {
         book.onCancelOrder(cancel.orderId());
     }
 
+    @Override
+    public void onAmendOrder(AmendOrderDecoder amend) {
+        book.onAmendOrder(amend.orderId(), amend.price(), amend.quantity());
+    }
+
+    @Override
+    public void onBatchOrderCommand(BatchOrderCommandDecoder batch) {
+        //the schema puts the cancels first, so a re-quoted ladder doesn't trade against the orders it replaces
+        for(BatchOrderCommandDecoder.CancelsDecoder cancel : batch.cancels()){
+            book.cancelOrder(cancel.orderId());
+        }
+
+        for(BatchOrderCommandDecoder.CreatesDecoder create : batch.creates()){
+            book.addOrMatchLimitOrder(new LimitOrderFlyweight(create.side(), create.price(), create.quantity(), create.orderId()));
+        }
+
+        //one book update for the whole batch
+        book.publishBook();
+    }
+
     @Override
     public void onAckedOrder(AckedOrderDecoder acked) {
 
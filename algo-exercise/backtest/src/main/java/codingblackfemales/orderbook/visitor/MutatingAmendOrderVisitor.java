@@ -0,0 +1,85 @@
+package codingblackfemales.orderbook.visitor;
+
+import codingblackfemales.orderbook.OrderBookLevel;
+import codingblackfemales.orderbook.OrderBookSide;
+import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Amends a limit order. Cutting its quantity at the same price is done where it rests, so it keeps its place in the
+ * queue. Anything else takes it out of its level, and leaves the order at its new price and quantity for the book to
+ * add back, at the back of the queue, see {@link #getMovedOrder()}. An amend to nothing takes it out for good.
+ */
+public class MutatingAmendOrderVisitor implements OrderBookVisitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(MutatingAmendOrderVisitor.class);
+
+    private long orderId;
+    private long price;
+    private long quantity;
+
+    private LimitOrderFlyweight movedOrder;
+
+    public void setAmend(final long orderId, final long price, final long quantity) {
+        this.orderId = orderId;
+        this.price = price;
+        this.quantity = quantity;
+        this.movedOrder = null;
+    }
+
+    public LimitOrderFlyweight getMovedOrder() {
+        return movedOrder;
+    }
+
+    @Override
+    public void visitSide(OrderBookSide side) {}
+
+    @Override
+    public void visitLevel(OrderBookSide side, OrderBookLevel level) {}
+
+    @Override
+    public void visitOrder(DefaultOrderFlyweight order, OrderBookSide side, OrderBookLevel level, boolean isLast) {
+        if(order instanceof LimitOrderFlyweight){
+            LimitOrderFlyweight limit = (LimitOrderFlyweight) order;
+            if(limit.getOrderId() != orderId){
+                return;
+            }
+
+            if(quantity > 0 && limit.getPrice() == price && quantity <= limit.getQuantity()){
+                logger.info("[ORDERBOOK] Amending order in place: " + limit + " to quantity=" + quantity);
+                level.setQuantity(level.getQuantity() - (limit.getQuantity() - quantity));
+                limit.setQuantity(quantity);
+                return;
+            }
+
+            logger.info("[ORDERBOOK] Moving order: " + limit + " to price=" + price + ",quantity=" + quantity);
+            level.setFirstOrder(limit.remove());
+            level.setQuantity(level.getQuantity() - limit.getQuantity());
+            if(level.getFirstOrder() == null){
+                side.setFirstLevel(level.remove());
+            }
+
+            //a fresh flyweight, as the removed one still points into its old level
+            if(quantity > 0){
+                movedOrder = new LimitOrderFlyweight(limit.getSide(), price, quantity, orderId);
+            }
+        }
+    }
+
+    @Override
+    public OrderBookLevel missingBookLevel(OrderBookLevel previous, OrderBookLevel next, long price) {
+        return null;
+    }
+
+    @Override
+    public OrderBookLevel onNoFirstLevel() {
+        return null;
+    }
+
+    @Override
+    public DefaultOrderFlyweight onNoFirstOrder() {
+        return null;
+    }
+}
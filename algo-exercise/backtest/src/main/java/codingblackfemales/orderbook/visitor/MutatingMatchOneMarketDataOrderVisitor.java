@@ -2,10 +2,12 @@ package codingblackfemales.orderbook.visitor;
 
 import codingblackfemales.orderbook.OrderBookLevel;
 import codingblackfemales.orderbook.OrderBookSide;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
 import codingblackfemales.orderbook.channel.OrderChannel;
 import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
 import codingblackfemales.orderbook.order.LimitOrderFlyweight;
 import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
+import messages.marketdata.Venue;
 import messages.order.Side;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,12 +22,18 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
     private boolean isFullyFilled = false;
 
     private final OrderChannel orderChannel;
+    private final MarketDataChannel marketDataChannel;
+    private final long instrumentId;
+    private final Venue venue;
 
-    public MutatingMatchOneMarketDataOrderVisitor(final MarketDataOrderFlyweight orderToMatch, final OrderChannel orderChannel) {
+    public MutatingMatchOneMarketDataOrderVisitor(final MarketDataOrderFlyweight orderToMatch, final OrderChannel orderChannel, final MarketDataChannel marketDataChannel, final long instrumentId, final Venue venue) {
         this.filledQuantity = 0;
         this.orderToMatch = orderToMatch;
         this.remainingQuantity = orderToMatch.getQuantity();
         this.orderChannel = orderChannel;
+        this.marketDataChannel = marketDataChannel;
+        this.instrumentId = instrumentId;
+        this.venue = venue;
     }
 
     @Override
@@ -46,6 +54,7 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
                 remainingQuantity -= fillQuantity;
                 filledQuantity += fillQuantity;
                 level.setFirstOrder(order.remove());
+                publishTrade(fillQuantity);
                 if(order instanceof LimitOrderFlyweight){
                     logger.info("Filled:" + fillQuantity + "@" + orderToMatch.getPrice());
                     publishFill(fillQuantity, orderToMatch.getPrice(),(LimitOrderFlyweight) order);
@@ -57,6 +66,7 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
                 remainingQuantity -= fillQuantity;
                 filledQuantity += fillQuantity;
                 order.setQuantity(remainingQty);
+                publishTrade(fillQuantity);
                 if(order instanceof LimitOrderFlyweight){
                     logger.info("Filled:" + fillQuantity + "@" + orderToMatch.getPrice());
                     publishFill(fillQuantity, orderToMatch.getPrice(), (LimitOrderFlyweight) order);
@@ -71,6 +81,11 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
         return priceIsEqualOrMoreAggressive(order, this.orderToMatch);
     }
 
+    //every match prints, whether or not one of our orders was in it
+    private void publishTrade(final long quantity){
+        marketDataChannel.publishTrade(instrumentId, venue, orderToMatch.getPrice(), quantity, orderToMatch.getSide());
+    }
+
     private void publishFill(final long quantity, final long price, LimitOrderFlyweight orderFlyweight){
         logger.info("[ORDERBOOK] Filled " + quantity + "@" + price + " for order:" + orderFlyweight);
         orderChannel.publishFill(quantity, price, orderFlyweight);
@@ -2,9 +2,11 @@ package codingblackfemales.orderbook.visitor;
 
 import codingblackfemales.orderbook.OrderBookLevel;
 import codingblackfemales.orderbook.OrderBookSide;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
 import codingblackfemales.orderbook.channel.OrderChannel;
 import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
 import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import messages.marketdata.Venue;
 import messages.order.Side;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,12 +21,18 @@ public class MutatingMatchOneOrderVisitor implements OrderBookVisitor{
     private boolean isFullyFilled = false;
 
     private final OrderChannel orderChannel;
+    private final MarketDataChannel marketDataChannel;
+    private final long instrumentId;
+    private final Venue venue;
 
-    public MutatingMatchOneOrderVisitor(final LimitOrderFlyweight orderToMatch, final OrderChannel orderChannel) {
+    public MutatingMatchOneOrderVisitor(final LimitOrderFlyweight orderToMatch, final OrderChannel orderChannel, final MarketDataChannel marketDataChannel, final long instrumentId, final Venue venue) {
         this.filledQuantity = 0;
         this.orderToMatch = orderToMatch;
         this.remainingQuantity = orderToMatch.getQuantity();
         this.orderChannel = orderChannel;
+        this.marketDataChannel = marketDataChannel;
+        this.instrumentId = instrumentId;
+        this.venue = venue;
     }
 
     @Override
@@ -77,6 +85,7 @@ public class MutatingMatchOneOrderVisitor implements OrderBookVisitor{
     private void publishFill(final long quantity, final long price, LimitOrderFlyweight orderFlyweight){
         logger.info("[ORDERBOOK] Filled " + quantity + "@" + price + " for order:" + orderFlyweight);
         orderChannel.publishFill(quantity, price, orderFlyweight);
+        marketDataChannel.publishTrade(instrumentId, venue, price, quantity, orderFlyweight.getSide());
     }
 
     private boolean priceIsEqualOrMoreAggressive(final DefaultOrderFlyweight bookOrder, final LimitOrderFlyweight orderToMatch){
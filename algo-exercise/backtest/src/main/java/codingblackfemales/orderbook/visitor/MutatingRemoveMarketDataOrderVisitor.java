@@ -0,0 +1,62 @@
+package codingblackfemales.orderbook.visitor;
+
+import codingblackfemales.orderbook.OrderBookLevel;
+import codingblackfemales.orderbook.OrderBookSide;
+import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
+import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Removes the market data order from the one level at a price, and the level too if nothing else is resting on it,
+ * leaving every other level alone.
+ */
+public class MutatingRemoveMarketDataOrderVisitor implements OrderBookVisitor, FilteringOrderBookVisitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(MutatingRemoveMarketDataOrderVisitor.class);
+
+    private long price;
+
+    public void setPrice(final long price) {
+        this.price = price;
+    }
+
+    @Override
+    public long getPrice() {
+        return price;
+    }
+
+    @Override
+    public void visitSide(OrderBookSide side) {}
+
+    @Override
+    public void visitLevel(OrderBookSide side, OrderBookLevel level) {}
+
+    @Override
+    public void visitOrder(DefaultOrderFlyweight order, OrderBookSide side, OrderBookLevel level, boolean isLast) {
+        if(order instanceof MarketDataOrderFlyweight){
+            level.setFirstOrder(order.remove());
+            level.setQuantity(level.getQuantity() - order.getQuantity());
+            logger.info("[ORDERBOOK] Removing market data order:" + order);
+            if(level.getQuantity() == 0){
+                logger.info("[ORDERBOOK] Removing level:" + level.getPrice());
+                side.setFirstLevel(level.remove());
+            }
+        }
+    }
+
+    @Override
+    public OrderBookLevel missingBookLevel(OrderBookLevel previous, OrderBookLevel next, long price) {
+        return null;
+    }
+
+    @Override
+    public OrderBookLevel onNoFirstLevel() {
+        return null;
+    }
+
+    @Override
+    public DefaultOrderFlyweight onNoFirstOrder() {
+        return null;
+    }
+}
@@ -23,14 +23,14 @@ public class ReadOnlyMarketDataChannelPublishVisitor implements OrderBookVisitor
     private ByteBuffer byteBuffer; //= ByteBuffer.allocateDirect(1024);
     private UnsafeBuffer directBuffer; //= new UnsafeBuffer(byteBuffer);
 
-    public void start(){
+    public void start(final long instrumentId, final Venue venue){
         byteBuffer = ByteBuffer.allocateDirect(1024);
         directBuffer = new UnsafeBuffer(byteBuffer);
 
         encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
         //set the fields to desired valus
-        encoder.venue(Venue.XLON);
-        encoder.instrumentId(123L);
+        encoder.venue(venue);
+        encoder.instrumentId(instrumentId);
         encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
         encoder.source(Source.ORDERBOOK);
     }
@@ -0,0 +1,109 @@
+package codingblackfemales.backtest;
+
+import codingblackfemales.algo.SniperAlgoLogic;
+import codingblackfemales.container.Actioner;
+import codingblackfemales.container.AlgoContainer;
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.orderbook.OrderBook;
+import codingblackfemales.orderbook.OrderBookAgent;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.RingBufferSequencer;
+import codingblackfemales.sequencer.net.RingBufferConsumer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.sequencer.runtime.AgentRuntime;
+import codingblackfemales.sequencer.runtime.IdleStrategyType;
+import codingblackfemales.service.MarketDataService;
+import codingblackfemales.service.OrderService;
+import codingblackfemales.sotw.ChildOrder;
+import messages.marketdata.*;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+//the sniper backtest again, but with the sequencer, the exchange and the algo each on a thread of its own
+public class AgentRuntimeBackTest {
+
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private UnsafeBuffer createSampleMarketDataTick() {
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+        encoder.wrapAndApplyHeader(directBuffer, 0, new MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.source(Source.STREAM);
+
+        encoder.bidBookCount(3)
+                .next().price(98L).size(100L)
+                .next().price(95L).size(200L)
+                .next().price(91L).size(300L);
+
+        encoder.askBookCount(4)
+                .next().price(100L).size(101L)
+                .next().price(110L).size(200L)
+                .next().price(115L).size(5000L)
+                .next().price(119L).size(5600L);
+
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+
+        return directBuffer;
+    }
+
+    @Test
+    public void sniperRunsAgainstTheExchangeOnItsOwnThread() throws Exception {
+        final TestNetwork network = new TestNetwork();
+        final RingBufferSequencer sequencer = new RingBufferSequencer(new DefaultSequencer(network));
+
+        final OrderBookAgent exchange = new OrderBookAgent(new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer)));
+
+        final RunTrigger runTrigger = new RunTrigger();
+        final AlgoContainer container = new AlgoContainer(new MarketDataService(runTrigger), new OrderService(runTrigger), runTrigger, new Actioner(sequencer));
+        container.setLogic(new SniperAlgoLogic());
+        final TestNetwork algoNetwork = new TestNetwork();
+        algoNetwork.addConsumer(container.getMarketDataService());
+        algoNetwork.addConsumer(container.getOrderService());
+        algoNetwork.addConsumer(container);
+        final RingBufferConsumer algo = new RingBufferConsumer("algo", algoNetwork);
+
+        network.addConsumer(exchange);
+        network.addConsumer(algo);
+
+        final Properties config = new Properties();
+        config.setProperty("cbf.agent.idle", "yield");
+        config.setProperty("cbf.agent.sequencer.idle", "busy-spin");
+        config.setProperty("cbf.agent.algo.idle", "sleep");
+
+        final AgentRuntime runtime = new AgentRuntime(config).add(sequencer).add(exchange).add(algo);
+        assertEquals(IdleStrategyType.BUSY_SPIN, runtime.idleStrategyFor("sequencer"));
+        assertEquals(IdleStrategyType.YIELD, runtime.idleStrategyFor("exchange"));
+        assertEquals(IdleStrategyType.SLEEP, runtime.idleStrategyFor("algo"));
+
+        try (runtime) {
+            runtime.start();
+            sequencer.onCommand(createSampleMarketDataTick());
+
+            //the algo only finds out about its children once they have been sequenced, so it may snipe more than 5 times
+            final long deadline = System.nanoTime() + TIMEOUT_NANOS;
+            while(!(container.getState().getChildOrders().size() >= 5 && sequencer.size() == 0 && exchange.size() == 0 && algo.size() == 0)){
+                assertTrue("timed out waiting for the algo", System.nanoTime() - deadline < 0);
+                Thread.sleep(10);
+            }
+        }
+
+        long filled = 0;
+        for (ChildOrder child : container.getState().getChildOrders()) {
+            filled += child.getFilledQuantity();
+        }
+        assertTrue(container.getState().getChildOrders().size() >= 5);
+        assertTrue("the exchange should have filled against the ask", filled > 0);
+    }
+}
@@ -0,0 +1,96 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import messages.order.Side;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class OrderBookAmendTest {
+
+    private final OrderBook orderBook = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class));
+
+    private final LimitOrderFlyweight first = new LimitOrderFlyweight(Side.BUY, 99L, 10L, 2L);
+    private final LimitOrderFlyweight second = new LimitOrderFlyweight(Side.BUY, 99L, 20L, 3L);
+    private final LimitOrderFlyweight third = new LimitOrderFlyweight(Side.BUY, 98L, 30L, 4L);
+
+    @Before
+    public void setup() {
+        orderBook.onLimitOrder(first);
+        orderBook.onLimitOrder(second);
+        orderBook.onLimitOrder(third);
+    }
+
+    private OrderBookLevel bestBid(){
+        return orderBook.getBidBookSide().getFirstLevel();
+    }
+
+    @Test
+    public void cuttingTheQuantityKeepsThePlaceInTheQueue() {
+        orderBook.onAmendOrder(2L, 99L, 4L);
+
+        assertEquals(99L, bestBid().getPrice());
+        assertEquals(24L, bestBid().getQuantity());
+        assertSame(first, bestBid().getFirstOrder());
+        assertEquals(4L, first.getQuantity());
+    }
+
+    @Test
+    public void raisingTheQuantityGoesToTheBackOfTheQueue() {
+        orderBook.onAmendOrder(2L, 99L, 15L);
+
+        assertEquals(35L, bestBid().getQuantity());
+        assertSame(second, bestBid().getFirstOrder());
+        assertEquals(2L, ((LimitOrderFlyweight) bestBid().getFirstOrder().next()).getOrderId());
+        assertEquals(15L, bestBid().getFirstOrder().next().getQuantity());
+    }
+
+    @Test
+    public void aNewPriceMovesTheOrderToItsLevel() {
+        orderBook.onAmendOrder(3L, 97L, 20L);
+
+        assertEquals(99L, bestBid().getPrice());
+        assertEquals(10L, bestBid().getQuantity());
+        assertSame(first, bestBid().getFirstOrder());
+        assertNull(bestBid().getFirstOrder().next());
+
+        final OrderBookLevel moved = bestBid().next().next();
+        assertEquals(97L, moved.getPrice());
+        assertEquals(20L, moved.getQuantity());
+        assertEquals(3L, ((LimitOrderFlyweight) moved.getFirstOrder()).getOrderId());
+
+        //moving the last order off a level takes the level away
+        orderBook.onAmendOrder(4L, 96L, 30L);
+        assertEquals(97L, bestBid().next().getPrice());
+        assertEquals(96L, bestBid().next().next().getPrice());
+        assertNull(bestBid().next().next().next());
+    }
+
+    @Test
+    public void amendingToNothingTakesTheOrderOut() {
+        orderBook.onAmendOrder(2L, 99L, 0L);
+        orderBook.onAmendOrder(3L, 99L, 0L);
+
+        assertEquals(98L, bestBid().getPrice());
+        assertNull(bestBid().next());
+    }
+
+    @Test
+    public void anAmendAfterAPartialFillIsOfWhatIsLeft() {
+        //leaves 6 of the first order
+        orderBook.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 99L, 4L, 5L));
+        assertEquals(6L, first.getQuantity());
+
+        orderBook.onAmendOrder(2L, 99L, 3L);
+
+        assertSame(first, bestBid().getFirstOrder());
+        assertEquals(3L, first.getQuantity());
+        assertEquals(23L, bestBid().getQuantity());
+    }
+}
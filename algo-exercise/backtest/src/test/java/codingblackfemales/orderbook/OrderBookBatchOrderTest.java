@@ -0,0 +1,72 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.consumer.OrderBookInboundOrderConsumer;
+import messages.order.BatchOrderCommandEncoder;
+import messages.order.MessageHeaderEncoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class OrderBookBatchOrderTest {
+
+    private final MarketDataChannel marketDataChannel = Mockito.mock(MarketDataChannel.class);
+    private final OrderBook orderBook = new OrderBook(marketDataChannel, Mockito.mock(OrderChannel.class));
+    private final OrderBookInboundOrderConsumer consumer = new OrderBookInboundOrderConsumer(orderBook);
+
+    private final UnsafeBuffer command = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    //as the sequencer hands it on, with order ids filled in
+    private void batch(final long[] cancels, final long[] bidPrices, final long firstOrderId){
+        final BatchOrderCommandEncoder encoder = new BatchOrderCommandEncoder().wrapAndApplyHeader(command, 0, new MessageHeaderEncoder())
+                .instrumentId(1L);
+
+        final BatchOrderCommandEncoder.CancelsEncoder cancelsEncoder = encoder.cancelsCount(cancels.length);
+        for (long orderId : cancels) {
+            cancelsEncoder.next().orderId(orderId);
+        }
+
+        final BatchOrderCommandEncoder.CreatesEncoder createsEncoder = encoder.createsCount(bidPrices.length);
+        for (int i = 0; i < bidPrices.length; i++) {
+            createsEncoder.next().price(bidPrices[i]).quantity(10L).side(Side.BUY).orderId(firstOrderId + i);
+        }
+
+        consumer.onMessage(command);
+    }
+
+    @Test
+    public void aBatchIsAppliedInOnePassAndPublishedOnce() {
+        batch(new long[0], new long[]{99L, 98L, 97L}, 2L);
+
+        assertEquals(99L, orderBook.getBidBookSide().getFirstLevel().getPrice());
+        assertEquals(97L, orderBook.getBidBookSide().getFirstLevel().next().next().getPrice());
+        verify(marketDataChannel, times(1)).publish(any(DirectBuffer.class));
+
+        //replace the ladder a tick lower
+        batch(new long[]{2L, 3L, 4L}, new long[]{98L, 97L, 96L}, 5L);
+
+        //as with a single cancel, the emptied level stays in the book
+        final OrderBookLevel emptied = orderBook.getBidBookSide().getFirstLevel();
+        assertEquals(99L, emptied.getPrice());
+        assertEquals(0L, emptied.getQuantity());
+
+        assertEquals(98L, emptied.next().getPrice());
+        assertEquals(10L, emptied.next().getQuantity());
+        assertEquals(97L, emptied.next().next().getPrice());
+        assertEquals(10L, emptied.next().next().getQuantity());
+        assertEquals(96L, emptied.next().next().next().getPrice());
+        assertNull(emptied.next().next().next().next());
+        verify(marketDataChannel, times(2)).publish(any(DirectBuffer.class));
+    }
+}
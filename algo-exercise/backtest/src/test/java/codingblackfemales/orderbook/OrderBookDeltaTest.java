@@ -0,0 +1,90 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
+import messages.marketdata.*;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class OrderBookDeltaTest {
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookDeltaEncoder bookDeltaEncoder = new BookDeltaEncoder();
+
+    private final OrderBook orderBook = new OrderBook(Mockito.mock(MarketDataChannel.class), Mockito.mock(OrderChannel.class));
+
+    private BookDeltaEncoder.EntriesEncoder delta(final int entries){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        bookDeltaEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder)
+                .instrumentId(123L).venue(Venue.XLON).source(Source.STREAM);
+        return bookDeltaEncoder.entriesCount(entries);
+    }
+
+    private void send(){
+        orderBook.onMessage(bookDeltaEncoder.buffer());
+    }
+
+    private static void assertLevels(final OrderBookSide side, final long... pricesAndQuantities){
+        OrderBookLevel level = side.getFirstLevel();
+        for (int i = 0; i < pricesAndQuantities.length; i += 2) {
+            assertNotNull("missing level " + pricesAndQuantities[i], level);
+            assertEquals(pricesAndQuantities[i], level.getPrice());
+            assertEquals(pricesAndQuantities[i + 1], level.getQuantity());
+            level = level.next();
+        }
+        assertNull(level);
+    }
+
+    @Test
+    public void onlyTheLevelsInTheDeltaChange() {
+        delta(5)
+                .next().side(BookSide.ASK).action(DeltaAction.ADD).price(100L).size(101L)
+                .next().side(BookSide.ASK).action(DeltaAction.ADD).price(110L).size(200L)
+                .next().side(BookSide.ASK).action(DeltaAction.ADD).price(115L).size(5000L)
+                .next().side(BookSide.BID).action(DeltaAction.ADD).price(98L).size(100L)
+                .next().side(BookSide.BID).action(DeltaAction.ADD).price(91L).size(300L);
+        send();
+
+        assertLevels(orderBook.getAskBookSide(), 100L, 101L, 110L, 200L, 115L, 5000L);
+        assertLevels(orderBook.getBidBookSide(), 98L, 100L, 91L, 300L);
+
+        final OrderBookLevel untouched = orderBook.getAskBookSide().getFirstLevel();
+
+        delta(4)
+                .next().side(BookSide.ASK).action(DeltaAction.MODIFY).price(110L).size(250L)
+                .next().side(BookSide.ASK).action(DeltaAction.ADD).price(112L).size(10L)
+                .next().side(BookSide.ASK).action(DeltaAction.DELETE).price(115L).size(0L)
+                .next().side(BookSide.BID).action(DeltaAction.ADD).price(95L).size(200L);
+        send();
+
+        assertLevels(orderBook.getAskBookSide(), 100L, 101L, 110L, 250L, 112L, 10L);
+        assertLevels(orderBook.getBidBookSide(), 98L, 100L, 95L, 200L, 91L, 300L);
+
+        assertSame(untouched, orderBook.getAskBookSide().getFirstLevel());
+        assertTrue(orderBook.getAskBookSide().getFirstLevel().next().getFirstOrder() instanceof MarketDataOrderFlyweight);
+
+        //taking out the top of book
+        delta(2)
+                .next().side(BookSide.BID).action(DeltaAction.DELETE).price(98L).size(0L)
+                .next().side(BookSide.ASK).action(DeltaAction.DELETE).price(120L).size(0L);
+        send();
+
+        assertLevels(orderBook.getBidBookSide(), 95L, 200L, 91L, 300L);
+        assertLevels(orderBook.getAskBookSide(), 100L, 101L, 110L, 250L, 112L, 10L);
+    }
+
+    @Test
+    public void deltasFromTheOrderBookItselfAreIgnored() {
+        delta(1).next().side(BookSide.ASK).action(DeltaAction.ADD).price(100L).size(101L);
+        bookDeltaEncoder.source(Source.ORDERBOOK);
+        send();
+
+        assertNull(orderBook.getAskBookSide().getFirstLevel());
+    }
+}
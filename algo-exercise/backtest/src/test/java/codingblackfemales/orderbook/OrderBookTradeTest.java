@@ -0,0 +1,104 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.service.MarketDataService;
+import messages.marketdata.MarketDataDispatcher;
+import messages.marketdata.BookUpdateEncoder;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.MessageHeaderEncoder;
+import messages.marketdata.Source;
+import messages.marketdata.TradeDecoder;
+import messages.marketdata.Venue;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class OrderBookTradeTest {
+
+    private final List<String> trades = new ArrayList<>();
+    private final List<String> instruments = new ArrayList<>();
+
+    //what the public stream saw, as price x size by aggressor and sequence
+    private final MarketDataDispatcher tradeRecorder = new MarketDataDispatcher(new MarketDataDispatcher.Handler() {
+        @Override
+        public void onTrade(final TradeDecoder trade) {
+            trades.add(trade.tradeSequence() + ":" + trade.aggressorSide() + " " + trade.size() + "@" + trade.price());
+            instruments.add(trade.instrumentId() + "@" + trade.venue());
+        }
+    });
+
+    @Test
+    public void everyMatchPrintsATradeThatTheAlgoKeepsAVwapOf() {
+        final TestNetwork network = new TestNetwork();
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        final MarketDataService marketDataService = new MarketDataService(new RunTrigger());
+        network.addConsumer(marketDataService);
+        network.addConsumer(buffer -> tradeRecorder.dispatch(buffer, 0));
+
+        final OrderBook orderBook = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+
+        orderBook.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 100L, 10L, 2L));
+        orderBook.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 101L, 10L, 3L));
+
+        //takes all of the first level and some of the second
+        orderBook.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 101L, 15L, 4L));
+        //and then the rest of the second
+        orderBook.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 105L, 5L, 5L));
+
+        assertEquals(List.of("1:BUY 10@100", "2:BUY 5@101", "3:BUY 5@101"), trades);
+
+        assertEquals(3, marketDataService.getTradeCount());
+        assertEquals(101L, marketDataService.getLastTradePrice());
+        assertEquals(20L, marketDataService.getTradedVolume());
+        assertEquals((10 * 100 + 10 * 101) / 20.0, marketDataService.getVwap(), 1e-9);
+    }
+
+    @Test
+    public void aTradeDoesNotRunTheAlgo() {
+        final TestNetwork network = new TestNetwork();
+        final RunTrigger runTrigger = new RunTrigger();
+        final MarketDataService marketDataService = new MarketDataService(runTrigger);
+        network.addConsumer(marketDataService);
+
+        new MarketDataChannel(new DefaultSequencer(network)).publishTrade(123L, Venue.XLON, 100L, 10L, Side.BUY);
+
+        assertEquals(1, marketDataService.getTradeCount());
+        assertEquals(0, runTrigger.triggerCount());
+    }
+
+    @Test
+    public void tradesArePrintedForTheInstrumentAndVenueOfTheBook() {
+        final TestNetwork network = new TestNetwork();
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        network.addConsumer(buffer -> tradeRecorder.dispatch(buffer, 0));
+
+        final OrderBook orderBook = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+        network.addConsumer(orderBook);
+
+        //the stream's book for instrument 456 in Paris
+        final UnsafeBuffer book = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder().wrapAndApplyHeader(book, 0, new MessageHeaderEncoder())
+                .instrumentId(456L).venue(Venue.XPAR);
+        encoder.bidBookCount(0);
+        encoder.askBookCount(1).next().price(100L).size(10L);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS).source(Source.STREAM);
+        sequencer.onCommand(book);
+
+        orderBook.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 100L, 4L, 2L));
+
+        assertEquals(List.of("1:BUY 4@100"), trades);
+        assertEquals(List.of("456@XPAR"), instruments);
+    }
+}
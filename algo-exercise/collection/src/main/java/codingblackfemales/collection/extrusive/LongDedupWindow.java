@@ -0,0 +1,123 @@
+package codingblackfemales.collection.extrusive;
+
+/**
+ * The last capacity distinct longs seen, for spotting repeats, e.g. commands retried with the id they were first sent
+ * with.
+ *
+ * The ids are held twice: in a ring in the order they were added, which says which one to forget once the window is
+ * full, and in an open addressing hash table with linear probing, at most half full, for the lookups. Both are
+ * allocated up front, so adding and checking are O(1) and never allocate. Zero marks an empty slot and can't be added.
+ */
+public class LongDedupWindow {
+
+    private static final long EMPTY = 0L;
+
+    private final long[] ring;
+    private int ringHead = 0;
+    private int size = 0;
+
+    private final long[] table;
+    private final int mask;
+
+    public LongDedupWindow(final int capacity) {
+        if(capacity < 1){
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.ring = new long[capacity];
+        this.table = new long[tableLength(capacity)];
+        this.mask = table.length - 1;
+    }
+
+    /**
+     * Adds the value unless it is already in the window, forgetting the oldest value if the window is full.
+     *
+     * @return false if the value was already in the window
+     */
+    public boolean add(final long value) {
+        if(value == EMPTY){
+            throw new IllegalArgumentException("0 can't be added");
+        }
+
+        int index = index(value);
+        while(table[index] != EMPTY){
+            if(table[index] == value){
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        if(size == ring.length){
+            //forgetting the oldest may shift entries back into the empty slot we found, so look again
+            remove(ring[ringHead]);
+            ring[ringHead] = value;
+            ringHead = (ringHead + 1) % ring.length;
+
+            index = index(value);
+            while(table[index] != EMPTY){
+                index = (index + 1) & mask;
+            }
+        }else{
+            ring[size++] = value;
+        }
+
+        table[index] = value;
+        return true;
+    }
+
+    public boolean contains(final long value) {
+        if(value == EMPTY){
+            return false;
+        }
+
+        int index = index(value);
+        while(table[index] != EMPTY){
+            if(table[index] == value){
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    private void remove(final long value) {
+        int index = index(value);
+        while(table[index] != value){
+            index = (index + 1) & mask;
+        }
+
+        //shift back whatever probed past the slot, so later lookups don't stop short at the gap
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while(table[next] != EMPTY){
+            final int home = index(table[next]);
+            if(((next - home) & mask) >= ((next - gap) & mask)){
+                table[gap] = table[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[gap] = EMPTY;
+    }
+
+    private int index(final long value) {
+        //spread the bits, ids are often sequential
+        final long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int tableLength(final int capacity) {
+        int length = 2;
+        while(length < capacity * 2){
+            length <<= 1;
+        }
+        return length;
+    }
+}
@@ -35,6 +35,25 @@ public abstract class IntrusiveLinkedListNode<TYPEOF extends IntrusiveLinkedList
         return first();
     }
 
+    /**
+     * Links the item in straight after this node, rather than at the tail like {@link #add}.
+     */
+    public TYPEOF insertAfter(final TYPEOF item) {
+        item.next = this.next;
+        setPrevious(item, (TYPEOF) this);
+
+        if (this.next != null) {
+            setPrevious(this.next, item);
+        } else {
+            setLast(item);
+        }
+
+        this.next = item;
+        item.first = this.first;
+        setSize(this.size() + 1);
+        return first();
+    }
+
     private void setPrevious(final TYPEOF item, final TYPEOF previous){
         item.previous = previous;
     }
@@ -62,6 +81,10 @@ public abstract class IntrusiveLinkedListNode<TYPEOF extends IntrusiveLinkedList
         if (previous != null) {
             previous.next = next;
         }
+
+        if (next != null) {
+            next.previous = previous;
+        }
     }
 
     private void setFirst(TYPEOF first) {
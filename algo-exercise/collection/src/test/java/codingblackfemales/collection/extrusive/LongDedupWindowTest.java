@@ -0,0 +1,63 @@
+package codingblackfemales.collection.extrusive;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongDedupWindowTest {
+
+    @Test
+    public void repeatsWithinTheWindowAreSpotted() {
+        final LongDedupWindow window = new LongDedupWindow(3);
+
+        assertTrue(window.add(10));
+        assertTrue(window.add(11));
+        assertFalse(window.add(10));
+        assertTrue(window.add(12));
+        assertEquals(3, window.size());
+
+        //10 is the oldest, so it goes
+        assertTrue(window.add(13));
+        assertFalse(window.contains(10));
+        assertTrue(window.contains(11));
+        assertTrue(window.add(10));
+        assertFalse(window.contains(11));
+        assertEquals(3, window.size());
+    }
+
+    @Test
+    public void matchesASetOfTheLastCapacityValues() {
+        final int capacity = 100;
+        final LongDedupWindow window = new LongDedupWindow(capacity);
+
+        final ArrayDeque<Long> order = new ArrayDeque<>();
+        final Set<Long> expected = new HashSet<>();
+
+        //a small range so there are plenty of repeats and the probes collide
+        final Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            final long value = 1 + random.nextInt(300);
+
+            assertEquals(!expected.contains(value), window.add(value));
+
+            if(!expected.contains(value)){
+                if(order.size() == capacity){
+                    expected.remove(order.removeFirst());
+                }
+                order.addLast(value);
+                expected.add(value);
+            }
+        }
+
+        for (long value = 1; value <= 300; value++) {
+            assertEquals(expected.contains(value), window.contains(value));
+        }
+    }
+}
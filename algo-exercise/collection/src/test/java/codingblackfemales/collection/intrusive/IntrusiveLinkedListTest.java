@@ -139,6 +139,35 @@ public class IntrusiveLinkedListTest {
         assertEquals(1, node4First.size());
     }
 
+    @Test
+    public void testInsertAfter(){
+        final ExampleNode node = new ExampleNode(0);
+        node.add(new ExampleNode(2));
+
+        final ExampleNode one = new ExampleNode(1);
+        final ExampleNode first = node.insertAfter(one);
+
+        assertEquals(node, first);
+        assertEquals(3, first.size());
+        assertEquals(1, first.next.getI());
+        assertEquals(2, first.next.next.getI());
+        assertEquals(2, one.next.previous().next.getI());
+        assertEquals(2, first.last().getI());
+
+        //inserting after the last node moves the last along
+        final ExampleNode three = new ExampleNode(3);
+        first.last().insertAfter(three);
+
+        assertEquals(4, first.size());
+        assertEquals(three, first.last());
+
+        //removing from the middle keeps the links both ways
+        final ExampleNode afterRemove = one.remove();
+        assertEquals(3, afterRemove.size());
+        assertEquals(0, first.next.previous().getI());
+        assertEquals(2, first.next.getI());
+    }
+
     private static void assertAllLastEquals(ExampleNode starting, ExampleNode expectedLast, int expectedLastId){
         ExampleNode next = starting;
 
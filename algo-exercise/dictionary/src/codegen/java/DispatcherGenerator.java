@@ -0,0 +1,158 @@
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a dispatcher per SBE schema, run as a single source file from the build before anything is compiled:
+ *
+ *   java DispatcherGenerator.java outputDir schema.xml DispatcherName [schema.xml DispatcherName ...]
+ *
+ * A dispatcher has a decoder per message allocated up front and a Handler interface with a no-op default method per
+ * message, and routes on the template id with a switch, so a consumer only implements the messages it cares about and
+ * a new message in the schema is a new case here rather than another branch in every consumer.
+ */
+public class DispatcherGenerator {
+
+    private static final String SBE_NAMESPACE = "http://fixprotocol.io/2016/sbe";
+
+    private static class Message {
+        final String name;
+        final int id;
+        final String description;
+
+        Message(final String name, final int id, final String description) {
+            this.name = name;
+            this.id = id;
+            this.description = description;
+        }
+
+        String decoder() {
+            return name + "Decoder";
+        }
+
+        String field() {
+            return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        if(args.length < 3 || args.length % 2 == 0){
+            throw new IllegalArgumentException("Usage: DispatcherGenerator outputDir schema.xml DispatcherName [schema.xml DispatcherName ...]");
+        }
+
+        final File outputDir = new File(args[0]);
+        for (int i = 1; i < args.length; i += 2) {
+            generate(outputDir, new File(args[i]), args[i + 1]);
+        }
+    }
+
+    private static void generate(final File outputDir, final File schemaFile, final String className) throws Exception {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        final Document document = factory.newDocumentBuilder().parse(schemaFile);
+
+        final Element schema = document.getDocumentElement();
+        final String packageName = schema.getAttribute("package");
+
+        final List<Message> messages = new ArrayList<>();
+        final NodeList elements = document.getElementsByTagNameNS(SBE_NAMESPACE, "message");
+        for (int i = 0; i < elements.getLength(); i++) {
+            final Element element = (Element) elements.item(i);
+            final Message message = new Message(element.getAttribute("name"), Integer.parseInt(element.getAttribute("id")), element.getAttribute("description"));
+            for (Message existing : messages) {
+                if(existing.id == message.id){
+                    throw new IllegalArgumentException(schemaFile + ": " + existing.name + " and " + message.name + " are both template " + message.id);
+                }
+            }
+            messages.add(message);
+        }
+
+        final File packageDir = new File(outputDir, packageName.replace('.', File.separatorChar));
+        if(!packageDir.isDirectory() && !packageDir.mkdirs()){
+            throw new IOException("Unable to create " + packageDir);
+        }
+
+        final File output = new File(packageDir, className + ".java");
+        Files.write(output.toPath(), source(schemaFile.getName(), packageName, className, messages).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String source(final String schemaName, final String packageName, final String className, final List<Message> messages) {
+        final StringBuilder out = new StringBuilder();
+
+        out.append("/* Generated from ").append(schemaName).append(" by DispatcherGenerator, do not edit */\n");
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("import org.agrona.DirectBuffer;\n\n");
+        out.append("/**\n");
+        out.append(" * Decodes a message from this schema into the decoder for its template and hands it to the {@link Handler}.\n");
+        out.append(" * The decoders are allocated once and reused, so a handler must not keep them beyond the call.\n");
+        out.append(" */\n");
+        out.append("@SuppressWarnings(\"all\")\n");
+        out.append("public final class ").append(className).append(" {\n\n");
+
+        out.append("    public static final int SCHEMA_ID = MessageHeaderDecoder.SCHEMA_ID;\n\n");
+        out.append("    public static final int[] TEMPLATE_IDS = {");
+        for (int i = 0; i < messages.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append(messages.get(i).decoder()).append(".TEMPLATE_ID");
+        }
+        out.append("};\n\n");
+
+        out.append("    public interface Handler {\n");
+        for (int i = 0; i < messages.size(); i++) {
+            final Message message = messages.get(i);
+            if(i > 0){
+                out.append("\n");
+            }
+            if(!message.description.isEmpty()){
+                out.append("        /** ").append(message.description).append(" */\n");
+            }
+            out.append("        default void on").append(message.name).append("(final ").append(message.decoder()).append(" ")
+                    .append(message.field()).append(") {\n        }\n");
+        }
+        out.append("    }\n\n");
+
+        out.append("    private final MessageHeaderDecoder header = new MessageHeaderDecoder();\n");
+        for (Message message : messages) {
+            out.append("    private final ").append(message.decoder()).append(" ").append(message.field())
+                    .append(" = new ").append(message.decoder()).append("();\n");
+        }
+        out.append("\n    private final Handler handler;\n\n");
+
+        out.append("    public ").append(className).append("(final Handler handler) {\n");
+        out.append("        this.handler = handler;\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * @return false if the message is from another schema or a template this one doesn't have\n");
+        out.append("     */\n");
+        out.append("    public boolean dispatch(final DirectBuffer buffer, final int offset) {\n");
+        out.append("        header.wrap(buffer, offset);\n");
+        out.append("        if (header.schemaId() != SCHEMA_ID) {\n");
+        out.append("            return false;\n");
+        out.append("        }\n\n");
+        out.append("        final int bodyOffset = offset + MessageHeaderDecoder.ENCODED_LENGTH;\n");
+        out.append("        final int blockLength = header.blockLength();\n");
+        out.append("        final int version = header.version();\n\n");
+        out.append("        switch (header.templateId()) {\n");
+        for (Message message : messages) {
+            out.append("            case ").append(message.decoder()).append(".TEMPLATE_ID:\n");
+            out.append("                handler.on").append(message.name).append("(").append(message.field())
+                    .append(".wrap(buffer, bodyOffset, blockLength, version));\n");
+            out.append("                return true;\n");
+        }
+        out.append("            default:\n");
+        out.append("                return false;\n");
+        out.append("        }\n");
+        out.append("    }\n");
+        out.append("}\n");
+
+        return out.toString();
+    }
+}
@@ -1,9 +1,27 @@
 package codingblackfemales.sequencer;
 
+import java.util.Arrays;
+
 public class AbstractSequencerComponent implements SequencerComponent {
 
+    private int[] requiredMessages = new int[0];
+
     @Override
     public void requireMessage(int schemaId, int templateId) {
+        final int key = SequencerComponent.messageKey(schemaId, templateId);
+
+        for (int required : requiredMessages) {
+            if(required == key){
+                return;
+            }
+        }
 
+        requiredMessages = Arrays.copyOf(requiredMessages, requiredMessages.length + 1);
+        requiredMessages[requiredMessages.length - 1] = key;
+    }
+
+    @Override
+    public int[] requiredMessages() {
+        return requiredMessages;
     }
 }
@@ -1,71 +1,364 @@
 package codingblackfemales.sequencer;
 
+import codingblackfemales.collection.extrusive.LongDedupWindow;
+import codingblackfemales.sequencer.metrics.LatencyHistograms;
+import codingblackfemales.sequencer.net.Consumer;
 import codingblackfemales.sequencer.net.Network;
+import codingblackfemales.sequencer.net.RetransmitCache;
+import codingblackfemales.sequencer.util.MessageLength;
 import messages.marketdata.MessageHeaderDecoder;
 import messages.marketdata.MessageHeaderEncoder;
+import messages.order.AmendOrderDecoder;
+import messages.order.BatchOrderCommandDecoder;
+import messages.order.BatchOrderCommandEncoder;
+import messages.order.CancelOrderDecoder;
 import messages.order.CreateOrderDecoder;
 import messages.order.CreateOrderEncoder;
+import org.agrona.BitUtil;
 import org.agrona.DirectBuffer;
+import org.agrona.ExpandableRingBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.OffsetEpochNanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
 
 import java.nio.ByteBuffer;
 
+/**
+ * Sequences commands and dispatches them to the network.
+ *
+ * Every sequenced message is copied into one of a fixed ring of preallocated slots, each
+ * {@link #MAX_MESSAGE_LENGTH} bytes long, and the sequencer number is stamped into the slot rather than
+ * into the caller's buffer. The length of a command is worked out once, see {@link MessageLength}, and only that many
+ * bytes are copied, queued and dispatched. The caller can reuse its buffer as soon as {@link #onCommand(DirectBuffer)} returns.
+ * Consumers must treat the buffer they are given as borrowed: it is only valid until their onMessage returns,
+ * after which the slot will be reused for a later message.
+ *
+ * By default a command raised by a consumer while a message is being dispatched is sequenced and dispatched there and
+ * then, before the consumers after it have seen the original message. With {@link CommandOrdering#QUEUED} it is
+ * queued instead, and the queue is drained in the order commands arrived once the dispatch returns: the stack doesn't
+ * grow with each reaction, and every consumer sees every message in the same order.
+ *
+ * Once a command and everything raised in reaction to it has been dispatched the network is told the batch has ended.
+ * Commands raised from {@link Consumer#onBatchEnd()} are sequenced as a batch of their own. Callers draining a queue
+ * of their own can stretch a batch over many commands with {@link #beginBatch()} and {@link #endBatch()}.
+ *
+ * Given {@link LatencyHistograms}, the time each command takes to dispatch is recorded by message type.
+ *
+ * Given a {@link LongDedupWindow}, a create, cancel, amend or batch carrying a command id already seen in the window is
+ * dropped rather than sequenced again, so a client can safely retry one it didn't hear back about. The id only goes in
+ * the window once the command's message has its sequencer number, so one that failed before then can be retried.
+ *
+ * A {@link BatchOrderCommandDecoder batch} of creates and cancels is sequenced as the one message, with an order id given
+ * to each of its creates, so it costs consumers one dispatch however many orders it carries.
+ *
+ * Every message is stamped with the time it was sequenced from the {@link EpochNanoClock}, see {@link #setClock(EpochNanoClock)},
+ * and with the time it reached the sequencer unless whatever sent it had stamped that already. A {@link CreateOrderDecoder create},
+ * batch or amend keeps the sequencer number of the message that caused it, so with the two the time from a tick arriving
+ * to the orders it caused being sequenced can be measured, see {@link codingblackfemales.sequencer.metrics.TickToTrade}.
+ */
 public class DefaultSequencer implements Sequencer {
 
+    public static final int MAX_MESSAGE_LENGTH = 1024;
+    public static final int DEFAULT_SLOT_COUNT = 1024;
+    //shared so the sequencers in front of one stamp ingress by the same clock, it's safe to read from any thread
+    public static final EpochNanoClock DEFAULT_CLOCK = new OffsetEpochNanoClock();
+
+    public enum CommandOrdering {
+        NESTED,
+        QUEUED
+    }
+
     private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
     private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final MessageHeaderDecoder slotHeaderDecoder = new MessageHeaderDecoder();
+
+    private final ByteBuffer slab;
+    private final UnsafeBuffer[] slots;
+    private final int slotMask;
+    private int nextSlot = 0;
+    private int dispatchDepth = 0;
+
+    private final CommandOrdering commandOrdering;
+
+    private int batchDepth = 0;
+    private long sequencerNumberAtBatchEnd = 0L;
 
-    private ByteBuffer byteBuffer;//= ByteBuffer.allocateDirect(1024);
-    private UnsafeBuffer mutableBuffer;// = new UnsafeBuffer(byteBuffer);
+    private final ExpandableRingBuffer pendingCommands = new ExpandableRingBuffer(64 * MAX_MESSAGE_LENGTH, ExpandableRingBuffer.MAX_CAPACITY, true);
+    private final UnsafeBuffer pendingCommand = new UnsafeBuffer(ByteBuffer.allocateDirect(MAX_MESSAGE_LENGTH));
+    private int pendingCommandLength = 0;
+    //written by the sequencing thread, read by whoever asks, e.g. an algo on a thread of its own
+    private volatile int pendingCommandCount = 0;
+    private final ExpandableRingBuffer.MessageConsumer takePendingCommand = this::takePendingCommand;
 
     private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
     private final CreateOrderEncoder createOrderEncoder = new CreateOrderEncoder();
+    private final CancelOrderDecoder cancelOrderDecoder = new CancelOrderDecoder();
+    private final AmendOrderDecoder amendOrderDecoder = new AmendOrderDecoder();
+    private final BatchOrderCommandDecoder batchOrderCommandDecoder = new BatchOrderCommandDecoder();
+    private final BatchOrderCommandEncoder batchOrderCommandEncoder = new BatchOrderCommandEncoder();
 
     private final messages.order.MessageHeaderEncoder businessHeaderEncoder = new messages.order.MessageHeaderEncoder();
 
-    private final ByteBuffer businessByteBuffer = ByteBuffer.allocateDirect(1024);
+    private final ByteBuffer businessByteBuffer = ByteBuffer.allocateDirect(MAX_MESSAGE_LENGTH);
     private final UnsafeBuffer businessMutableBuffer = new UnsafeBuffer(businessByteBuffer);
+    private int businessLength = 0;
 
     long sequencerNumber = 0L;
 
     private final Network network;
 
+    private EpochNanoClock clock = DEFAULT_CLOCK;
+    private LatencyHistograms latencyHistograms;
+    private RetransmitCache retransmitCache;
+    private LongDedupWindow commandIds;
+    private long duplicateCommandCount = 0L;
+    //of the command being sequenced, only added to the window once its message is
+    private long commandIdToAdd = 0L;
+
     public DefaultSequencer(Network network) {
+        this(network, DEFAULT_SLOT_COUNT);
+    }
+
+    public DefaultSequencer(Network network, CommandOrdering commandOrdering) {
+        this(network, DEFAULT_SLOT_COUNT, commandOrdering);
+    }
+
+    public DefaultSequencer(Network network, int slotCount) {
+        this(network, slotCount, CommandOrdering.NESTED);
+    }
+
+    public DefaultSequencer(Network network, int slotCount, CommandOrdering commandOrdering) {
+        if(!BitUtil.isPowerOfTwo(slotCount)){
+            throw new IllegalArgumentException("slotCount must be a power of two: " + slotCount);
+        }
+
         this.network = network;
+        this.commandOrdering = commandOrdering;
+        this.slots = new UnsafeBuffer[slotCount];
+        this.slotMask = slotCount - 1;
+
+        this.slab = ByteBuffer.allocateDirect(slotCount * MAX_MESSAGE_LENGTH);
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new UnsafeBuffer(slab, i * MAX_MESSAGE_LENGTH, MAX_MESSAGE_LENGTH);
+        }
+    }
+
+    /**
+     * The clock messages are timestamped from, the default doesn't allocate to tell the time.
+     */
+    public void setClock(final EpochNanoClock clock) {
+        this.clock = clock;
+    }
+
+    public void setLatencyHistograms(final LatencyHistograms latencyHistograms) {
+        this.latencyHistograms = latencyHistograms;
+    }
+
+    /**
+     * Keeps the last messages dispatched so consumers that miss some can have them again, e.g.
+     * new RetransmitCache(4096, DefaultSequencer.MAX_MESSAGE_LENGTH).
+     */
+    public void setRetransmitCache(final RetransmitCache retransmitCache) {
+        this.retransmitCache = retransmitCache;
+    }
+
+    /**
+     * Drops commands whose command id is in the window, e.g. new LongDedupWindow(64 * 1024). Commands without one, i.e.
+     * a command id of 0, are always sequenced.
+     */
+    public void setCommandDedupWindow(final LongDedupWindow commandIds) {
+        this.commandIds = commandIds;
+    }
+
+    public long getDuplicateCommandCount() {
+        return duplicateCommandCount;
     }
 
     @Override
     public void onCommand(DirectBuffer bb) {
+        onCommand(bb, 0, MessageLength.of(bb, 0));
+    }
+
+    @Override
+    public void onCommand(final DirectBuffer bb, final int offset, final int length) {
+
+        if(dispatchDepth > 0 && commandOrdering == CommandOrdering.QUEUED){
+            if(!pendingCommands.append(bb, offset, length)){
+                throw new IllegalStateException("Too many commands raised during dispatch, queued=" + pendingCommands.size());
+            }
+            pendingCommandCount = pendingCommandCount + 1;
+            return;
+        }
+
+        sequenceCommand(bb, offset, length);
+
+        //a nested command is part of the batch of the one it was raised by
+        if(dispatchDepth == 0){
+            drainPendingCommands();
+
+            if(batchDepth == 0){
+                dispatchBatchEnd();
+            }
+        }
+    }
+
+    private void drainPendingCommands(){
+        while(!pendingCommands.isEmpty()){
+            pendingCommands.consume(takePendingCommand, 1);
+            pendingCommandCount = pendingCommandCount - 1;
+            sequenceCommand(pendingCommand, 0, pendingCommandLength);
+        }
+    }
+
+    @Override
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    @Override
+    public void endBatch() {
+        if(batchDepth > 0 && --batchDepth == 0 && dispatchDepth == 0){
+            dispatchBatchEnd();
+        }
+    }
+
+    private void dispatchBatchEnd(){
+        //consumers may send commands at the end of a batch, which makes another batch to end in turn
+        while(sequencerNumberAtBatchEnd != sequencerNumber){
+            sequencerNumberAtBatchEnd = sequencerNumber;
 
-        headerDecoder.wrap(bb, 0);
+            dispatchDepth++;
+            try {
+                network.onBatchEnd();
+            } finally {
+                dispatchDepth--;
+            }
+
+            drainPendingCommands();
+        }
+    }
+
+    @Override
+    public boolean hasPendingCommands() {
+        return pendingCommandCount > 0;
+    }
+
+    //copied out, so the queue is free to grow while the command is dispatched
+    private boolean takePendingCommand(final MutableDirectBuffer buffer, final int offset, final int length, final int headOffset) {
+        pendingCommand.putBytes(0, buffer, offset, length);
+        pendingCommandLength = length;
+        return true;
+    }
+
+    private void sequenceCommand(final DirectBuffer bb, final int offset, final int length) {
+
+        headerDecoder.wrap(bb, offset);
 
         int schemaId = headerDecoder.schemaId();
         int templateId = headerDecoder.templateId();
 
-        if(isModelMessage(schemaId, templateId)){
-            DirectBuffer mutatedBuffer = processModelCommand(bb, schemaId, headerDecoder);
-            sequenceAndDispatchMessage(mutatedBuffer);
+        final long commandId = commandIds != null ? commandIdOf(bb, schemaId, templateId, headerDecoder) : 0L;
+        if(commandId != 0L && commandIds.contains(commandId)){
+            duplicateCommandCount++;
+            return;
+        }
+        commandIdToAdd = commandId;
+
+        final long startNanos = latencyHistograms != null ? System.nanoTime() : 0L;
+
+        try {
+            if(isModelMessage(schemaId, templateId)){
+                DirectBuffer mutatedBuffer = processModelCommand(bb, schemaId, headerDecoder);
+                sequenceAndDispatchMessage(mutatedBuffer, 0, businessLength);
+            }
+            else{
+                sequenceAndDispatchMessage(bb, offset, length);
+            }
+        } finally {
+            commandIdToAdd = 0L;
         }
-        else{
-            sequenceAndDispatchMessage(bb);
+
+        if(latencyHistograms != null){
+            latencyHistograms.recordMessage(SequencerComponent.messageKey(schemaId, templateId), System.nanoTime() - startNanos);
         }
 
     }
 
+    private long commandIdOf(final DirectBuffer bb, final int schemaId, final int templateId, final MessageHeaderDecoder header){
+        if(schemaId != CreateOrderDecoder.SCHEMA_ID){
+            return 0L;
+        }
+
+        final int bodyOffset = header.offset() + header.encodedLength();
+        if(templateId == CreateOrderDecoder.TEMPLATE_ID){
+            return createOrderDecoder.wrap(bb, bodyOffset, header.blockLength(), header.version()).commandId();
+        }else if(templateId == CancelOrderDecoder.TEMPLATE_ID){
+            return cancelOrderDecoder.wrap(bb, bodyOffset, header.blockLength(), header.version()).commandId();
+        }else if(templateId == AmendOrderDecoder.TEMPLATE_ID){
+            return amendOrderDecoder.wrap(bb, bodyOffset, header.blockLength(), header.version()).commandId();
+        }else if(templateId == BatchOrderCommandDecoder.TEMPLATE_ID){
+            return batchOrderCommandDecoder.wrap(bb, bodyOffset, header.blockLength(), header.version()).commandId();
+        }
+        return 0L;
+    }
+
     public DirectBuffer processModelCommand(final DirectBuffer byteBuffer, final int schemaId, final MessageHeaderDecoder header){
 
         final int actingBlockLength = header.blockLength();
         final int actingVersion = header.version();
-        final int bufferOffset = header.encodedLength();
+        final int bufferOffset = header.offset() + header.encodedLength();
+
+        if(header.templateId() == BatchOrderCommandDecoder.TEMPLATE_ID){
+            final DirectBuffer batch = processBatchCommand(byteBuffer, bufferOffset, actingBlockLength, actingVersion);
+            businessHeaderEncoder.ingressTimestamp(header.ingressTimestamp());
+            return batch;
+        }
 
         createOrderDecoder.wrap(byteBuffer, bufferOffset, actingBlockLength, actingVersion);
 
 
         createOrderEncoder.wrapAndApplyHeader(businessMutableBuffer, 0, businessHeaderEncoder);
+        createOrderEncoder.instrumentId(createOrderDecoder.instrumentId());
         createOrderEncoder.price(createOrderDecoder.price());
         createOrderEncoder.quantity(createOrderDecoder.quantity());
         createOrderEncoder.side(createOrderDecoder.side());
         createOrderEncoder.orderId(newOrderId());
+        createOrderEncoder.commandId(createOrderDecoder.commandId());
+        createOrderEncoder.causeSequencerNumber(createOrderDecoder.causeSequencerNumber());
+        businessHeaderEncoder.ingressTimestamp(header.ingressTimestamp());
+        businessLength = businessHeaderEncoder.encodedLength() + createOrderEncoder.encodedLength();
+        return businessMutableBuffer;
+    }
+
+    private DirectBuffer processBatchCommand(final DirectBuffer byteBuffer, final int bufferOffset, final int actingBlockLength, final int actingVersion){
+
+        batchOrderCommandDecoder.wrap(byteBuffer, bufferOffset, actingBlockLength, actingVersion);
+
+        batchOrderCommandEncoder.wrapAndApplyHeader(businessMutableBuffer, 0, businessHeaderEncoder);
+        batchOrderCommandEncoder.instrumentId(batchOrderCommandDecoder.instrumentId());
+        batchOrderCommandEncoder.commandId(batchOrderCommandDecoder.commandId());
+        batchOrderCommandEncoder.causeSequencerNumber(batchOrderCommandDecoder.causeSequencerNumber());
+
+        //groups are read and written in schema order, cancels then creates
+        final BatchOrderCommandDecoder.CancelsDecoder cancels = batchOrderCommandDecoder.cancels();
+        final BatchOrderCommandEncoder.CancelsEncoder cancelsEncoder = batchOrderCommandEncoder.cancelsCount(cancels.count());
+        while(cancels.hasNext()){
+            cancelsEncoder.next().orderId(cancels.next().orderId());
+        }
+
+        final BatchOrderCommandDecoder.CreatesDecoder creates = batchOrderCommandDecoder.creates();
+        final BatchOrderCommandEncoder.CreatesEncoder createsEncoder = batchOrderCommandEncoder.createsCount(creates.count());
+        while(creates.hasNext()){
+            creates.next();
+            createsEncoder.next()
+                    .price(creates.price())
+                    .quantity(creates.quantity())
+                    .side(creates.side())
+                    .orderId(newOrderId());
+        }
+
+        businessLength = businessHeaderEncoder.encodedLength() + batchOrderCommandEncoder.encodedLength();
         return businessMutableBuffer;
     }
 
@@ -75,28 +368,83 @@ public class DefaultSequencer implements Sequencer {
         return orderId +=1;
     }
 
+    /**
+     * Order ids issued from now on follow on from lastOrderId, e.g. so that sequencers running side by side each issue
+     * ids from a range of their own.
+     */
+    public void setLastOrderId(final long lastOrderId){
+        this.orderId = lastOrderId;
+    }
+
+    /**
+     * Sequencer numbers given from now on follow on from lastSequencerNumber, e.g. to carry on from a journal, see
+     * {@link codingblackfemales.sequencer.journal.JournalWriter#getLastSequencerNumber()}.
+     */
+    public void setLastSequencerNumber(final long lastSequencerNumber){
+        this.sequencerNumber = lastSequencerNumber;
+        this.sequencerNumberAtBatchEnd = lastSequencerNumber;
+    }
+
     public void sequenceAndDispatchMessage(final DirectBuffer bb){
+        sequenceAndDispatchMessage(bb, 0, MessageLength.of(bb, 0));
+    }
 
-        byteBuffer = ByteBuffer.allocateDirect(1024);
-        mutableBuffer = new UnsafeBuffer(byteBuffer);
+    public void sequenceAndDispatchMessage(final DirectBuffer bb, final int offset, final int length){
 
-        mutableBuffer.wrap(bb);
+        //a slot is still in use while any dispatch that started on it is on the stack
+        if(dispatchDepth == slots.length){
+            throw new IllegalStateException("Re-entrant dispatch depth exceeded the " + slots.length + " sequencer slots");
+        }
 
-        headerEncoder.wrap(mutableBuffer, 0);
+        if(length > MAX_MESSAGE_LENGTH){
+            throw new IllegalArgumentException("Message of length " + length + " is longer than " + MAX_MESSAGE_LENGTH);
+        }
+
+        //the slot is sized to the message, so whatever copies it downstream copies only what's in use
+        final UnsafeBuffer slot = slots[nextSlot];
+        slot.wrap(slab, nextSlot * MAX_MESSAGE_LENGTH, length);
+        nextSlot = (nextSlot + 1) & slotMask;
+
+        slot.putBytes(0, bb, offset, length);
+
+        headerEncoder.wrap(slot, 0);
 
         sequencerNumber += 1;
 
         headerEncoder.sequencerNumber(sequencerNumber);
 
-        dispatchToNetwork(mutableBuffer);
+        final long nowNanos = clock.nanoTime();
+        headerEncoder.sequencingTimestamp(nowNanos);
+        if(slotHeaderDecoder.wrap(slot, 0).ingressTimestamp() == 0L){
+            headerEncoder.ingressTimestamp(nowNanos);
+        }
+
+        //recorded before anyone sees it, so whoever asks for a message they saw a later one after can always have it
+        if(retransmitCache != null){
+            retransmitCache.record(sequencerNumber, slot, 0, length);
+        }
+
+        //a command that failed before getting this far can be retried
+        if(commandIdToAdd != 0L){
+            commandIds.add(commandIdToAdd);
+            commandIdToAdd = 0L;
+        }
+
+        dispatchDepth++;
+        try {
+            dispatchToNetwork(slot);
+        } finally {
+            dispatchDepth--;
+        }
     }
 
     public void dispatchToNetwork(DirectBuffer sequencedBuffer){
-        network.dispatch(sequencedBuffer);
+        network.dispatch(sequencedBuffer, 0, sequencedBuffer.capacity());
     }
 
     public boolean isModelMessage(final int schemaId, final int templateId) {
-        return schemaId == CreateOrderEncoder.SCHEMA_ID && templateId == CreateOrderEncoder.TEMPLATE_ID;
+        return schemaId == CreateOrderEncoder.SCHEMA_ID
+                && (templateId == CreateOrderEncoder.TEMPLATE_ID || templateId == BatchOrderCommandEncoder.TEMPLATE_ID);
     }
 
 }
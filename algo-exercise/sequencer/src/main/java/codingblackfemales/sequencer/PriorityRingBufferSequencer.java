@@ -0,0 +1,231 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.metrics.LatencyHistograms;
+import codingblackfemales.sequencer.util.MessageLength;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.order.CancelAckedOrderDecoder;
+import messages.order.CancelOrderDecoder;
+import org.HdrHistogram.Recorder;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A {@link RingBufferSequencer} with a lane per class of command, so a cancel doesn't wait behind a burst of new
+ * orders, and new orders don't wait behind the market data the order book re-publishes.
+ *
+ * Each lane is a bounded many-to-one ring buffer, and any number of threads can call {@link #onCommand(DirectBuffer)}
+ * without allocating or taking a lock. The single thread running this {@link Agent} drains the lanes in priority order,
+ * up to each lane's weight of commands per round, so a lower lane still gets its share under a flood of a higher one.
+ * Commands in the same lane keep their order; commands in different lanes are sequenced in priority order instead.
+ *
+ * Every command carries the time it was queued, so with {@link #setLatencyHistograms(LatencyHistograms)} each lane
+ * records how long its commands waited to be sequenced, as "lane CANCEL" and so on. A command queued without an ingress
+ * timestamp in its header gets one here, so the time it spent queued shows up downstream too.
+ *
+ * Everything drained between the lanes being found non-empty and them all being found empty again is one batch.
+ */
+public class PriorityRingBufferSequencer implements Sequencer, Agent {
+
+    public enum Lane {
+        //cancels and anything else that takes risk off
+        CANCEL,
+        //new orders and everything else about an order
+        ORDER,
+        //market data, including what the order book re-publishes
+        MARKET_DATA;
+
+        public static Lane of(final int schemaId, final int templateId){
+            if(schemaId == BookUpdateDecoder.SCHEMA_ID){
+                return MARKET_DATA;
+            }
+            if(schemaId == CancelOrderDecoder.SCHEMA_ID
+                    && (templateId == CancelOrderDecoder.TEMPLATE_ID || templateId == CancelAckedOrderDecoder.TEMPLATE_ID)){
+                return CANCEL;
+            }
+            return ORDER;
+        }
+    }
+
+    public static final int DEFAULT_CAPACITY = RingBufferSequencer.DEFAULT_CAPACITY;
+    public static final int[] DEFAULT_WEIGHTS = {16, 4, 1};
+
+    private static final Lane[] LANES = Lane.values();
+    private static final int COMMAND_MSG_TYPE_ID = 1;
+    private static final int QUEUED_NANOS_OFFSET = 0;
+    private static final int COMMAND_OFFSET = 8;
+
+    private final Sequencer sequencer;
+    private final ManyToOneRingBuffer[] lanes = new ManyToOneRingBuffer[LANES.length];
+    private final int[] weights;
+    private final long[] sequencedCounts = new long[LANES.length];
+    private final Recorder[] waitRecorders = new Recorder[LANES.length];
+
+    private final MessageHandler[] commandHandlers = new MessageHandler[LANES.length];
+
+    private EpochNanoClock clock = DefaultSequencer.DEFAULT_CLOCK;
+
+    private volatile Thread sequencingThread;
+    private boolean inBatch = false;
+
+    public PriorityRingBufferSequencer(final Sequencer sequencer) {
+        this(sequencer, DEFAULT_CAPACITY, DEFAULT_WEIGHTS);
+    }
+
+    /**
+     * @param weights how many commands each lane may have sequenced per round, in {@link Lane} order
+     */
+    public PriorityRingBufferSequencer(final Sequencer sequencer, final int capacity, final int[] weights) {
+        if(weights.length != LANES.length){
+            throw new IllegalArgumentException("Expected a weight for each of " + Arrays.toString(LANES) + ", got " + Arrays.toString(weights));
+        }
+        for (int weight : weights) {
+            if(weight < 1){
+                throw new IllegalArgumentException("Weights must be positive: " + Arrays.toString(weights));
+            }
+        }
+
+        this.sequencer = sequencer;
+        this.weights = weights.clone();
+
+        for (int i = 0; i < LANES.length; i++) {
+            lanes[i] = new ManyToOneRingBuffer(
+                    new UnsafeBuffer(ByteBuffer.allocateDirect(capacity + RingBufferDescriptor.TRAILER_LENGTH)));
+            final int lane = i;
+            commandHandlers[i] = (msgTypeId, buffer, index, length) -> onQueuedCommand(lane, buffer, index, length);
+        }
+    }
+
+    /**
+     * The clock ingress timestamps are taken from, which should be the one the sequencer behind stamps messages from.
+     */
+    public void setClock(final EpochNanoClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Set before the agent starts, the recorders are looked up here so recording on the sequencing thread doesn't.
+     */
+    public void setLatencyHistograms(final LatencyHistograms latencyHistograms) {
+        for (int i = 0; i < LANES.length; i++) {
+            waitRecorders[i] = latencyHistograms.forName("lane " + LANES[i]);
+        }
+    }
+
+    @Override
+    public void onCommand(final DirectBuffer buffer) {
+        onCommand(buffer, 0, MessageLength.of(buffer, 0));
+    }
+
+    @Override
+    public void onCommand(final DirectBuffer buffer, final int offset, final int length) {
+        final int schemaId = buffer.getShort(offset + MessageHeaderDecoder.schemaIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN) & 0xFFFF;
+        final int templateId = buffer.getShort(offset + MessageHeaderDecoder.templateIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN) & 0xFFFF;
+        final ManyToOneRingBuffer lane = lanes[Lane.of(schemaId, templateId).ordinal()];
+
+        int index;
+        while((index = lane.tryClaim(COMMAND_MSG_TYPE_ID, COMMAND_OFFSET + length)) < 0){
+            //the draining thread can't wait on itself to make space
+            if(Thread.currentThread() == sequencingThread){
+                throw new IllegalStateException("Sequencer lane " + Lane.of(schemaId, templateId) + " is full, capacity=" + lane.capacity());
+            }
+            Thread.onSpinWait();
+        }
+
+        final AtomicBuffer laneBuffer = lane.buffer();
+        laneBuffer.putLong(index + QUEUED_NANOS_OFFSET, System.nanoTime());
+        laneBuffer.putBytes(index + COMMAND_OFFSET, buffer, offset, length);
+        final int ingressOffset = index + COMMAND_OFFSET + MessageHeaderDecoder.ingressTimestampEncodingOffset();
+        if(laneBuffer.getLong(ingressOffset, ByteOrder.LITTLE_ENDIAN) == 0L){
+            laneBuffer.putLong(ingressOffset, clock.nanoTime(), ByteOrder.LITTLE_ENDIAN);
+        }
+        lane.commit(index);
+    }
+
+    @Override
+    public void onStart() {
+        sequencingThread = Thread.currentThread();
+    }
+
+    @Override
+    public int doWork() {
+        int commands = 0;
+        for (int i = 0; i < LANES.length; i++) {
+            commands += lanes[i].read(commandHandlers[i], weights[i]);
+        }
+
+        if(inBatch && size() == 0){
+            inBatch = false;
+            sequencer.endBatch();
+        }
+
+        return commands;
+    }
+
+    @Override
+    public void onClose() {
+        //whatever was queued before the runtime stopped us is still sequenced
+        while(doWork() > 0){
+        }
+        if(inBatch){
+            inBatch = false;
+            sequencer.endBatch();
+        }
+        sequencingThread = null;
+    }
+
+    @Override
+    public String roleName() {
+        return "sequencer";
+    }
+
+    @Override
+    public boolean hasPendingCommands() {
+        return sequencer.hasPendingCommands();
+    }
+
+    public int size() {
+        int size = 0;
+        for (ManyToOneRingBuffer lane : lanes) {
+            size += lane.size();
+        }
+        return size;
+    }
+
+    public int size(final Lane lane) {
+        return lanes[lane.ordinal()].size();
+    }
+
+    /**
+     * How many commands from the lane have been sequenced, only settled on the sequencing thread.
+     */
+    public long sequencedCount(final Lane lane) {
+        return sequencedCounts[lane.ordinal()];
+    }
+
+    private void onQueuedCommand(final int lane, final MutableDirectBuffer buffer, final int index, final int length) {
+        if(waitRecorders[lane] != null){
+            final long waitNanos = System.nanoTime() - buffer.getLong(index + QUEUED_NANOS_OFFSET);
+            waitRecorders[lane].recordValue(Math.min(waitNanos, LatencyHistograms.HIGHEST_TRACKABLE_NANOS));
+        }
+        sequencedCounts[lane]++;
+
+        if(!inBatch){
+            inBatch = true;
+            sequencer.beginBatch();
+        }
+
+        sequencer.onCommand(buffer, index + COMMAND_OFFSET, length - COMMAND_OFFSET);
+    }
+}
@@ -1,35 +1,91 @@
 package codingblackfemales.sequencer;
 
-import codingblackfemales.sequencer.util.ByteBufferUtil;
-import messages.marketdata.MessageHeaderEncoder;
+import codingblackfemales.sequencer.net.AeronIpc;
+import codingblackfemales.sequencer.net.PublicationNetwork;
+import io.aeron.Aeron;
+import io.aeron.FragmentAssembler;
+import io.aeron.Publication;
+import io.aeron.Subscription;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
-import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.Agent;
 
-import java.nio.ByteBuffer;
+/**
+ * A sequencer that other processes on the box talk to over Aeron IPC.
+ *
+ * Commands are read off the command stream, stamped by a {@link DefaultSequencer} and published on the event stream,
+ * see {@link AeronIpc}. The algo container, the order book and the UI provider each subscribe from their own process
+ * with a {@link codingblackfemales.sequencer.net.SubscriptionAgent} feeding their usual consumers, and send commands
+ * back with a {@link RemoteSequencer}.
+ *
+ * A single thread must run this {@link Agent}. Commands from that same thread, e.g. an exchange simulator in the
+ * sequencer's process, can go straight to {@link #onCommand(DirectBuffer)}.
+ */
+public class RealSequencer implements Sequencer, Agent, AutoCloseable {
 
-public class RealSequencer {
+    public static final int DEFAULT_FRAGMENT_LIMIT = 256;
 
-    final ByteBuffer sequenced = ByteBuffer.allocateDirect(1024);
-    final UnsafeBuffer directBuffer = new UnsafeBuffer();
-    final MessageHeaderEncoder encoder = new MessageHeaderEncoder();
+    private final Subscription commandSubscription;
+    private final Publication eventPublication;
+    private final PublicationNetwork network;
+    private final DefaultSequencer sequencer;
+    private final int fragmentLimit;
 
-    final long sequenceNumber = 0L;
+    private final FragmentHandler commandHandler = new FragmentAssembler(this::onCommandFragment);
 
-    public void processMessage(DirectBuffer buffer){
+    public RealSequencer(final Aeron aeron) {
+        this(aeron, AeronIpc.CHANNEL, AeronIpc.COMMAND_STREAM_ID, AeronIpc.EVENT_STREAM_ID, DEFAULT_FRAGMENT_LIMIT);
+    }
+
+    public RealSequencer(final Aeron aeron, final String channel, final int commandStreamId, final int eventStreamId, final int fragmentLimit) {
+        this.commandSubscription = aeron.addSubscription(channel, commandStreamId);
+        this.eventPublication = aeron.addPublication(channel, eventStreamId);
+        this.network = new PublicationNetwork(eventPublication);
+        this.sequencer = new DefaultSequencer(network);
+        this.fragmentLimit = fragmentLimit;
+    }
+
+    @Override
+    public void onCommand(final DirectBuffer buffer) {
+        sequencer.onCommand(buffer);
+    }
+
+    @Override
+    public void onCommand(final DirectBuffer buffer, final int offset, final int length) {
+        sequencer.onCommand(buffer, offset, length);
+    }
 
-        ByteBufferUtil.cloneInto(buffer.byteBuffer(), sequenced);
+    @Override
+    public int doWork() {
+        return commandSubscription.poll(commandHandler, fragmentLimit);
+    }
 
-        directBuffer.wrap(sequenced);
+    @Override
+    public String roleName() {
+        return "sequencer";
+    }
 
-        encoder.wrap(directBuffer, 0);
+    public long getSequencerNumber() {
+        return sequencer.sequencerNumber;
+    }
 
-        encoder.sequencerNumber(sequenceNumber);
+    public PublicationNetwork getNetwork() {
+        return network;
+    }
 
-        dispatch(directBuffer);
+    @Override
+    public void onClose() {
+        close();
     }
 
-    public void dispatch(UnsafeBuffer buffer){
-        //TODO: Implement
+    @Override
+    public void close() {
+        CloseHelper.closeAll(commandSubscription, eventPublication);
     }
 
+    private void onCommandFragment(final DirectBuffer buffer, final int offset, final int length, final Header header) {
+        sequencer.onCommand(buffer, offset, length);
+    }
 }
@@ -0,0 +1,41 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.net.AeronIpc;
+import codingblackfemales.sequencer.util.MessageLength;
+import io.aeron.Publication;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.YieldingIdleStrategy;
+
+/**
+ * Sends commands to a {@link RealSequencer} in another process, for the consumers in this one to raise commands
+ * through the usual {@link Sequencer} interface.
+ *
+ * The command is sequenced and comes back on the event stream some time after this returns, never from inside it.
+ * Any thread can send commands, as the publication is thread safe and yielding keeps no state between calls.
+ */
+public class RemoteSequencer implements Sequencer {
+
+    private final Publication commandPublication;
+    private final IdleStrategy idleStrategy = new YieldingIdleStrategy();
+
+    public RemoteSequencer(final Publication commandPublication) {
+        this.commandPublication = commandPublication;
+    }
+
+    @Override
+    public void onCommand(final DirectBuffer buffer) {
+        onCommand(buffer, 0, MessageLength.of(buffer, 0));
+    }
+
+    @Override
+    public void onCommand(final DirectBuffer buffer, final int offset, final int length) {
+        if(!AeronIpc.offer(commandPublication, buffer, offset, length, idleStrategy)){
+            throw new IllegalStateException("The sequencer isn't subscribed to commands on stream " + commandPublication.streamId());
+        }
+    }
+
+    public boolean isConnected() {
+        return commandPublication.isConnected();
+    }
+}
@@ -0,0 +1,143 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.util.MessageLength;
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A thread safe front for a single threaded {@link Sequencer}.
+ *
+ * Any number of threads can call {@link #onCommand(DirectBuffer)}, which copies the command into a many-to-one
+ * ring buffer without taking a lock. A single thread running this {@link Agent} drains the ring and hands each
+ * command to the wrapped sequencer, so stamping and dispatch to the network only ever happen on that thread.
+ * Commands raised by consumers while they handle a dispatch go back through the ring, rather than recursing.
+ *
+ * Everything drained between the ring being found non-empty and it being found empty again is one batch, so consumers
+ * only see a batch end once the ring has been drained.
+ *
+ * A command written without an ingress timestamp in its header gets one as it goes into the ring.
+ */
+public class RingBufferSequencer implements Sequencer, Agent {
+
+    public static final int DEFAULT_CAPACITY = 1024 * 1024;
+    public static final int DEFAULT_DRAIN_LIMIT = 256;
+
+    private static final int COMMAND_MSG_TYPE_ID = 1;
+
+    private final ManyToOneRingBuffer ringBuffer;
+    private final Sequencer sequencer;
+    private final int drainLimit;
+
+    private final MessageHandler commandHandler = this::onQueuedCommand;
+
+    private EpochNanoClock clock = DefaultSequencer.DEFAULT_CLOCK;
+
+    private volatile Thread sequencingThread;
+    private boolean inBatch = false;
+
+    public RingBufferSequencer(final Sequencer sequencer) {
+        this(sequencer, DEFAULT_CAPACITY, DEFAULT_DRAIN_LIMIT);
+    }
+
+    public RingBufferSequencer(final Sequencer sequencer, final int capacity, final int drainLimit) {
+        this.sequencer = sequencer;
+        this.drainLimit = drainLimit;
+        this.ringBuffer = new ManyToOneRingBuffer(
+                new UnsafeBuffer(ByteBuffer.allocateDirect(capacity + RingBufferDescriptor.TRAILER_LENGTH)));
+    }
+
+    /**
+     * The clock ingress timestamps are taken from, which should be the one the sequencer behind stamps messages from.
+     */
+    public void setClock(final EpochNanoClock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void onCommand(final DirectBuffer buffer) {
+        onCommand(buffer, 0, MessageLength.of(buffer, 0));
+    }
+
+    @Override
+    public void onCommand(final DirectBuffer buffer, final int offset, final int length) {
+        int index;
+        while((index = ringBuffer.tryClaim(COMMAND_MSG_TYPE_ID, length)) < 0){
+            //the draining thread can't wait on itself to make space
+            if(Thread.currentThread() == sequencingThread){
+                throw new IllegalStateException("Sequencer ring buffer is full, capacity=" + ringBuffer.capacity());
+            }
+            Thread.onSpinWait();
+        }
+
+        final AtomicBuffer ring = ringBuffer.buffer();
+        ring.putBytes(index, buffer, offset, length);
+        final int ingressOffset = index + MessageHeaderDecoder.ingressTimestampEncodingOffset();
+        if(ring.getLong(ingressOffset, ByteOrder.LITTLE_ENDIAN) == 0L){
+            ring.putLong(ingressOffset, clock.nanoTime(), ByteOrder.LITTLE_ENDIAN);
+        }
+        ringBuffer.commit(index);
+    }
+
+    @Override
+    public void onStart() {
+        sequencingThread = Thread.currentThread();
+    }
+
+    @Override
+    public int doWork() {
+        final int commands = ringBuffer.read(commandHandler, drainLimit);
+
+        if(inBatch && ringBuffer.size() == 0){
+            inBatch = false;
+            sequencer.endBatch();
+        }
+
+        return commands;
+    }
+
+    @Override
+    public void onClose() {
+        //whatever was queued before the runtime stopped us is still sequenced
+        while(doWork() > 0){
+        }
+        if(inBatch){
+            inBatch = false;
+            sequencer.endBatch();
+        }
+        sequencingThread = null;
+    }
+
+    @Override
+    public String roleName() {
+        return "sequencer";
+    }
+
+    @Override
+    public boolean hasPendingCommands() {
+        return sequencer.hasPendingCommands();
+    }
+
+    public int size() {
+        return ringBuffer.size();
+    }
+
+    private void onQueuedCommand(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length) {
+        if(!inBatch){
+            inBatch = true;
+            sequencer.beginBatch();
+        }
+
+        sequencer.onCommand(buffer, index, length);
+    }
+}
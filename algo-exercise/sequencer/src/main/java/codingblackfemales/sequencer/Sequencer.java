@@ -1,7 +1,46 @@
 package codingblackfemales.sequencer;
 
+import codingblackfemales.sequencer.util.BufferViews;
 import org.agrona.DirectBuffer;
 
 public interface Sequencer {
+    /**
+     * The command is copied before it is dispatched, so the caller is free to reuse its buffer once this returns.
+     */
     public void onCommand(final DirectBuffer byteBuffer);
+
+    /**
+     * For callers that already know where the command is in their buffer and how long it is, so only those bytes are
+     * copied and it isn't measured again.
+     */
+    public default void onCommand(final DirectBuffer buffer, final int offset, final int length) {
+        if(offset == 0){
+            onCommand(buffer);
+            return;
+        }
+
+        try {
+            onCommand(BufferViews.wrap(buffer, offset, length));
+        } finally {
+            BufferViews.release();
+        }
+    }
+
+    /**
+     * True while commands raised in reaction to earlier messages are still waiting to be sequenced, i.e. the state
+     * built from the messages so far is about to change again. Safe to ask from any thread.
+     */
+    public default boolean hasPendingCommands() {
+        return false;
+    }
+
+    /**
+     * Holds back the end of the batch, so that commands sent before the matching {@link #endBatch()} are one batch,
+     * e.g. everything drained from an input queue in one go.
+     */
+    public default void beginBatch() {
+    }
+
+    public default void endBatch() {
+    }
 }
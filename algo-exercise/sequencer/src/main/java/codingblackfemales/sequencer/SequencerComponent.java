@@ -3,4 +3,13 @@ package codingblackfemales.sequencer;
 public interface SequencerComponent {
     public void requireMessage(int schemaId, int templateId);
 
+    /**
+     * The messages declared through {@link #requireMessage(int, int)}, as {@link #messageKey(int, int)} keys.
+     * Nothing declared means the component wants every message.
+     */
+    public int[] requiredMessages();
+
+    static int messageKey(int schemaId, int templateId){
+        return schemaId << 16 | templateId;
+    }
 }
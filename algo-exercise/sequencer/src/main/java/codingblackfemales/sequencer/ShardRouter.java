@@ -0,0 +1,102 @@
+package codingblackfemales.sequencer;
+
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.marketdata.TradeDecoder;
+import messages.order.*;
+import org.agrona.DirectBuffer;
+
+import java.nio.ByteOrder;
+
+/**
+ * Picks the shard of a {@link ShardedSequencer} that a command belongs to.
+ *
+ * Book updates, trades, new orders and batches of order commands go by their instrumentId, so an instrument always lands
+ * on the same shard. Everything about an existing order goes by its orderId instead, which is from the range of ids
+ * belonging to the shard that created the order. Anything else goes to shard 0.
+ *
+ * The fields are read straight from where the schema puts them, so routing keeps no state and any thread can route.
+ */
+public class ShardRouter {
+
+    /**
+     * Each shard issues order ids from a range of this size, shard 0 from the start.
+     */
+    public static final long ORDER_ID_RANGE = 1L << 48;
+
+    private final int shardCount;
+
+    public ShardRouter(final int shardCount) {
+        if(shardCount < 1){
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardFor(final DirectBuffer buffer, final int offset){
+        final int schemaId = buffer.getShort(offset + MessageHeaderDecoder.schemaIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN) & 0xFFFF;
+        final int templateId = buffer.getShort(offset + MessageHeaderDecoder.templateIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN) & 0xFFFF;
+        final int bodyOffset = offset + MessageHeaderDecoder.ENCODED_LENGTH;
+
+        if(schemaId == BookUpdateDecoder.SCHEMA_ID){
+            switch (templateId){
+                case BookUpdateDecoder.TEMPLATE_ID:
+                    return shardForInstrument(buffer.getLong(bodyOffset + BookUpdateDecoder.instrumentIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+                case BidBookUpdateDecoder.TEMPLATE_ID:
+                    return shardForInstrument(buffer.getLong(bodyOffset + BidBookUpdateDecoder.instrumentIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+                case AskBookUpdateDecoder.TEMPLATE_ID:
+                    return shardForInstrument(buffer.getLong(bodyOffset + AskBookUpdateDecoder.instrumentIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+                case BookDeltaDecoder.TEMPLATE_ID:
+                    return shardForInstrument(buffer.getLong(bodyOffset + BookDeltaDecoder.instrumentIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+                case TradeDecoder.TEMPLATE_ID:
+                    return shardForInstrument(buffer.getLong(bodyOffset + TradeDecoder.instrumentIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+            }
+        }else if(schemaId == CreateOrderDecoder.SCHEMA_ID){
+            switch (templateId){
+                case CreateOrderDecoder.TEMPLATE_ID:
+                    return shardForInstrument(buffer.getLong(bodyOffset + CreateOrderDecoder.instrumentIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+                case BatchOrderCommandDecoder.TEMPLATE_ID:
+                    return shardForInstrument(buffer.getLong(bodyOffset + BatchOrderCommandDecoder.instrumentIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+                case PendingOrderDecoder.TEMPLATE_ID:
+                    return shardForInstrument(buffer.getLong(bodyOffset + PendingOrderDecoder.instrumentIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+                case AmendOrderDecoder.TEMPLATE_ID:
+                    return shardForOrder(buffer.getLong(bodyOffset + AmendOrderDecoder.orderIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+                case CancelOrderDecoder.TEMPLATE_ID:
+                    return shardForOrder(buffer.getLong(bodyOffset + CancelOrderDecoder.orderIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+                case AckedOrderDecoder.TEMPLATE_ID:
+                    return shardForOrder(buffer.getLong(bodyOffset + AckedOrderDecoder.orderIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+                case CancelAckedOrderDecoder.TEMPLATE_ID:
+                    return shardForOrder(buffer.getLong(bodyOffset + CancelAckedOrderDecoder.orderIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+                case PartialFillOrderDecoder.TEMPLATE_ID:
+                    return shardForOrder(buffer.getLong(bodyOffset + PartialFillOrderDecoder.orderIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+                case FillOrderDecoder.TEMPLATE_ID:
+                    return shardForOrder(buffer.getLong(bodyOffset + FillOrderDecoder.orderIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN));
+            }
+        }
+
+        return 0;
+    }
+
+    public int shardForInstrument(final long instrumentId){
+        //mixed, so instruments numbered in steps of the shard count still spread out
+        return (int) Long.remainderUnsigned(instrumentId * 0x9E3779B97F4A7C15L >>> 16, shardCount);
+    }
+
+    public int shardForOrder(final long orderId){
+        return (int) Math.min(Long.divideUnsigned(orderId, ORDER_ID_RANGE), shardCount - 1);
+    }
+
+    /**
+     * The order id a shard's sequencer should carry on from, see {@link DefaultSequencer#setLastOrderId(long)}.
+     */
+    public static long lastOrderIdBefore(final int shard){
+        return shard == 0 ? 1L : shard * ORDER_ID_RANGE;
+    }
+}
@@ -0,0 +1,121 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.DefaultSequencer.CommandOrdering;
+import codingblackfemales.sequencer.net.Network;
+import codingblackfemales.sequencer.util.MessageLength;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Sequences instruments side by side rather than one after another.
+ *
+ * There is a shard per thread, each a {@link DefaultSequencer} behind a {@link RingBufferSequencer} with a network of
+ * its own, and the {@link ShardRouter} sends every command for an instrument to the same shard. Shards share nothing,
+ * so with enough instruments to go round they scale with the cores they run on. Each shard issues order ids from its
+ * own range, so ids are unique across shards without them having to agree on anything.
+ *
+ * Sequencer numbers count per shard: messages are in order for an instrument, but there is no order between shards.
+ *
+ * The threads come from the given {@link ThreadFactory}, which is where to pin a shard to a core, e.g. with an
+ * affinity library, or leave it to the OS by running the process under taskset.
+ */
+public class ShardedSequencer implements Sequencer, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedSequencer.class);
+
+    private final ShardRouter router;
+    private final DefaultSequencer[] sequencers;
+    private final RingBufferSequencer[] shards;
+    private final AgentRunner[] runners;
+
+    public ShardedSequencer(final int shardCount, final IntFunction<Network> networkForShard) {
+        this(shardCount, networkForShard, BackoffIdleStrategy::new, ShardedSequencer::newThread);
+    }
+
+    public ShardedSequencer(final int shardCount, final IntFunction<Network> networkForShard,
+                            final Supplier<IdleStrategy> idleStrategySupplier, final ThreadFactory threadFactory) {
+        this.router = new ShardRouter(shardCount);
+        this.sequencers = new DefaultSequencer[shardCount];
+        this.shards = new RingBufferSequencer[shardCount];
+        this.runners = new AgentRunner[shardCount];
+
+        for (int i = 0; i < shardCount; i++) {
+            //commands raised during dispatch come back through the ring anyway, so don't nest them
+            sequencers[i] = new DefaultSequencer(networkForShard.apply(i), CommandOrdering.QUEUED);
+            sequencers[i].setLastOrderId(ShardRouter.lastOrderIdBefore(i));
+
+            shards[i] = new RingBufferSequencer(sequencers[i]);
+
+            final int shard = i;
+            runners[i] = new AgentRunner(idleStrategySupplier.get(),
+                    throwable -> logger.error("[SEQUENCER] Shard " + shard + " failed", throwable), null, shards[i]);
+        }
+
+        for (AgentRunner runner : runners) {
+            AgentRunner.startOnThread(runner, threadFactory);
+        }
+    }
+
+    private static Thread newThread(final Runnable runnable){
+        final Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    @Override
+    public void onCommand(final DirectBuffer buffer) {
+        onCommand(buffer, 0, MessageLength.of(buffer, 0));
+    }
+
+    @Override
+    public void onCommand(final DirectBuffer buffer, final int offset, final int length) {
+        shards[router.shardFor(buffer, offset)].onCommand(buffer, offset, length);
+    }
+
+    @Override
+    public boolean hasPendingCommands() {
+        for (RingBufferSequencer shard : shards) {
+            if(shard.size() > 0 || shard.hasPendingCommands()){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    public ShardRouter router() {
+        return router;
+    }
+
+    /**
+     * The last sequencer number the shard stamped. Only settled once the shard has drained, see {@link #close()}.
+     */
+    public long sequencerNumber(final int shard) {
+        return sequencers[shard].sequencerNumber;
+    }
+
+    /**
+     * Waits for every shard to sequence what it has been sent, then stops their threads.
+     */
+    @Override
+    public void close() {
+        for (int i = 0; i < shards.length; i++) {
+            while(shards[i].size() > 0 && !runners[i].isClosed()){
+                Thread.onSpinWait();
+            }
+        }
+        CloseHelper.closeAll(runners);
+    }
+}
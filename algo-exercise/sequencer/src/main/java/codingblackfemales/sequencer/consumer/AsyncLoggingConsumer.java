@@ -0,0 +1,140 @@
+package codingblackfemales.sequencer.consumer;
+
+import codingblackfemales.sequencer.AbstractSequencerComponent;
+import codingblackfemales.sequencer.SequencerComponent;
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.util.MessageLength;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Takes logging off the dispatch thread: each message is copied as raw SBE bytes into an off-heap ring and onMessage
+ * returns straight away. A thread of its own drains the ring in order and hands the messages to the sink, e.g. a
+ * {@link LoggingConsumer} to log them as text, or a {@link codingblackfemales.sequencer.journal.JournalWriter} for a
+ * compact binary log that {@link AuditLogPrinter} prints.
+ *
+ * The sink only ever sees messages and batch ends in the order they were dispatched, with their sequencer numbers, and
+ * only the messages it requires if it is a {@link SequencerComponent}. When the ring is full the dispatch thread waits
+ * for space rather than lose a message, and {@link #getRingFullCount()} says how often it had to.
+ */
+public class AsyncLoggingConsumer extends AbstractSequencerComponent implements Consumer, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncLoggingConsumer.class);
+
+    public static final int DEFAULT_CAPACITY = 4 * 1024 * 1024;
+
+    private static final int MESSAGE_MSG_TYPE_ID = 1;
+    private static final int BATCH_END_MSG_TYPE_ID = 2;
+
+    private static final DirectBuffer EMPTY = new UnsafeBuffer(new byte[0]);
+
+    private final OneToOneRingBuffer ringBuffer;
+    private final Consumer sink;
+    private final AgentRunner runner;
+
+    //only written by the dispatch thread
+    private volatile long ringFullCount = 0L;
+
+    public AsyncLoggingConsumer(final Consumer sink) {
+        this(sink, DEFAULT_CAPACITY, new BackoffIdleStrategy());
+    }
+
+    public AsyncLoggingConsumer(final Consumer sink, final int capacity, final IdleStrategy idleStrategy) {
+        this.sink = sink;
+        this.ringBuffer = new OneToOneRingBuffer(
+                new UnsafeBuffer(ByteBuffer.allocateDirect(capacity + RingBufferDescriptor.TRAILER_LENGTH)));
+
+        if(sink instanceof SequencerComponent){
+            for (int key : ((SequencerComponent) sink).requiredMessages()) {
+                requireMessage(key >>> 16, key & 0xFFFF);
+            }
+        }
+
+        this.runner = new AgentRunner(idleStrategy, throwable -> logger.error("[AUDIT] Sink " + sink + " failed", throwable), null, new Drain());
+        AgentRunner.startOnThread(runner, runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        onMessage(buffer, 0, MessageLength.of(buffer, 0));
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer, final int offset, final int length) {
+        write(MESSAGE_MSG_TYPE_ID, buffer, offset, length);
+    }
+
+    //in the ring behind the messages of the batch, so the sink sees it after them
+    @Override
+    public void onBatchEnd() {
+        write(BATCH_END_MSG_TYPE_ID, EMPTY, 0, 0);
+    }
+
+    private void write(final int msgTypeId, final DirectBuffer buffer, final int offset, final int length) {
+        if(!ringBuffer.write(msgTypeId, buffer, offset, length)){
+            ringFullCount = ringFullCount + 1;
+            do {
+                Thread.onSpinWait();
+            } while(!ringBuffer.write(msgTypeId, buffer, offset, length));
+        }
+    }
+
+    public long getRingFullCount() {
+        return ringFullCount;
+    }
+
+    /**
+     * Waits for the sink to have been given everything logged so far, then stops the thread.
+     */
+    @Override
+    public void close() {
+        while(ringBuffer.size() > 0 && !runner.isClosed()){
+            Thread.onSpinWait();
+        }
+        CloseHelper.close(runner);
+    }
+
+    private final class Drain implements Agent {
+
+        private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+        private final MessageHandler handler = this::onLogged;
+
+        @Override
+        public int doWork() {
+            return ringBuffer.read(handler);
+        }
+
+        @Override
+        public String roleName() {
+            return "audit-" + sink.getClass().getSimpleName();
+        }
+
+        private void onLogged(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length) {
+            if(msgTypeId == BATCH_END_MSG_TYPE_ID){
+                sink.onBatchEnd();
+                return;
+            }
+
+            //at offset 0, so sinks that only take the buffer don't need to wrap their own view
+            message.wrap(buffer, index, length);
+            sink.onMessage(message, 0, length);
+        }
+    }
+}
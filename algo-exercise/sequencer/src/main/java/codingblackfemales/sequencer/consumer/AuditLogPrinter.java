@@ -0,0 +1,44 @@
+package codingblackfemales.sequencer.consumer;
+
+import codingblackfemales.sequencer.journal.JournalHandler;
+import codingblackfemales.sequencer.journal.JournalReader;
+import codingblackfemales.sequencer.util.MessageFormatter;
+import org.agrona.DirectBuffer;
+
+import java.io.File;
+import java.io.PrintStream;
+
+/**
+ * Prints a binary audit log, i.e. a journal written by an {@link AsyncLoggingConsumer} in front of a
+ * {@link codingblackfemales.sequencer.journal.JournalWriter}, as the text the {@link LoggingConsumer} would have logged.
+ *
+ * Usage: AuditLogPrinter journalDirectory [fromSequencerNumber [toSequencerNumber]]
+ */
+public class AuditLogPrinter implements JournalHandler {
+
+    private final MessageFormatter formatter = new MessageFormatter();
+    private final PrintStream out;
+
+    public AuditLogPrinter(final PrintStream out) {
+        this.out = out;
+    }
+
+    public static void main(final String[] args) {
+        if(args.length < 1){
+            System.err.println("Usage: AuditLogPrinter journalDirectory [fromSequencerNumber [toSequencerNumber]]");
+            System.exit(1);
+        }
+
+        final long from = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        final long to = args.length > 2 ? Long.parseLong(args[2]) : Long.MAX_VALUE;
+
+        try (JournalReader reader = new JournalReader(new File(args[0]))) {
+            reader.read(from, to, new AuditLogPrinter(System.out));
+        }
+    }
+
+    @Override
+    public void onFrame(final long sequencerNumber, final long timestamp, final DirectBuffer buffer, final int offset, final int length) {
+        out.println(formatter.format(buffer, offset));
+    }
+}
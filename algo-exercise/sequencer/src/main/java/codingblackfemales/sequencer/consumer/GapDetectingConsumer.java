@@ -0,0 +1,160 @@
+package codingblackfemales.sequencer.consumer;
+
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.net.RetransmitCache;
+import codingblackfemales.sequencer.util.MessageLength;
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Makes sure the consumer it wraps sees every sequencer number once, in order, even when the messages get to it with
+ * some missing, e.g. from a network that drops messages for a slow consumer.
+ *
+ * It tracks the last sequencer number it passed on. When a message arrives further ahead than the next one, the missing
+ * messages are read back from the sequencer's {@link RetransmitCache} and passed on first, so catching up costs as much
+ * as the gap rather than a resync of everything. Whatever the cache no longer has, the {@link GapHandler} is told about,
+ * and it is up to that to resync, e.g. from the journal; the consumer carries on with what comes after.
+ * Messages it has already passed on are dropped.
+ *
+ * It has to see every message to spot the gaps, so it doesn't declare the messages it requires.
+ */
+public class GapDetectingConsumer implements Consumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(GapDetectingConsumer.class);
+
+    public interface GapHandler {
+        /**
+         * The messages from and to these sequencer numbers, inclusive, were missed and couldn't be retransmitted.
+         */
+        void onUnrecoverableGap(long fromSequencerNumber, long toSequencerNumber);
+    }
+
+    private final Consumer consumer;
+    private final RetransmitCache retransmitCache;
+    private final GapHandler gapHandler;
+
+    private final UnsafeBuffer retransmitBuffer;
+    //sized to the message, like the sequencer's own slots
+    private final UnsafeBuffer retransmitted = new UnsafeBuffer(0, 0);
+
+    private long lastSequencerNumber;
+
+    private long gapCount = 0L;
+    private long retransmittedCount = 0L;
+    private long unrecoverableCount = 0L;
+    private long duplicateCount = 0L;
+
+    public GapDetectingConsumer(final Consumer consumer, final RetransmitCache retransmitCache) {
+        this(consumer, retransmitCache, (from, to) -> logger.error("[GAP] Missed messages " + from + " to " + to + ", no longer in the retransmit cache"), 0L);
+    }
+
+    /**
+     * @param lastSequencerNumber the last sequencer number the consumer has already seen, 0 if it is starting from the first
+     */
+    public GapDetectingConsumer(final Consumer consumer, final RetransmitCache retransmitCache, final GapHandler gapHandler, final long lastSequencerNumber) {
+        this.consumer = consumer;
+        this.retransmitCache = retransmitCache;
+        this.gapHandler = gapHandler;
+        this.lastSequencerNumber = lastSequencerNumber;
+        this.retransmitBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(retransmitCache.maxMessageLength()));
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        onMessage(buffer, 0, MessageLength.of(buffer, 0));
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer, final int offset, final int length) {
+        //the header is the same in every schema
+        final long sequencerNumber = buffer.getLong(offset + MessageHeaderDecoder.sequencerNumberEncodingOffset(), ByteOrder.LITTLE_ENDIAN);
+
+        if(sequencerNumber <= lastSequencerNumber){
+            duplicateCount++;
+            return;
+        }
+
+        if(sequencerNumber > lastSequencerNumber + 1){
+            fillGap(lastSequencerNumber + 1, sequencerNumber - 1);
+        }
+
+        lastSequencerNumber = sequencerNumber;
+        consumer.onMessage(buffer, offset, length);
+    }
+
+    @Override
+    public void onBatchEnd() {
+        consumer.onBatchEnd();
+    }
+
+    private void fillGap(final long from, final long to){
+        gapCount++;
+
+        //the cache holds at most its capacity of messages before the one that just arrived
+        long missing = Math.max(from, to + 2 - retransmitCache.capacity());
+        long unrecoverableFrom = missing > from ? from : 0L;
+
+        for (; missing <= to; missing++) {
+            final int length = retransmitCache.read(missing, retransmitBuffer);
+
+            if(length < 0){
+                if(unrecoverableFrom == 0L){
+                    unrecoverableFrom = missing;
+                }
+                continue;
+            }
+
+            if(unrecoverableFrom != 0L){
+                onUnrecoverableGap(unrecoverableFrom, missing - 1);
+                unrecoverableFrom = 0L;
+            }
+
+            retransmittedCount++;
+            lastSequencerNumber = missing;
+            retransmitted.wrap(retransmitBuffer, 0, length);
+            consumer.onMessage(retransmitted, 0, length);
+        }
+
+        if(unrecoverableFrom != 0L){
+            onUnrecoverableGap(unrecoverableFrom, to);
+        }
+    }
+
+    private void onUnrecoverableGap(final long from, final long to){
+        unrecoverableCount += to - from + 1;
+        lastSequencerNumber = to;
+        gapHandler.onUnrecoverableGap(from, to);
+    }
+
+    public long getLastSequencerNumber() {
+        return lastSequencerNumber;
+    }
+
+    public long getGapCount() {
+        return gapCount;
+    }
+
+    /**
+     * How many messages were passed on from the retransmit cache.
+     */
+    public long getRetransmittedCount() {
+        return retransmittedCount;
+    }
+
+    /**
+     * How many messages were missed for good.
+     */
+    public long getUnrecoverableCount() {
+        return unrecoverableCount;
+    }
+
+    public long getDuplicateCount() {
+        return duplicateCount;
+    }
+}
@@ -1,59 +1,65 @@
 package codingblackfemales.sequencer.consumer;
 
+import codingblackfemales.sequencer.AbstractSequencerComponent;
+import codingblackfemales.sequencer.SequencerComponent;
 import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.util.MessageFormatter;
+import messages.marketdata.BookDeltaDecoder;
 import messages.marketdata.BookUpdateDecoder;
 import messages.marketdata.MessageHeaderDecoder;
+import messages.marketdata.TradeDecoder;
+import messages.order.AmendOrderDecoder;
+import messages.order.BatchOrderCommandDecoder;
 import messages.order.CancelOrderDecoder;
 import messages.order.CreateOrderDecoder;
-import messages.order.CreateOrderEncoder;
 import messages.order.FillOrderDecoder;
 import org.agrona.DirectBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static codingblackfemales.sequencer.util.MessageUtil.bookUpdateToString;
-
-public class LoggingConsumer implements Consumer {
+/**
+ * Logs the messages it requires as text; wrap it in an {@link AsyncLoggingConsumer} to do so off the dispatch thread.
+ */
+public class LoggingConsumer extends AbstractSequencerComponent implements Consumer {
 
     private static final Logger logger = LoggerFactory.getLogger(LoggingConsumer.class);
 
     private final MessageHeaderDecoder decoder = new MessageHeaderDecoder();
-    private final BookUpdateDecoder bookUpdateDecoder = new BookUpdateDecoder();
-    private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
-    private final FillOrderDecoder fillDecoder = new FillOrderDecoder();
+    private final MessageFormatter formatter = new MessageFormatter();
 
-    private final CancelOrderDecoder cancelDecoder = new CancelOrderDecoder();
+    public LoggingConsumer() {
+        requireMessage(BookUpdateDecoder.SCHEMA_ID, BookUpdateDecoder.TEMPLATE_ID);
+        requireMessage(BookDeltaDecoder.SCHEMA_ID, BookDeltaDecoder.TEMPLATE_ID);
+        requireMessage(TradeDecoder.SCHEMA_ID, TradeDecoder.TEMPLATE_ID);
+        requireMessage(CreateOrderDecoder.SCHEMA_ID, CreateOrderDecoder.TEMPLATE_ID);
+        requireMessage(BatchOrderCommandDecoder.SCHEMA_ID, BatchOrderCommandDecoder.TEMPLATE_ID);
+        requireMessage(AmendOrderDecoder.SCHEMA_ID, AmendOrderDecoder.TEMPLATE_ID);
+        requireMessage(FillOrderDecoder.SCHEMA_ID, FillOrderDecoder.TEMPLATE_ID);
+        requireMessage(CancelOrderDecoder.SCHEMA_ID, CancelOrderDecoder.TEMPLATE_ID);
+    }
 
     @Override
     public void onMessage(final DirectBuffer buffer) {
+        onMessage(buffer, 0, 0);
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer, final int offset, final int length) {
+        if(logs(buffer, offset)){
+            logger.info(formatter.format(buffer, offset));
+        }
+    }
+
+    //the network may not filter for us, e.g. when wired straight onto it
+    boolean logs(final DirectBuffer buffer, final int offset) {
+        decoder.wrap(buffer, offset);
+        final int key = SequencerComponent.messageKey(decoder.schemaId(), decoder.templateId());
 
-        decoder.wrap(buffer, 0);
-
-        if (decoder.schemaId() == BookUpdateDecoder.SCHEMA_ID && decoder.templateId() == BookUpdateDecoder.TEMPLATE_ID) {
-            final int actingBlockLength = decoder.blockLength();
-            final int actingVersion = decoder.version();
-            int bufferOffset = decoder.encodedLength();
-            bookUpdateDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            logger.info("[" + decoder.sequencerNumber() + "] \n" + bookUpdateToString(bookUpdateDecoder));
-        } else if (decoder.schemaId() == CreateOrderEncoder.SCHEMA_ID && decoder.templateId() == CreateOrderDecoder.TEMPLATE_ID) {
-            final int actingBlockLength = decoder.blockLength();
-            final int actingVersion = decoder.version();
-
-            int bufferOffset = decoder.encodedLength();
-            createOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            logger.info("[" + decoder.sequencerNumber() + "] " + createOrderDecoder);
-        } else if (decoder.schemaId() == FillOrderDecoder.SCHEMA_ID && decoder.templateId() == FillOrderDecoder.TEMPLATE_ID) {
-            final int actingBlockLength = decoder.blockLength();
-            final int actingVersion = decoder.version();
-            int bufferOffset = decoder.encodedLength();
-            fillDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            logger.info("[" + decoder.sequencerNumber() + "] " + fillDecoder);
-        }else if (decoder.schemaId() == CancelOrderDecoder.SCHEMA_ID && decoder.templateId() == CancelOrderDecoder.TEMPLATE_ID) {
-            final int actingBlockLength = decoder.blockLength();
-            final int actingVersion = decoder.version();
-            int bufferOffset = decoder.encodedLength();
-            cancelDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            logger.info("[" + decoder.sequencerNumber() + "] " + cancelDecoder);
+        for (int required : requiredMessages()) {
+            if(required == key){
+                return true;
+            }
         }
+        return false;
     }
 }
@@ -1,37 +1,42 @@
 package codingblackfemales.sequencer.event;
 
+import codingblackfemales.sequencer.AbstractSequencerComponent;
 import codingblackfemales.sequencer.net.Consumer;
 import messages.marketdata.AskBookUpdateDecoder;
 import messages.marketdata.BidBookUpdateDecoder;
 import messages.marketdata.BookUpdateDecoder;
-import messages.marketdata.MessageHeaderDecoder;
+import messages.marketdata.MarketDataDispatcher;
 import org.agrona.DirectBuffer;
 
-public abstract class MarketDataEventListener implements Consumer {
+public abstract class MarketDataEventListener extends AbstractSequencerComponent implements Consumer, MarketDataDispatcher.Handler {
 
-    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
-    private final BookUpdateDecoder book = new BookUpdateDecoder();
-    private final AskBookUpdateDecoder ask = new AskBookUpdateDecoder();
-    private final BidBookUpdateDecoder bid = new BidBookUpdateDecoder();
+    //checks the schema too, as order messages reuse some of our template ids, e.g. a PartialFillOrder is 9 like a BidBookUpdate
+    private final MarketDataDispatcher dispatcher = new MarketDataDispatcher(this);
+
+    protected MarketDataEventListener() {
+        for (int templateId : MarketDataDispatcher.TEMPLATE_IDS) {
+            requireMessage(MarketDataDispatcher.SCHEMA_ID, templateId);
+        }
+    }
 
     @Override
     public void onMessage(final DirectBuffer buffer) {
-        header.wrap(buffer, 0);
-
-        final int actingBlockLength = header.blockLength();
-        final int actingVersion = header.version();
-        final int bufferOffset = header.encodedLength();
-
-        if(header.templateId() == BookUpdateDecoder.TEMPLATE_ID){
-            book.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            onBookUpdate(book);
-        }else if(header.templateId() == AskBookUpdateDecoder.TEMPLATE_ID){
-            ask.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            onAskBook(ask);
-        }else if(header.templateId() == BidBookUpdateDecoder.TEMPLATE_ID){
-            bid.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-            onBidBook(bid);
-        }
+        dispatcher.dispatch(buffer, 0);
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer, final int offset, final int length) {
+        dispatcher.dispatch(buffer, offset);
+    }
+
+    @Override
+    public final void onAskBookUpdate(final AskBookUpdateDecoder askBook) {
+        onAskBook(askBook);
+    }
+
+    @Override
+    public final void onBidBookUpdate(final BidBookUpdateDecoder bidBook) {
+        onBidBook(bidBook);
     }
 
     public abstract void onBookUpdate(BookUpdateDecoder bookUpdate);
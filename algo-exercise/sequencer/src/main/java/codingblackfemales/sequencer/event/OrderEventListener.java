@@ -1,56 +1,38 @@
 package codingblackfemales.sequencer.event;
 
+import codingblackfemales.sequencer.AbstractSequencerComponent;
 import codingblackfemales.sequencer.net.Consumer;
-import messages.marketdata.MessageHeaderDecoder;
 import messages.order.*;
 import org.agrona.DirectBuffer;
 
-public abstract class OrderEventListener implements Consumer {
+public abstract class OrderEventListener extends AbstractSequencerComponent implements Consumer, OrderDispatcher.Handler {
 
-    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final OrderDispatcher dispatcher = new OrderDispatcher(this);
 
-    private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
-    private final CancelOrderDecoder cancelOrderDecoder = new CancelOrderDecoder();
-    private final AckedOrderDecoder ackedOrderDecoder = new AckedOrderDecoder();
-    private final CancelAckedOrderDecoder cancelAckedOrderDecoder = new CancelAckedOrderDecoder();
-    private final PendingOrderDecoder pendingOrderDecoder = new PendingOrderDecoder();
-    private final PartialFillOrderDecoder partialFillOrderDecoder = new PartialFillOrderDecoder();
-    private final FillOrderDecoder fillOrderDecoder = new FillOrderDecoder();
+    protected OrderEventListener() {
+        for (int templateId : OrderDispatcher.TEMPLATE_IDS) {
+            requireMessage(OrderDispatcher.SCHEMA_ID, templateId);
+        }
+    }
 
     @Override
-    public void onMessage(DirectBuffer buffer){
-
-        header.wrap(buffer, 0);
+    public void onMessage(final DirectBuffer buffer){
+        dispatcher.dispatch(buffer, 0);
+    }
 
-        final int actingBlockLength = header.blockLength();
-        final int actingVersion = header.version();
-        final int bufferOffset = header.encodedLength();
+    @Override
+    public void onMessage(final DirectBuffer buffer, final int offset, final int length) {
+        dispatcher.dispatch(buffer, offset);
+    }
 
-        if(header.schemaId() == CreateOrderEncoder.SCHEMA_ID) {
+    @Override
+    public final void onPartialFillOrder(final PartialFillOrderDecoder partialFill) {
+        onPartialFill(partialFill);
+    }
 
-            if (header.templateId() == CreateOrderDecoder.TEMPLATE_ID) {
-                createOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onCreateOrder(createOrderDecoder);
-            } else if (header.templateId() == CancelOrderDecoder.TEMPLATE_ID) {
-                cancelOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onCancelOrder(cancelOrderDecoder);
-            } else if (header.templateId() == AckedOrderDecoder.TEMPLATE_ID) {
-                ackedOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onAckedOrder(ackedOrderDecoder);
-            } else if (header.templateId() == CancelAckedOrderDecoder.TEMPLATE_ID) {
-                cancelAckedOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onCancelAckedOrder(cancelAckedOrderDecoder);
-            } else if (header.templateId() == PendingOrderDecoder.TEMPLATE_ID) {
-                pendingOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onPendingOrder(pendingOrderDecoder);
-            } else if (header.templateId() == PartialFillOrderDecoder.TEMPLATE_ID) {
-                partialFillOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onPartialFill(partialFillOrderDecoder);
-            } else if (header.templateId() == FillOrderDecoder.TEMPLATE_ID) {
-                fillOrderDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
-                onFill(fillOrderDecoder);
-            }
-        }
+    @Override
+    public final void onFillOrder(final FillOrderDecoder fill) {
+        onFill(fill);
     }
 
     public abstract void onCreateOrder(final CreateOrderDecoder create);
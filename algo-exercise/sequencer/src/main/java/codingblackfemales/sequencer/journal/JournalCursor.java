@@ -0,0 +1,99 @@
+package codingblackfemales.sequencer.journal;
+
+import codingblackfemales.sequencer.merge.MergeSource;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import static codingblackfemales.sequencer.journal.JournalDescriptor.*;
+
+/**
+ * Walks a journal one frame at a time from a starting sequencer number, for callers that pull messages rather than
+ * have them pushed through a {@link JournalHandler}, e.g. a {@link codingblackfemales.sequencer.merge.TimeOrderedMerge}
+ * of several journals by the time they were journaled.
+ *
+ * The start is found the same way as {@link JournalReader#read(long, long, JournalHandler)} finds it, after that each
+ * frame is the one after the last.
+ */
+public class JournalCursor implements MergeSource {
+
+    private final UnsafeBuffer[] segments;
+    private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+
+    private final long fromSequencerNumber;
+
+    private int segmentIndex;
+    private int position;
+    private int length = 0;
+
+    private long sequencerNumber;
+    private long timestamp;
+
+    JournalCursor(final UnsafeBuffer[] segments, final int segmentIndex, final int position, final long fromSequencerNumber) {
+        this.segments = segments;
+        this.segmentIndex = segmentIndex;
+        this.position = position;
+        this.fromSequencerNumber = fromSequencerNumber;
+    }
+
+    @Override
+    public boolean next() {
+        if(segmentIndex < 0){
+            return false;
+        }
+
+        //step over the frame we were on
+        position += length == 0 ? 0 : alignedFrameLength(length);
+        length = 0;
+
+        while(segmentIndex < segments.length){
+            final UnsafeBuffer segment = segments[segmentIndex];
+            final int frameLength = position + FRAME_HEADER_LENGTH <= segment.capacity() ? segment.getIntVolatile(position + LENGTH_OFFSET) : 0;
+
+            if(frameLength == 0){
+                segmentIndex += 1;
+                position = 0;
+                continue;
+            }
+
+            sequencerNumber = segment.getLong(position + SEQUENCER_NUMBER_OFFSET);
+            if(sequencerNumber < fromSequencerNumber){
+                position += alignedFrameLength(frameLength);
+                continue;
+            }
+
+            length = frameLength;
+            timestamp = segment.getLong(position + TIMESTAMP_OFFSET);
+            message.wrap(segment, position + FRAME_HEADER_LENGTH, frameLength);
+            return true;
+        }
+
+        return false;
+    }
+
+    public long sequencerNumber() {
+        return sequencerNumber;
+    }
+
+    /**
+     * When the message was journaled, in epoch nanos.
+     */
+    @Override
+    public long timestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public DirectBuffer buffer() {
+        return message;
+    }
+
+    @Override
+    public int offset() {
+        return 0;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+}
@@ -0,0 +1,77 @@
+package codingblackfemales.sequencer.journal;
+
+import org.agrona.BitUtil;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Layout of the journal files.
+ *
+ * A journal is a directory of fixed length segment files, each with a companion sparse index file. Segments hold
+ * 8 byte aligned frames of a 24 byte frame header followed by the sequenced message:
+ *
+ *   0: int    message length (written last, zero marks the end of the data in a segment)
+ *   4: int    flags, FLAG_BATCH_END if the message was the last of a batch
+ *   8: long   sequencerNumber
+ *  16: long   timestamp (epoch nanos) the message was journaled
+ *  24: byte[] message
+ *
+ * Index files hold 16 byte entries of (sequencerNumber, frame offset) for the first frame of the segment and every
+ * indexInterval frames after that.
+ */
+public final class JournalDescriptor {
+
+    public static final int FRAME_ALIGNMENT = 8;
+    public static final int LENGTH_OFFSET = 0;
+    public static final int FLAGS_OFFSET = 4;
+    public static final int SEQUENCER_NUMBER_OFFSET = 8;
+    public static final int TIMESTAMP_OFFSET = 16;
+    public static final int FRAME_HEADER_LENGTH = 24;
+
+    public static final int FLAG_BATCH_END = 1;
+
+    public static final int INDEX_SEQUENCER_NUMBER_OFFSET = 0;
+    public static final int INDEX_FRAME_OFFSET_OFFSET = 8;
+    public static final int INDEX_ENTRY_LENGTH = 16;
+
+    public static final String SEGMENT_SUFFIX = ".journal";
+    public static final String INDEX_SUFFIX = ".index";
+
+    private JournalDescriptor() {
+    }
+
+    public static int alignedFrameLength(final int messageLength){
+        return BitUtil.align(FRAME_HEADER_LENGTH + messageLength, FRAME_ALIGNMENT);
+    }
+
+    public static long indexFileLength(final long segmentLength, final int indexInterval){
+        return ((segmentLength / FRAME_HEADER_LENGTH) / indexInterval + 1) * INDEX_ENTRY_LENGTH;
+    }
+
+    public static File segmentFile(final File directory, final int segment){
+        return new File(directory, segmentName(segment) + SEGMENT_SUFFIX);
+    }
+
+    public static File indexFile(final File directory, final int segment){
+        return new File(directory, segmentName(segment) + INDEX_SUFFIX);
+    }
+
+    public static int[] segments(final File directory){
+        final String[] names = directory.list((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if(names == null){
+            return new int[0];
+        }
+
+        final int[] segments = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            segments[i] = Integer.parseInt(names[i].substring(0, names[i].length() - SEGMENT_SUFFIX.length()));
+        }
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    private static String segmentName(final int segment){
+        return String.format("%010d", segment);
+    }
+}
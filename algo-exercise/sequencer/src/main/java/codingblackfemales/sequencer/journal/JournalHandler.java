@@ -0,0 +1,16 @@
+package codingblackfemales.sequencer.journal;
+
+import org.agrona.DirectBuffer;
+
+public interface JournalHandler {
+    /**
+     * The buffer is a view onto the mapped journal and is only valid for the duration of the call.
+     */
+    public void onFrame(long sequencerNumber, long timestamp, DirectBuffer buffer, int offset, int length);
+
+    /**
+     * Called after the frame that ended a batch when it was journaled.
+     */
+    public default void onBatchEnd() {
+    }
+}
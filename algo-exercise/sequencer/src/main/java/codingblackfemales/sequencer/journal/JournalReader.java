@@ -0,0 +1,146 @@
+package codingblackfemales.sequencer.journal;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static codingblackfemales.sequencer.journal.JournalDescriptor.*;
+
+/**
+ * Reads ranges of a journal written by {@link JournalWriter}.
+ *
+ * The start of a range is found with a binary search over the first sequencer number of each segment, then a binary
+ * search of that segment's sparse index, so only up to one index interval of frames is scanned before the first
+ * frame in the range.
+ */
+public class JournalReader implements AutoCloseable {
+
+    private final MappedByteBuffer[] mappedSegments;
+    private final MappedByteBuffer[] mappedIndexes;
+    private final UnsafeBuffer[] segments;
+    private final UnsafeBuffer[] indexes;
+    private final long[] firstSequencerNumbers;
+
+    public JournalReader(final File directory) {
+        final int[] segmentNumbers = segments(directory);
+        final int count = segmentNumbers.length;
+
+        mappedSegments = new MappedByteBuffer[count];
+        mappedIndexes = new MappedByteBuffer[count];
+        segments = new UnsafeBuffer[count];
+        indexes = new UnsafeBuffer[count];
+        firstSequencerNumbers = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            mappedSegments[i] = IoUtil.mapExistingFile(segmentFile(directory, segmentNumbers[i]), FileChannel.MapMode.READ_ONLY, "journal segment");
+            mappedIndexes[i] = IoUtil.mapExistingFile(indexFile(directory, segmentNumbers[i]), FileChannel.MapMode.READ_ONLY, "journal index");
+            segments[i] = new UnsafeBuffer(mappedSegments[i]);
+            indexes[i] = new UnsafeBuffer(mappedIndexes[i]);
+            firstSequencerNumbers[i] = indexes[i].getLongVolatile(INDEX_SEQUENCER_NUMBER_OFFSET);
+        }
+    }
+
+    public long firstSequencerNumber(){
+        return firstSequencerNumbers.length == 0 ? 0 : firstSequencerNumbers[0];
+    }
+
+    /**
+     * Calls the handler for every journaled message with a sequencer number between from and to inclusive, and its
+     * onBatchEnd after each one that ended a batch.
+     *
+     * @return the number of messages read
+     */
+    public int read(final long fromSequencerNumber, final long toSequencerNumber, final JournalHandler handler){
+        int segmentIndex = findSegment(fromSequencerNumber);
+        if(segmentIndex < 0){
+            return 0;
+        }
+
+        int position = findFrameOffset(indexes[segmentIndex], fromSequencerNumber);
+        int count = 0;
+
+        while(segmentIndex < segments.length){
+            final UnsafeBuffer segment = segments[segmentIndex];
+            final int length = position + FRAME_HEADER_LENGTH <= segment.capacity() ? segment.getIntVolatile(position + LENGTH_OFFSET) : 0;
+
+            if(length == 0){
+                segmentIndex += 1;
+                position = 0;
+                continue;
+            }
+
+            final long sequencerNumber = segment.getLong(position + SEQUENCER_NUMBER_OFFSET);
+            if(sequencerNumber > toSequencerNumber){
+                break;
+            }
+
+            if(sequencerNumber >= fromSequencerNumber){
+                handler.onFrame(sequencerNumber, segment.getLong(position + TIMESTAMP_OFFSET), segment, position + FRAME_HEADER_LENGTH, length);
+                count += 1;
+
+                if((segment.getIntVolatile(position + FLAGS_OFFSET) & FLAG_BATCH_END) != 0){
+                    handler.onBatchEnd();
+                }
+            }
+
+            position += alignedFrameLength(length);
+        }
+
+        return count;
+    }
+
+    /**
+     * A cursor over every journaled message from the sequencer number on, valid while the reader is open.
+     */
+    public JournalCursor cursor(final long fromSequencerNumber){
+        final int segmentIndex = findSegment(fromSequencerNumber);
+        final int position = segmentIndex < 0 ? 0 : findFrameOffset(indexes[segmentIndex], fromSequencerNumber);
+        return new JournalCursor(segments, segmentIndex, position, fromSequencerNumber);
+    }
+
+    private int findSegment(final long sequencerNumber){
+        if(firstSequencerNumbers.length == 0 || firstSequencerNumbers[0] == 0){
+            return -1;
+        }
+
+        //last segment starting at or before the sequencer number we want
+        int low = 0;
+        int high = firstSequencerNumbers.length - 1;
+        while(low < high){
+            final int mid = (low + high + 1) >>> 1;
+            if(firstSequencerNumbers[mid] != 0 && firstSequencerNumbers[mid] <= sequencerNumber){
+                low = mid;
+            }else{
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static int findFrameOffset(final UnsafeBuffer index, final long sequencerNumber){
+        //last index entry at or before the sequencer number we want, unused entries are zero
+        int low = 0;
+        int high = index.capacity() / INDEX_ENTRY_LENGTH - 1;
+        while(low < high){
+            final int mid = (low + high + 1) >>> 1;
+            final long entry = index.getLongVolatile(mid * INDEX_ENTRY_LENGTH + INDEX_SEQUENCER_NUMBER_OFFSET);
+            if(entry != 0 && entry <= sequencerNumber){
+                low = mid;
+            }else{
+                high = mid - 1;
+            }
+        }
+        return (int) index.getLong(low * INDEX_ENTRY_LENGTH + INDEX_FRAME_OFFSET_OFFSET);
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0; i < mappedSegments.length; i++) {
+            IoUtil.unmap(mappedSegments[i]);
+            IoUtil.unmap(mappedIndexes[i]);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package codingblackfemales.sequencer.journal;
+
+import codingblackfemales.sequencer.net.Network;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.SystemNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a journal straight into a {@link Network}.
+ *
+ * Messages are dispatched as they sit in the mapped journal, already sequenced and without any decoding. Between
+ * messages the replayer can wait so that the gaps between them match the gaps between when they were journaled,
+ * scaled by the {@link ReplaySpeed}.
+ *
+ * Batches end on the network where they ended when journaled, so consumers evaluating per batch see the same batches
+ * they would have live. A replay that stops part way through a batch ends it anyway.
+ */
+public class JournalReplayer implements JournalHandler {
+
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final JournalReader reader;
+    private final Network network;
+    private final ReplaySpeed speed;
+    private final NanoClock clock;
+
+    private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+
+    private long firstTimestamp;
+    private long startNanos;
+    private boolean started;
+    private boolean inBatch;
+
+    public JournalReplayer(final JournalReader reader, final Network network, final ReplaySpeed speed) {
+        this(reader, network, speed, SystemNanoClock.INSTANCE);
+    }
+
+    public JournalReplayer(final JournalReader reader, final Network network, final ReplaySpeed speed, final NanoClock clock) {
+        this.reader = reader;
+        this.network = network;
+        this.speed = speed;
+        this.clock = clock;
+    }
+
+    public int replayFrom(final long fromSequencerNumber){
+        return replay(fromSequencerNumber, Long.MAX_VALUE);
+    }
+
+    public int replay(final long fromSequencerNumber, final long toSequencerNumber){
+        started = false;
+        inBatch = false;
+        final int count = reader.read(fromSequencerNumber, toSequencerNumber, this);
+        if(inBatch){
+            onBatchEnd();
+        }
+        return count;
+    }
+
+    @Override
+    public void onFrame(final long sequencerNumber, final long timestamp, final DirectBuffer buffer, final int offset, final int length) {
+        if(speed.isThrottled()){
+            awaitReplayTime(timestamp);
+        }
+
+        message.wrap(buffer, offset, length);
+        network.dispatch(message, 0, length);
+        inBatch = true;
+    }
+
+    @Override
+    public void onBatchEnd() {
+        inBatch = false;
+        network.onBatchEnd();
+    }
+
+    private void awaitReplayTime(final long timestamp){
+        if(!started){
+            started = true;
+            firstTimestamp = timestamp;
+            startNanos = clock.nanoTime();
+            return;
+        }
+
+        final long dueNanos = startNanos + speed.scale(timestamp - firstTimestamp);
+
+        long remaining;
+        while((remaining = dueNanos - clock.nanoTime()) > 0){
+            if(remaining > SPIN_THRESHOLD_NANOS){
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            }else{
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package codingblackfemales.sequencer.journal;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.util.MessageLength;
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static codingblackfemales.sequencer.journal.JournalDescriptor.*;
+
+/**
+ * Appends every sequenced message it sees to a memory mapped journal, see {@link JournalDescriptor} for the layout.
+ *
+ * Add it to the network like any other consumer. Appending is a copy into mapped memory, the only file system calls
+ * happen when a segment fills up and the next one is mapped, or on close.
+ *
+ * Given a directory that already has a journal in it, the writer carries on from the end of its last segment, so a
+ * sequencer can be restarted against its own journal, see {@link #getLastSequencerNumber()}. The journal must have
+ * been written with the same segment length and index interval.
+ *
+ * The end of each batch is kept as a flag on its last frame, so a replay can end batches where they ended live.
+ */
+public class JournalWriter implements Consumer, AutoCloseable {
+
+    public static final long DEFAULT_SEGMENT_LENGTH = 64 * 1024 * 1024;
+    public static final int DEFAULT_INDEX_INTERVAL = 64;
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+
+    private final File directory;
+    private final int segmentLength;
+    private final int indexInterval;
+    private final EpochNanoClock clock;
+
+    private final UnsafeBuffer segment = new UnsafeBuffer(0, 0);
+    private final UnsafeBuffer index = new UnsafeBuffer(0, 0);
+    private MappedByteBuffer mappedSegment;
+    private MappedByteBuffer mappedIndex;
+
+    private int segmentNumber = -1;
+    private int position;
+    private int lastFramePosition = -1;
+    private int indexPosition;
+    private int framesSinceIndexEntry;
+    private long lastSequencerNumber = 0L;
+
+    public JournalWriter(final File directory) {
+        this(directory, DEFAULT_SEGMENT_LENGTH, DEFAULT_INDEX_INTERVAL, DefaultSequencer.DEFAULT_CLOCK);
+    }
+
+    public JournalWriter(final File directory, final long segmentLength, final int indexInterval, final EpochNanoClock clock) {
+        if(segmentLength > Integer.MAX_VALUE || segmentLength < alignedFrameLength(DefaultSequencer.MAX_MESSAGE_LENGTH)){
+            throw new IllegalArgumentException("Invalid segment length: " + segmentLength);
+        }
+
+        IoUtil.ensureDirectoryExists(directory, "journal");
+        final int[] existing = segments(directory);
+
+        this.directory = directory;
+        this.segmentLength = (int) segmentLength;
+        this.indexInterval = indexInterval;
+        this.clock = clock;
+
+        if(existing.length == 0){
+            roll();
+        }else{
+            reopen(existing[existing.length - 1]);
+        }
+    }
+
+    /**
+     * The sequencer number of the last message in the journal, 0 if there are none, e.g. for
+     * {@link DefaultSequencer#setLastSequencerNumber(long)} when restarting.
+     */
+    public long getLastSequencerNumber() {
+        return lastSequencerNumber;
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        onMessage(buffer, 0, MessageLength.of(buffer, 0));
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer, final int offset, final int length) {
+        headerDecoder.wrap(buffer, offset);
+        append(headerDecoder.sequencerNumber(), buffer, offset, length);
+    }
+
+    @Override
+    public void onBatchEnd() {
+        //a batch that sequenced nothing flags the frame that ended the one before again
+        if(lastFramePosition >= 0){
+            segment.putIntOrdered(lastFramePosition + FLAGS_OFFSET, FLAG_BATCH_END);
+        }
+    }
+
+    public void append(final long sequencerNumber, final DirectBuffer buffer, final int offset, final int length) {
+        final int frameLength = alignedFrameLength(length);
+
+        if(frameLength > segmentLength){
+            throw new IllegalArgumentException("Message of length " + length + " does not fit in a journal segment");
+        }
+
+        if(position + frameLength > segmentLength){
+            roll();
+        }
+
+        if(framesSinceIndexEntry == 0){
+            index.putLong(indexPosition + INDEX_FRAME_OFFSET_OFFSET, position);
+            index.putLongOrdered(indexPosition + INDEX_SEQUENCER_NUMBER_OFFSET, sequencerNumber);
+            indexPosition += INDEX_ENTRY_LENGTH;
+        }
+
+        if(++framesSinceIndexEntry == indexInterval){
+            framesSinceIndexEntry = 0;
+        }
+
+        segment.putLong(position + SEQUENCER_NUMBER_OFFSET, sequencerNumber);
+        segment.putLong(position + TIMESTAMP_OFFSET, clock.nanoTime());
+        segment.putBytes(position + FRAME_HEADER_LENGTH, buffer, offset, length);
+        //the length goes in last so a reader never sees a partly written frame
+        segment.putIntOrdered(position + LENGTH_OFFSET, length);
+
+        lastFramePosition = position;
+        position += frameLength;
+        lastSequencerNumber = sequencerNumber;
+    }
+
+    private void reopen(final int lastSegmentNumber){
+        final File segmentFile = segmentFile(directory, lastSegmentNumber);
+        final File indexFile = indexFile(directory, lastSegmentNumber);
+        if(segmentFile.length() != segmentLength || indexFile.length() != indexFileLength(segmentLength, indexInterval)){
+            throw new IllegalStateException("Journal in " + directory + " was written with a different segment length or index interval");
+        }
+
+        segmentNumber = lastSegmentNumber;
+        mappedSegment = IoUtil.mapExistingFile(segmentFile, FileChannel.MapMode.READ_WRITE, "journal segment");
+        mappedIndex = IoUtil.mapExistingFile(indexFile, FileChannel.MapMode.READ_WRITE, "journal index");
+        segment.wrap(mappedSegment);
+        index.wrap(mappedIndex);
+
+        //walk the frames to the end of the data, the index has an entry for every indexInterval of them
+        int frames = 0;
+        position = 0;
+        while(position + FRAME_HEADER_LENGTH <= segmentLength){
+            final int length = segment.getIntVolatile(position + LENGTH_OFFSET);
+            if(length == 0){
+                break;
+            }
+            lastSequencerNumber = segment.getLong(position + SEQUENCER_NUMBER_OFFSET);
+            lastFramePosition = position;
+            position += alignedFrameLength(length);
+            frames++;
+        }
+
+        framesSinceIndexEntry = frames % indexInterval;
+        indexPosition = (frames + indexInterval - 1) / indexInterval * INDEX_ENTRY_LENGTH;
+    }
+
+    private void roll(){
+        unmap();
+
+        segmentNumber += 1;
+        position = 0;
+        lastFramePosition = -1;
+        indexPosition = 0;
+        framesSinceIndexEntry = 0;
+
+        mappedSegment = IoUtil.mapNewFile(segmentFile(directory, segmentNumber), segmentLength);
+        mappedIndex = IoUtil.mapNewFile(indexFile(directory, segmentNumber), indexFileLength(segmentLength, indexInterval));
+        segment.wrap(mappedSegment);
+        index.wrap(mappedIndex);
+    }
+
+    private void unmap(){
+        if(mappedSegment != null){
+            mappedSegment.force();
+            mappedIndex.force();
+            IoUtil.unmap(mappedSegment);
+            IoUtil.unmap(mappedIndex);
+            mappedSegment = null;
+            mappedIndex = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        unmap();
+    }
+}
@@ -0,0 +1,33 @@
+package codingblackfemales.sequencer.journal;
+
+public final class ReplaySpeed {
+
+    public static final ReplaySpeed MAX_SPEED = new ReplaySpeed(0);
+    public static final ReplaySpeed REAL_TIME = new ReplaySpeed(1);
+
+    private final double multiple;
+
+    private ReplaySpeed(final double multiple) {
+        this.multiple = multiple;
+    }
+
+    public static ReplaySpeed timesRealTime(final double multiple){
+        if(multiple <= 0){
+            throw new IllegalArgumentException("Replay speed must be a positive multiple of real time: " + multiple);
+        }
+        return new ReplaySpeed(multiple);
+    }
+
+    public boolean isThrottled(){
+        return multiple > 0;
+    }
+
+    public long scale(final long recordedNanos){
+        return (long) (recordedNanos / multiple);
+    }
+
+    @Override
+    public String toString() {
+        return multiple == 0 ? "ReplaySpeed(MAX_SPEED)" : "ReplaySpeed(" + multiple + "x)";
+    }
+}
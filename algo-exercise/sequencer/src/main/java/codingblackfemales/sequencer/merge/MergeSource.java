@@ -0,0 +1,28 @@
+package codingblackfemales.sequencer.merge;
+
+import org.agrona.DirectBuffer;
+
+/**
+ * One input to a {@link TimeOrderedMerge}, read as a cursor: {@link #next()} moves onto the next message and the
+ * other methods describe it until the following call. Messages must come out of a source in timestamp order.
+ */
+public interface MergeSource {
+    /**
+     * @return false once the source has no more messages
+     */
+    boolean next();
+
+    /**
+     * When the current message happened, in nanos. Sources merged together must agree on the clock.
+     */
+    long timestamp();
+
+    /**
+     * Only valid until the next call to {@link #next()}.
+     */
+    DirectBuffer buffer();
+
+    int offset();
+
+    int length();
+}
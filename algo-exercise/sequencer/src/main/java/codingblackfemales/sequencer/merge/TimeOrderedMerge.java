@@ -0,0 +1,157 @@
+package codingblackfemales.sequencer.merge;
+
+import codingblackfemales.sequencer.Sequencer;
+import org.agrona.concurrent.Agent;
+
+/**
+ * Feeds the messages from any number of {@link MergeSource}s into a {@link Sequencer} in timestamp order, e.g. several
+ * recorded market data feeds and the algo commands recorded alongside them, for a backtest.
+ *
+ * Only the head of each source is looked at. The heads are kept in a binary min-heap of primitive arrays keyed on their
+ * timestamps, so each message costs O(log N) in the number of sources and nothing is allocated or materialised along
+ * the way. Messages with the same timestamp go in the order the sources were given, so a merge always comes out the
+ * same.
+ *
+ * Each message is a command of its own, so the algos see every state in between, as they would live.
+ */
+public class TimeOrderedMerge implements Agent {
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final Sequencer sequencer;
+    private final MergeSource[] sources;
+    private final int batchSize;
+
+    //heap of (timestamp, source index), the earliest at 0
+    private final long[] heapTimestamps;
+    private final int[] heapSources;
+    private int heapSize = 0;
+
+    private long mergedCount = 0L;
+
+    public TimeOrderedMerge(final Sequencer sequencer, final MergeSource... sources) {
+        this(sequencer, DEFAULT_BATCH_SIZE, sources);
+    }
+
+    /**
+     * @param batchSize how many messages to merge per duty cycle when run as an {@link Agent}
+     */
+    public TimeOrderedMerge(final Sequencer sequencer, final int batchSize, final MergeSource... sources) {
+        this.sequencer = sequencer;
+        this.sources = sources.clone();
+        this.batchSize = batchSize;
+        this.heapTimestamps = new long[sources.length];
+        this.heapSources = new int[sources.length];
+
+        for (int i = 0; i < this.sources.length; i++) {
+            if(this.sources[i].next()){
+                heapTimestamps[heapSize] = this.sources[i].timestamp();
+                heapSources[heapSize] = i;
+                siftUp(heapSize++);
+            }
+        }
+    }
+
+    /**
+     * Sequences up to limit messages, earliest first.
+     *
+     * @return how many were sequenced, 0 once every source is exhausted
+     */
+    public int poll(final int limit) {
+        int merged = 0;
+        while(merged < limit && heapSize > 0){
+            final int index = heapSources[0];
+            final MergeSource source = sources[index];
+            final long timestamp = heapTimestamps[0];
+
+            sequencer.onCommand(source.buffer(), source.offset(), source.length());
+            merged++;
+
+            if(source.next()){
+                if(source.timestamp() < timestamp){
+                    throw new IllegalStateException("Source " + index + " went back in time from " + timestamp + " to " + source.timestamp());
+                }
+                heapTimestamps[0] = source.timestamp();
+            }else{
+                heapSize--;
+                heapTimestamps[0] = heapTimestamps[heapSize];
+                heapSources[0] = heapSources[heapSize];
+            }
+            siftDown(0);
+        }
+
+        mergedCount += merged;
+        return merged;
+    }
+
+    /**
+     * Sequences everything left in every source.
+     */
+    public long drain() {
+        long drained = 0L;
+        while(heapSize > 0){
+            drained += poll(batchSize);
+        }
+        return drained;
+    }
+
+    @Override
+    public int doWork() {
+        return poll(batchSize);
+    }
+
+    @Override
+    public String roleName() {
+        return "merge";
+    }
+
+    public boolean isDone() {
+        return heapSize == 0;
+    }
+
+    public long getMergedCount() {
+        return mergedCount;
+    }
+
+    private boolean earlier(final int a, final int b){
+        return heapTimestamps[a] < heapTimestamps[b]
+                || (heapTimestamps[a] == heapTimestamps[b] && heapSources[a] < heapSources[b]);
+    }
+
+    private void siftUp(int child){
+        while(child > 0){
+            final int parent = (child - 1) >>> 1;
+            if(!earlier(child, parent)){
+                return;
+            }
+            swap(child, parent);
+            child = parent;
+        }
+    }
+
+    private void siftDown(int parent){
+        while(true){
+            final int left = 2 * parent + 1;
+            if(left >= heapSize){
+                return;
+            }
+            final int right = left + 1;
+            final int child = right < heapSize && earlier(right, left) ? right : left;
+            if(!earlier(child, parent)){
+                return;
+            }
+            swap(child, parent);
+            parent = child;
+        }
+    }
+
+    private void swap(final int a, final int b){
+        final long timestamp = heapTimestamps[a];
+        heapTimestamps[a] = heapTimestamps[b];
+        heapTimestamps[b] = timestamp;
+
+        final int source = heapSources[a];
+        heapSources[a] = heapSources[b];
+        heapSources[b] = source;
+    }
+}
@@ -0,0 +1,155 @@
+package codingblackfemales.sequencer.metrics;
+
+import codingblackfemales.sequencer.SequencerComponent;
+import codingblackfemales.sequencer.net.Consumer;
+import messages.marketdata.AskBookUpdateEncoder;
+import messages.marketdata.BidBookUpdateEncoder;
+import messages.marketdata.BookDeltaEncoder;
+import messages.marketdata.BookUpdateEncoder;
+import messages.marketdata.TradeEncoder;
+import messages.order.*;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.agrona.collections.Int2ObjectHashMap;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Latency recorders for the sequencer, one per message type and one per consumer, plus any others asked for by name.
+ *
+ * A message type records the time from the sequencer taking the command until the network's dispatch returned, which
+ * for a {@link codingblackfemales.sequencer.net.TestNetwork} is once every consumer has returned from onMessage, and
+ * includes anything dispatched in reaction to it on the way. A consumer records the time spent in its onMessage.
+ *
+ * Recording can happen on any number of threads and doesn't allocate or lock once a recorder exists for the message
+ * type or consumer. Lookups read a map that's never changed once published, the first lookup of a message type or
+ * consumer creates its recorder under a lock and publishes a copy of the map with it in. {@link #report(BiConsumer)}
+ * can be called from another thread, e.g. a {@link LatencyLogger} on a schedule, to take what was recorded since
+ * last time.
+ */
+public class LatencyHistograms {
+
+    public static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+    public static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final Int2ObjectHashMap<String> MESSAGE_NAMES = new Int2ObjectHashMap<>();
+
+    static {
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(BookUpdateEncoder.SCHEMA_ID, BookUpdateEncoder.TEMPLATE_ID), "BookUpdate");
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(BidBookUpdateEncoder.SCHEMA_ID, BidBookUpdateEncoder.TEMPLATE_ID), "BidBookUpdate");
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(AskBookUpdateEncoder.SCHEMA_ID, AskBookUpdateEncoder.TEMPLATE_ID), "AskBookUpdate");
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(BookDeltaEncoder.SCHEMA_ID, BookDeltaEncoder.TEMPLATE_ID), "BookDelta");
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(TradeEncoder.SCHEMA_ID, TradeEncoder.TEMPLATE_ID), "Trade");
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(CreateOrderEncoder.SCHEMA_ID, CreateOrderEncoder.TEMPLATE_ID), "CreateOrder");
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(BatchOrderCommandEncoder.SCHEMA_ID, BatchOrderCommandEncoder.TEMPLATE_ID), "BatchOrderCommand");
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(PendingOrderEncoder.SCHEMA_ID, PendingOrderEncoder.TEMPLATE_ID), "PendingOrder");
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(CancelOrderEncoder.SCHEMA_ID, CancelOrderEncoder.TEMPLATE_ID), "CancelOrder");
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(AmendOrderEncoder.SCHEMA_ID, AmendOrderEncoder.TEMPLATE_ID), "AmendOrder");
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(AckedOrderEncoder.SCHEMA_ID, AckedOrderEncoder.TEMPLATE_ID), "AckedOrder");
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(CancelAckedOrderEncoder.SCHEMA_ID, CancelAckedOrderEncoder.TEMPLATE_ID), "CancelAckedOrder");
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(PartialFillOrderEncoder.SCHEMA_ID, PartialFillOrderEncoder.TEMPLATE_ID), "PartialFillOrder");
+        MESSAGE_NAMES.put(SequencerComponent.messageKey(FillOrderEncoder.SCHEMA_ID, FillOrderEncoder.TEMPLATE_ID), "FillOrder");
+    }
+
+    //copied on write, so they can be read without a lock
+    private volatile Int2ObjectHashMap<Recorder> byMessage = new Int2ObjectHashMap<>();
+    private volatile Map<Consumer, Recorder> byConsumer = new IdentityHashMap<>();
+    private final Map<String, Recorder> byName = new HashMap<>();
+    private final List<Entry> entries = new CopyOnWriteArrayList<>();
+
+    public void recordMessage(final int messageKey, final long nanos){
+        forMessage(messageKey).recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+    }
+
+    public void recordConsumer(final Consumer consumer, final long nanos){
+        forConsumer(consumer).recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+    }
+
+    public Recorder forMessage(final int messageKey){
+        final Recorder recorder = byMessage.get(messageKey);
+        return recorder != null ? recorder : addMessage(messageKey);
+    }
+
+    public Recorder forConsumer(final Consumer consumer){
+        final Recorder recorder = byConsumer.get(consumer);
+        return recorder != null ? recorder : addConsumer(consumer);
+    }
+
+    private synchronized Recorder addMessage(final int messageKey){
+        Recorder recorder = byMessage.get(messageKey);
+        if(recorder == null){
+            recorder = newRecorder("message " + messageName(messageKey));
+            final Int2ObjectHashMap<Recorder> copy = new Int2ObjectHashMap<>();
+            copy.putAll(byMessage);
+            copy.put(messageKey, recorder);
+            byMessage = copy;
+        }
+        return recorder;
+    }
+
+    private synchronized Recorder addConsumer(final Consumer consumer){
+        Recorder recorder = byConsumer.get(consumer);
+        if(recorder == null){
+            recorder = newRecorder("consumer " + consumer.getClass().getSimpleName());
+            final Map<Consumer, Recorder> copy = new IdentityHashMap<>(byConsumer);
+            copy.put(consumer, recorder);
+            byConsumer = copy;
+        }
+        return recorder;
+    }
+
+    /**
+     * A recorder reported under the name, for anything timed that isn't a message type or a consumer. Look it up once
+     * and keep it, the lookup isn't free.
+     */
+    public synchronized Recorder forName(final String name){
+        Recorder recorder = byName.get(name);
+        if(recorder == null){
+            recorder = newRecorder(name);
+            byName.put(name, recorder);
+        }
+        return recorder;
+    }
+
+    /**
+     * Hands over what each recorder has recorded since the last report, skipping those that recorded nothing. The
+     * histogram is reused by the next report, so it must be read before the reporter returns.
+     */
+    public void report(final BiConsumer<String, Histogram> reporter){
+        for (Entry entry : entries) {
+            entry.interval = entry.recorder.getIntervalHistogram(entry.interval);
+            if(entry.interval.getTotalCount() > 0){
+                reporter.accept(entry.name, entry.interval);
+            }
+        }
+    }
+
+    public static String messageName(final int messageKey){
+        final String name = MESSAGE_NAMES.get(messageKey);
+        return name != null ? name : "schema " + (messageKey >>> 16) + " template " + (messageKey & 0xFFFF);
+    }
+
+    private Recorder newRecorder(final String name){
+        final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        entries.add(new Entry(name, recorder));
+        return recorder;
+    }
+
+    private static final class Entry {
+
+        private final String name;
+        private final Recorder recorder;
+        private Histogram interval;
+
+        private Entry(final String name, final Recorder recorder) {
+            this.name = name;
+            this.recorder = recorder;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package codingblackfemales.sequencer.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs the percentiles, in microseconds, of what was recorded into {@link LatencyHistograms} since it last ran.
+ */
+public class LatencyLogger implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyLogger.class);
+
+    private final LatencyHistograms histograms;
+
+    public LatencyLogger(final LatencyHistograms histograms) {
+        this.histograms = histograms;
+    }
+
+    public ScheduledFuture<?> scheduleOn(final ScheduledExecutorService executor, final long period, final TimeUnit unit){
+        return executor.scheduleAtFixedRate(this, period, period, unit);
+    }
+
+    @Override
+    public void run() {
+        histograms.report(this::log);
+    }
+
+    private void log(final String name, final Histogram histogram){
+        logger.info(String.format("[LATENCY] %s count=%d p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                name,
+                histogram.getTotalCount(),
+                micros(histogram.getValueAtPercentile(50.0)),
+                micros(histogram.getValueAtPercentile(99.0)),
+                micros(histogram.getValueAtPercentile(99.9)),
+                micros(histogram.getMaxValue())));
+    }
+
+    private static double micros(final long nanos){
+        return nanos / 1000.0;
+    }
+}
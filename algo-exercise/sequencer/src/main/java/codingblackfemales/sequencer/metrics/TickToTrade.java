@@ -0,0 +1,94 @@
+package codingblackfemales.sequencer.metrics;
+
+import codingblackfemales.sequencer.net.Consumer;
+import messages.order.AmendOrderDecoder;
+import messages.order.BatchOrderCommandDecoder;
+import messages.order.CreateOrderDecoder;
+import messages.order.MessageHeaderDecoder;
+import org.HdrHistogram.Recorder;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+
+/**
+ * Records tick to trade, the time from a message reaching the sequencer to an order, batch of orders or amend it
+ * caused being sequenced, as "tick to trade" in the {@link LatencyHistograms}. A batch is one sample, however many
+ * orders are in it. Both times come from the message headers, so it's measured by the
+ * sequencer's clock wherever this consumer runs.
+ *
+ * The ingress timestamps of the last messages are kept in a ring indexed by sequencer number, an order caused by a
+ * message that has since left the ring isn't recorded. Doesn't allocate. Add it to the network ahead of the consumers
+ * that send orders, an order sequenced while its cause is still being dispatched would otherwise arrive first.
+ */
+public class TickToTrade implements Consumer {
+
+    public static final String NAME = "tick to trade";
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
+    private final BatchOrderCommandDecoder batchOrderCommandDecoder = new BatchOrderCommandDecoder();
+    private final AmendOrderDecoder amendOrderDecoder = new AmendOrderDecoder();
+
+    private final long[] sequencerNumbers;
+    private final long[] ingressTimestamps;
+    private final int mask;
+
+    private final Recorder recorder;
+    private long recordedCount = 0L;
+
+    public TickToTrade(final LatencyHistograms latencyHistograms) {
+        this(latencyHistograms, DEFAULT_CAPACITY);
+    }
+
+    public TickToTrade(final LatencyHistograms latencyHistograms, final int capacity) {
+        if(!BitUtil.isPowerOfTwo(capacity)){
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.sequencerNumbers = new long[capacity];
+        this.ingressTimestamps = new long[capacity];
+        this.mask = capacity - 1;
+        this.recorder = latencyHistograms.forName(NAME);
+    }
+
+    public long getRecordedCount() {
+        return recordedCount;
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        headerDecoder.wrap(buffer, 0);
+
+        final long sequencerNumber = headerDecoder.sequencerNumber();
+        final int slot = (int) (sequencerNumber & mask);
+        sequencerNumbers[slot] = sequencerNumber;
+        ingressTimestamps[slot] = headerDecoder.ingressTimestamp();
+
+        if(headerDecoder.schemaId() != CreateOrderDecoder.SCHEMA_ID){
+            return;
+        }
+
+        final int bodyOffset = headerDecoder.encodedLength();
+        final long cause;
+        switch (headerDecoder.templateId()){
+            case CreateOrderDecoder.TEMPLATE_ID:
+                cause = createOrderDecoder.wrap(buffer, bodyOffset, headerDecoder.blockLength(), headerDecoder.version()).causeSequencerNumber();
+                break;
+            case BatchOrderCommandDecoder.TEMPLATE_ID:
+                cause = batchOrderCommandDecoder.wrap(buffer, bodyOffset, headerDecoder.blockLength(), headerDecoder.version()).causeSequencerNumber();
+                break;
+            case AmendOrderDecoder.TEMPLATE_ID:
+                cause = amendOrderDecoder.wrap(buffer, bodyOffset, headerDecoder.blockLength(), headerDecoder.version()).causeSequencerNumber();
+                break;
+            default:
+                return;
+        }
+
+        final int causeSlot = (int) (cause & mask);
+
+        if(cause != 0L && sequencerNumbers[causeSlot] == cause){
+            final long nanos = headerDecoder.sequencingTimestamp() - ingressTimestamps[causeSlot];
+            recorder.recordValue(Math.max(0L, Math.min(nanos, LatencyHistograms.HIGHEST_TRACKABLE_NANOS)));
+            recordedCount++;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package codingblackfemales.sequencer.net;
+
+import io.aeron.Aeron;
+import io.aeron.Publication;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.IdleStrategy;
+
+/**
+ * The Aeron IPC streams that processes on the same box use to talk to the {@link codingblackfemales.sequencer.RealSequencer}.
+ *
+ * Commands go to the sequencer on {@link #COMMAND_STREAM_ID}, and every process subscribes to the sequenced messages
+ * on {@link #EVENT_STREAM_ID}. IPC streams live in shared memory under the media driver's directory, so nothing goes
+ * over a socket, but every process must connect to the same directory.
+ */
+public final class AeronIpc {
+
+    public static final String CHANNEL = "aeron:ipc";
+    public static final int COMMAND_STREAM_ID = 1001;
+    public static final int EVENT_STREAM_ID = 1002;
+
+    private AeronIpc() {
+    }
+
+    /**
+     * Runs the media driver inside this process, sharing a single thread as IPC needs no network conductor.
+     */
+    public static MediaDriver launchEmbeddedDriver(){
+        return MediaDriver.launchEmbedded(new MediaDriver.Context()
+                .threadingMode(ThreadingMode.SHARED)
+                .dirDeleteOnStart(true)
+                .dirDeleteOnShutdown(true));
+    }
+
+    public static Aeron connect(final String aeronDirectoryName){
+        return Aeron.connect(new Aeron.Context().aeronDirectoryName(aeronDirectoryName));
+    }
+
+    /**
+     * Offers the message, waiting out back pressure.
+     *
+     * @return false if nobody is subscribed, in which case the message went nowhere
+     */
+    public static boolean offer(final Publication publication, final DirectBuffer buffer, final int offset, final int length, final IdleStrategy idleStrategy){
+        idleStrategy.reset();
+
+        while(true){
+            final long result = publication.offer(buffer, offset, length);
+
+            if(result > 0){
+                return true;
+            }else if(result == Publication.NOT_CONNECTED){
+                return false;
+            }else if(result == Publication.CLOSED || result == Publication.MAX_POSITION_EXCEEDED){
+                throw new IllegalStateException("Can't offer to " + publication.channel() + " stream " + publication.streamId() + ", result=" + result);
+            }
+
+            //back pressured, or the driver is busy rotating the log
+            idleStrategy.idle();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Hashing;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The latest full book update per instrument for one {@link SlowConsumerPolicy#CONFLATE} consumer of a
+ * {@link MulticastNetwork}, written by the dispatching thread and read by the consumer's.
+ *
+ * Each instrument gets a slot the first time it is seen, up to the capacity given, all allocated up front. A slot is
+ * guarded by a version that is odd while it is being written, so the reader retries a copy torn by a write rather
+ * than the writer ever waiting. A pending flag says the slot has an update the reader hasn't had, and a count of
+ * updates tells the reader whether it needs to look at all.
+ */
+final class ConflatedBooks {
+
+    private static final int VERSION_OFFSET = 0;
+    private static final int PENDING_OFFSET = 8;
+    private static final int LENGTH_OFFSET = 12;
+    private static final int SLOT_HEADER_LENGTH = 16;
+
+    private static final long MISSING = -1L;
+
+    private static final int INSTRUMENT_ID_OFFSET = MessageHeaderDecoder.ENCODED_LENGTH + BookUpdateDecoder.instrumentIdEncodingOffset();
+
+    private final int capacity;
+    private final int slotLength;
+    private final UnsafeBuffer slots;
+
+    //only touched by the writer
+    private final Long2LongHashMap slotByInstrument;
+    private long conflatedCount = 0L;
+    private long overflowCount = 0L;
+
+    //written by the writer, read by the reader
+    private volatile int slotCount = 0;
+    private volatile long updates = 0L;
+
+    //only touched by the reader
+    private final long[] deliveredVersions;
+    private final UnsafeBuffer copy = new UnsafeBuffer(ByteBuffer.allocateDirect(DefaultSequencer.MAX_MESSAGE_LENGTH));
+    private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+    private long updatesSeen = 0L;
+
+    ConflatedBooks(final int capacity) {
+        this.capacity = capacity;
+        this.slotLength = BitUtil.align(SLOT_HEADER_LENGTH + DefaultSequencer.MAX_MESSAGE_LENGTH, BitUtil.CACHE_LINE_LENGTH);
+        this.slots = new UnsafeBuffer(ByteBuffer.allocateDirect(capacity * slotLength));
+        this.slotByInstrument = new Long2LongHashMap(capacity * 2, Hashing.DEFAULT_LOAD_FACTOR, MISSING);
+        this.deliveredVersions = new long[capacity];
+    }
+
+    /**
+     * Called on the dispatching thread with a BookUpdate.
+     */
+    void offer(final DirectBuffer buffer, final int offset, final int length) {
+        final long instrumentId = buffer.getLong(offset + INSTRUMENT_ID_OFFSET, ByteOrder.LITTLE_ENDIAN);
+
+        long slotIndex = slotByInstrument.get(instrumentId);
+        if(slotIndex == MISSING){
+            if(slotCount == capacity){
+                overflowCount++;
+                return;
+            }
+            slotIndex = slotCount;
+            slotByInstrument.put(instrumentId, slotIndex);
+            slotCount = (int) slotIndex + 1;
+        }
+
+        final int slot = (int) slotIndex * slotLength;
+        final long version = slots.getLong(slot + VERSION_OFFSET);
+
+        slots.putLongOrdered(slot + VERSION_OFFSET, version + 1);
+        //nothing of the new book may land before the slot is marked as being written
+        VarHandle.storeStoreFence();
+        slots.putInt(slot + LENGTH_OFFSET, length);
+        slots.putBytes(slot + SLOT_HEADER_LENGTH, buffer, offset, length);
+        slots.putLongOrdered(slot + VERSION_OFFSET, version + 2);
+
+        if(slots.getIntVolatile(slot + PENDING_OFFSET) == 1){
+            conflatedCount++;
+        }else{
+            slots.putIntOrdered(slot + PENDING_OFFSET, 1);
+        }
+        updates = updates + 1;
+    }
+
+    /**
+     * Called on the consumer's thread, hands it every book it hasn't had yet.
+     *
+     * @return how many books it was given
+     */
+    int drain(final Consumer consumer) {
+        final long latest = updates;
+        if(latest == updatesSeen){
+            return 0;
+        }
+        updatesSeen = latest;
+
+        int delivered = 0;
+        final int count = slotCount;
+        for (int i = 0; i < count; i++) {
+            final int slot = i * slotLength;
+            if(slots.getIntVolatile(slot + PENDING_OFFSET) == 0){
+                continue;
+            }
+            //cleared before we copy, so a book written from here on is pending again
+            slots.putIntVolatile(slot + PENDING_OFFSET, 0);
+
+            long version;
+            int length;
+            while(true){
+                version = slots.getLongVolatile(slot + VERSION_OFFSET);
+                if((version & 1) == 1){
+                    Thread.onSpinWait();
+                    continue;
+                }
+                length = slots.getInt(slot + LENGTH_OFFSET);
+                copy.putBytes(0, slots, slot + SLOT_HEADER_LENGTH, Math.min(length, DefaultSequencer.MAX_MESSAGE_LENGTH));
+                //the copy must be done before we look again
+                VarHandle.loadLoadFence();
+                if(slots.getLongVolatile(slot + VERSION_OFFSET) == version){
+                    break;
+                }
+            }
+
+            //a write that raced the flag may have left it pending with what we just copied
+            if(version == deliveredVersions[i]){
+                continue;
+            }
+            deliveredVersions[i] = version;
+
+            message.wrap(copy, 0, length);
+            consumer.onMessage(message, 0, length);
+            delivered++;
+        }
+        return delivered;
+    }
+
+    /**
+     * How many books were replaced before the consumer had them.
+     */
+    long getConflatedCount() {
+        return conflatedCount;
+    }
+
+    /**
+     * How many books were for instruments beyond the capacity, and never reached the consumer.
+     */
+    long getOverflowCount() {
+        return overflowCount;
+    }
+}
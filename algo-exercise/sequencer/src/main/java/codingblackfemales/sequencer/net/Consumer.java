@@ -1,7 +1,34 @@
 package codingblackfemales.sequencer.net;
 
+import codingblackfemales.sequencer.util.BufferViews;
 import org.agrona.DirectBuffer;
 
 public interface Consumer {
+    /**
+     * The buffer belongs to the sequencer and is only valid until this method returns; copy anything you need to keep.
+     */
     public void onMessage(final DirectBuffer buffer);
+
+    /**
+     * What the networks call, with the length of the message so that a consumer copying it, e.g. to a journal, only
+     * copies what's in use. Messages from the sequencer are always at offset 0.
+     */
+    public default void onMessage(final DirectBuffer buffer, final int offset, final int length) {
+        if(offset == 0){
+            onMessage(buffer);
+            return;
+        }
+
+        try {
+            onMessage(BufferViews.wrap(buffer, offset, length));
+        } finally {
+            BufferViews.release();
+        }
+    }
+
+    /**
+     * Called once the sequencer has nothing left to dispatch, so the messages since the last call are a settled batch.
+     */
+    public default void onBatchEnd() {
+    }
 }
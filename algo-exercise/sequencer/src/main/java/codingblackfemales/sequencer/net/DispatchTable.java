@@ -0,0 +1,84 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.SequencerComponent;
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.IntHashSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Works out up front which consumers want which messages, so the network reads the header once per message and
+ * only calls the consumers that declared an interest in it. Consumers that aren't a {@link SequencerComponent},
+ * or that didn't declare anything, get every message.
+ */
+class DispatchTable {
+
+    private static final Consumer[] NO_CONSUMERS = new Consumer[0];
+
+    //the header layout is shared by every schema, so the marketdata decoder reads them all
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+
+    private final List<Consumer> consumers = new ArrayList<>();
+    private final Int2ObjectHashMap<Consumer[]> consumersByMessage = new Int2ObjectHashMap<>();
+    private Consumer[] wildcardConsumers = NO_CONSUMERS;
+    private Consumer[] allConsumers = NO_CONSUMERS;
+
+    void add(final Consumer consumer){
+        consumers.add(consumer);
+        rebuild();
+    }
+
+    int messageKey(final DirectBuffer buffer, final int offset){
+        headerDecoder.wrap(buffer, offset);
+        return SequencerComponent.messageKey(headerDecoder.schemaId(), headerDecoder.templateId());
+    }
+
+    Consumer[] allConsumers(){
+        return allConsumers;
+    }
+
+    Consumer[] consumersFor(final int messageKey){
+        final Consumer[] interested = consumersByMessage.get(messageKey);
+        return interested != null ? interested : wildcardConsumers;
+    }
+
+    static IntHashSet requiredMessages(final Consumer consumer){
+        final IntHashSet required = new IntHashSet();
+        if(consumer instanceof SequencerComponent){
+            for (int key : ((SequencerComponent) consumer).requiredMessages()) {
+                required.add(key);
+            }
+        }
+        return required;
+    }
+
+    private void rebuild(){
+        final IntHashSet allMessages = new IntHashSet();
+        for (Consumer consumer : consumers) {
+            allMessages.addAll(requiredMessages(consumer));
+        }
+
+        consumersByMessage.clear();
+        for (int key : allMessages) {
+            consumersByMessage.put(key, interestedIn(key));
+        }
+
+        wildcardConsumers = interestedIn(null);
+        allConsumers = consumers.toArray(NO_CONSUMERS);
+    }
+
+    //keeps registration order, so consumers still see a message in the order they were added
+    private Consumer[] interestedIn(final Integer messageKey){
+        final List<Consumer> interested = new ArrayList<>();
+        for (Consumer consumer : consumers) {
+            final IntHashSet required = requiredMessages(consumer);
+            if(required.isEmpty() || (messageKey != null && required.contains(messageKey))){
+                interested.add(consumer);
+            }
+        }
+        return interested.toArray(NO_CONSUMERS);
+    }
+}
@@ -0,0 +1,434 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.SequencerComponent;
+import codingblackfemales.sequencer.metrics.LatencyHistograms;
+import codingblackfemales.sequencer.util.MessageLength;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import org.HdrHistogram.Recorder;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.collections.IntHashSet;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A network that multicasts each message to its consumers through a shared ring, in the style of the disruptor.
+ *
+ * Every consumer runs on its own thread with its own cursor into the ring, so a slow consumer doesn't hold up the
+ * others until the ring is full. The dispatching thread never overwrites a slot that any consumer has still to read.
+ *
+ * A consumer can be added with dependencies on consumers added before it. It only sees a message after all of its
+ * dependencies have finished with it, and its dependencies don't move on to the next message until it has finished,
+ * so state they share with it doesn't change underneath it. For example the AlgoContainer depends on the
+ * MarketDataService and OrderService, and evaluates against exactly the state they built from the message it sees.
+ *
+ * Consumers that declared the messages they require, see {@link codingblackfemales.sequencer.SequencerComponent}, skip
+ * the rest without being called.
+ *
+ * Each consumer has a {@link SlowConsumerPolicy}. Only those that BLOCK hold up the ring; a consumer that DROPs or
+ * CONFLATEs reads behind the others without anyone waiting for it, e.g. a UI or a log, so it can't hold up the
+ * consumers that matter. A CONFLATE consumer only ever gets full books, never the deltas between them, as a delta
+ * applied to a book it skipped, or after a newer one, would leave it with a wrong book.
+ * Those consumers can't depend on, or be depended on by, any other. How far behind each consumer
+ * is, and what it has missed, can be read from any thread.
+ *
+ * Messages must be dispatched from a single thread, e.g. the thread draining a {@link codingblackfemales.sequencer.RingBufferSequencer}.
+ */
+public class MulticastNetwork implements Network, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MulticastNetwork.class);
+
+    public static final int DEFAULT_RING_SIZE = 1024;
+    public static final int DEFAULT_CONFLATED_INSTRUMENTS = 1024;
+
+    private static final int BOOK_UPDATE_KEY = SequencerComponent.messageKey(BookUpdateDecoder.SCHEMA_ID, BookUpdateDecoder.TEMPLATE_ID);
+    private static final int BOOK_DELTA_KEY = SequencerComponent.messageKey(BookDeltaDecoder.SCHEMA_ID, BookDeltaDecoder.TEMPLATE_ID);
+
+    private final UnsafeBuffer[] slots;
+    private final int[] slotMessageKeys;
+    private final int[] slotLengths;
+    private final boolean[] slotIsBatchEnd;
+    private final int mask;
+    private final Supplier<IdleStrategy> idleStrategySupplier;
+    private final DispatchTable dispatchTable = new DispatchTable();
+
+    private final Cursor published = new Cursor(-1);
+    //ahead of published while a slot is being written, so consumers that don't gate can tell they've been lapped
+    private final Cursor claimed = new Cursor(-1);
+    private final List<Handler> handlers = new ArrayList<>();
+    private Handler[] allHandlers = new Handler[0];
+    private Handler[] gatingHandlers = new Handler[0];
+    private ConflatedBooks[] conflatedBooks = new ConflatedBooks[0];
+
+    private long nextSequence = 0;
+    private long cachedGatingSequence = -1;
+
+    private volatile boolean running = false;
+
+    private LatencyHistograms latencyHistograms;
+
+    public MulticastNetwork() {
+        this(DEFAULT_RING_SIZE, BackoffIdleStrategy::new);
+    }
+
+    public MulticastNetwork(final int ringSize, final Supplier<IdleStrategy> idleStrategySupplier) {
+        if(!BitUtil.isPowerOfTwo(ringSize)){
+            throw new IllegalArgumentException("ringSize must be a power of two: " + ringSize);
+        }
+
+        this.slots = new UnsafeBuffer[ringSize];
+        this.slotMessageKeys = new int[ringSize];
+        this.slotLengths = new int[ringSize];
+        this.slotIsBatchEnd = new boolean[ringSize];
+        this.mask = ringSize - 1;
+        this.idleStrategySupplier = idleStrategySupplier;
+
+        final ByteBuffer slab = ByteBuffer.allocateDirect(ringSize * DefaultSequencer.MAX_MESSAGE_LENGTH);
+        for (int i = 0; i < ringSize; i++) {
+            slots[i] = new UnsafeBuffer(slab, i * DefaultSequencer.MAX_MESSAGE_LENGTH, DefaultSequencer.MAX_MESSAGE_LENGTH);
+        }
+    }
+
+    /**
+     * Records the time each consumer spends in onMessage, on its own thread. Must be set before the network is started.
+     */
+    public void setLatencyHistograms(final LatencyHistograms latencyHistograms) {
+        this.latencyHistograms = latencyHistograms;
+    }
+
+    public void addConsumer(final Consumer consumer, final Consumer... dependencies){
+        addConsumer(consumer, SlowConsumerPolicy.BLOCK, dependencies);
+    }
+
+    public void addConsumer(final Consumer consumer, final SlowConsumerPolicy policy, final Consumer... dependencies){
+        if(running){
+            throw new IllegalStateException("Consumers must be added before the network is started");
+        }
+        if(policy != SlowConsumerPolicy.BLOCK && dependencies.length > 0){
+            throw new IllegalArgumentException("A consumer that doesn't block can't have dependencies, it may miss what they saw: " + consumer);
+        }
+
+        final Handler handler = new Handler(consumer, policy, idleStrategySupplier.get());
+
+        for (Consumer dependency : dependencies) {
+            final Handler upstream = handlerFor(dependency);
+            if(upstream.policy != SlowConsumerPolicy.BLOCK){
+                throw new IllegalArgumentException("Can't depend on a consumer that doesn't block: " + dependency);
+            }
+            handler.dependencies.add(upstream);
+            upstream.dependents.add(handler);
+        }
+
+        handlers.add(handler);
+    }
+
+    private Handler handlerFor(final Consumer consumer){
+        for (Handler handler : handlers) {
+            if(handler.consumer == consumer){
+                return handler;
+            }
+        }
+        throw new IllegalArgumentException("Dependency must be added to the network first: " + consumer);
+    }
+
+    public void start(){
+        if(running){
+            return;
+        }
+
+        running = true;
+        allHandlers = handlers.toArray(new Handler[0]);
+        gatingHandlers = handlers.stream().filter(handler -> handler.policy == SlowConsumerPolicy.BLOCK).toArray(Handler[]::new);
+        conflatedBooks = handlers.stream().filter(handler -> handler.books != null).map(handler -> handler.books).toArray(ConflatedBooks[]::new);
+
+        for (Handler handler : allHandlers) {
+            handler.freeze();
+            if(latencyHistograms != null){
+                handler.latency = latencyHistograms.forConsumer(handler.consumer);
+            }
+            handler.thread = new Thread(handler, "network-" + handler.consumer.getClass().getSimpleName());
+            handler.thread.setDaemon(true);
+            handler.thread.start();
+        }
+    }
+
+    @Override
+    public void dispatch(final DirectBuffer buffer) {
+        dispatch(buffer, 0, MessageLength.of(buffer, 0));
+    }
+
+    @Override
+    public void dispatch(final DirectBuffer buffer, final int offset, final int length) {
+        final long sequence = claim();
+
+        final int index = (int) (sequence & mask);
+        slots[index].putBytes(0, buffer, offset, length);
+        slotLengths[index] = length;
+        slotMessageKeys[index] = dispatchTable.messageKey(buffer, offset);
+        slotIsBatchEnd[index] = false;
+        published.set(sequence);
+
+        if(conflatedBooks.length > 0 && slotMessageKeys[index] == BOOK_UPDATE_KEY){
+            for (ConflatedBooks books : conflatedBooks) {
+                books.offer(buffer, offset, length);
+            }
+        }
+    }
+
+    //the batch end takes a slot of its own, so every consumer sees it after the messages of the batch
+    @Override
+    public void onBatchEnd() {
+        final long sequence = claim();
+
+        slotIsBatchEnd[(int) (sequence & mask)] = true;
+        published.set(sequence);
+    }
+
+    private long claim(){
+        final long sequence = nextSequence++;
+        final long wrapPoint = sequence - slots.length;
+
+        //don't overwrite a slot until every consumer has read it
+        if(wrapPoint > cachedGatingSequence){
+            long gatingSequence;
+            while(wrapPoint > (gatingSequence = minimumConsumerSequence())){
+                Thread.onSpinWait();
+            }
+            cachedGatingSequence = gatingSequence;
+        }
+
+        claimed.set(sequence);
+        //nothing may land in the slot before the claim can be seen
+        VarHandle.storeStoreFence();
+
+        return sequence;
+    }
+
+    private long minimumConsumerSequence(){
+        long minimum = Long.MAX_VALUE;
+        for (Handler handler : gatingHandlers) {
+            minimum = Math.min(minimum, handler.cursor.get());
+        }
+        return minimum == Long.MAX_VALUE ? published.get() : minimum;
+    }
+
+    /**
+     * How many messages the consumer has still to get to, up to the last one dispatched.
+     */
+    public long getLag(final Consumer consumer) {
+        return published.get() - handlerFor(consumer).cursor.get();
+    }
+
+    /**
+     * How many messages a consumer that doesn't block was lapped on and never saw.
+     */
+    public long getDroppedCount(final Consumer consumer) {
+        return handlerFor(consumer).droppedCount;
+    }
+
+    /**
+     * How many book updates were replaced by a later one before a conflating consumer got to them.
+     */
+    public long getConflatedCount(final Consumer consumer) {
+        final ConflatedBooks books = handlerFor(consumer).books;
+        return books == null ? 0L : books.getConflatedCount();
+    }
+
+    /**
+     * Stops accepting work once every consumer has caught up with what has been dispatched so far.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        for (Handler handler : allHandlers) {
+            handler.thread.join();
+        }
+    }
+
+    private final class Handler implements Runnable {
+
+        private final Consumer consumer;
+        private final SlowConsumerPolicy policy;
+        private final IdleStrategy idleStrategy;
+        private final Cursor cursor = new Cursor(-1);
+        private final IntHashSet requiredMessages;
+
+        //only for consumers that don't block, which copy each message out before checking they weren't lapped on it
+        private final ConflatedBooks books;
+        private final UnsafeBuffer copy;
+        private final Consumer conflatedBookHandler = this::onConflatedBook;
+        private volatile long droppedCount = 0L;
+
+        private final List<Handler> dependencies = new ArrayList<>();
+        private final List<Handler> dependents = new ArrayList<>();
+        private Cursor[] upstream;
+        private Cursor[] downstream;
+
+        private Thread thread;
+        private Recorder latency;
+
+        private Handler(final Consumer consumer, final SlowConsumerPolicy policy, final IdleStrategy idleStrategy) {
+            this.consumer = consumer;
+            this.policy = policy;
+            this.idleStrategy = idleStrategy;
+            this.requiredMessages = DispatchTable.requiredMessages(consumer);
+            this.books = policy == SlowConsumerPolicy.CONFLATE ? new ConflatedBooks(DEFAULT_CONFLATED_INSTRUMENTS) : null;
+            this.copy = policy == SlowConsumerPolicy.BLOCK ? null : new UnsafeBuffer(ByteBuffer.allocateDirect(DefaultSequencer.MAX_MESSAGE_LENGTH));
+        }
+
+        private boolean wants(final int messageKey){
+            return requiredMessages.isEmpty() || requiredMessages.contains(messageKey);
+        }
+
+        private void freeze(){
+            upstream = dependencies.stream().map(handler -> handler.cursor).toArray(Cursor[]::new);
+            downstream = dependents.stream().map(handler -> handler.cursor).toArray(Cursor[]::new);
+        }
+
+        private long availableSequence(){
+            long available = published.get();
+
+            for (Cursor dependency : upstream) {
+                available = Math.min(available, dependency.get());
+            }
+
+            //we can't move past a message our dependents are still reading our state for
+            for (Cursor dependent : downstream) {
+                available = Math.min(available, dependent.get() + 1);
+            }
+
+            return available;
+        }
+
+        @Override
+        public void run() {
+            if(policy == SlowConsumerPolicy.BLOCK){
+                runGating();
+            }else{
+                runBehind();
+            }
+        }
+
+        private void runGating() {
+            long next = 0;
+
+            while(running || next <= published.get()){
+                final long available = availableSequence();
+
+                if(available < next){
+                    idleStrategy.idle();
+                    continue;
+                }
+
+                idleStrategy.reset();
+
+                while(next <= available){
+                    final int index = (int) (next & mask);
+                    try {
+                        if(slotIsBatchEnd[index]){
+                            consumer.onBatchEnd();
+                        }else if(wants(slotMessageKeys[index])){
+                            onMessage(slots[index], slotLengths[index]);
+                        }
+                    } catch (Throwable throwable) {
+                        logger.error("[NETWORK] Consumer " + consumer + " failed on message " + next, throwable);
+                    }
+                    cursor.set(next);
+                    next += 1;
+                }
+            }
+        }
+
+        private void runBehind() {
+            long next = 0;
+
+            while(running || next <= published.get()){
+                int work = drainBooks();
+
+                final long available = published.get();
+                while(next <= available){
+                    //anything a ring behind the latest claim may already have been overwritten
+                    final long oldest = claimed.get() - mask;
+                    if(next < oldest){
+                        droppedCount += oldest - next;
+                        next = oldest;
+                        continue;
+                    }
+
+                    final int index = (int) (next & mask);
+                    final boolean isBatchEnd = slotIsBatchEnd[index];
+                    final int messageKey = slotMessageKeys[index];
+                    final int length = slotLengths[index];
+                    copy.putBytes(0, slots[index], 0, Math.min(length, DefaultSequencer.MAX_MESSAGE_LENGTH));
+
+                    //the copy must be done before we check it wasn't overwritten while we took it
+                    VarHandle.loadLoadFence();
+                    if(next < claimed.get() - mask){
+                        continue;
+                    }
+
+                    try {
+                        if(isBatchEnd){
+                            drainBooks();
+                            consumer.onBatchEnd();
+                        }else if(wants(messageKey) && (books == null || (messageKey != BOOK_UPDATE_KEY && messageKey != BOOK_DELTA_KEY))){
+                            onMessage(copy, length);
+                        }
+                    } catch (Throwable throwable) {
+                        logger.error("[NETWORK] Consumer " + consumer + " failed on message " + next, throwable);
+                    }
+                    cursor.set(next);
+                    next += 1;
+                    work++;
+                }
+
+                if(work == 0){
+                    idleStrategy.idle();
+                }else{
+                    idleStrategy.reset();
+                }
+            }
+
+            drainBooks();
+        }
+
+        private int drainBooks(){
+            if(books == null){
+                return 0;
+            }
+            try {
+                return books.drain(conflatedBookHandler);
+            } catch (Throwable throwable) {
+                logger.error("[NETWORK] Consumer " + consumer + " failed on a conflated book", throwable);
+                return 1;
+            }
+        }
+
+        private void onConflatedBook(final DirectBuffer buffer){
+            if(wants(BOOK_UPDATE_KEY)){
+                onMessage(buffer, buffer.capacity());
+            }
+        }
+
+        private void onMessage(final DirectBuffer buffer, final int length){
+            if(latency == null){
+                consumer.onMessage(buffer, 0, length);
+            }else{
+                final long startNanos = System.nanoTime();
+                consumer.onMessage(buffer, 0, length);
+                latency.recordValue(Math.min(System.nanoTime() - startNanos, LatencyHistograms.HIGHEST_TRACKABLE_NANOS));
+            }
+        }
+    }
+}
@@ -1,7 +1,31 @@
 package codingblackfemales.sequencer.net;
 
+import codingblackfemales.sequencer.util.BufferViews;
 import org.agrona.DirectBuffer;
 
 public interface Network {
     public void dispatch(final DirectBuffer buffer);
+
+    /**
+     * Dispatches the message taking up length bytes of the buffer from offset, so the network only has to move those.
+     * The sequencer always dispatches its messages from offset 0.
+     */
+    public default void dispatch(final DirectBuffer buffer, final int offset, final int length) {
+        if(offset == 0){
+            dispatch(buffer);
+            return;
+        }
+
+        try {
+            dispatch(BufferViews.wrap(buffer, offset, length));
+        } finally {
+            BufferViews.release();
+        }
+    }
+
+    /**
+     * Tells every consumer, whatever messages it requires, that the current batch has been dispatched.
+     */
+    public default void onBatchEnd() {
+    }
 }
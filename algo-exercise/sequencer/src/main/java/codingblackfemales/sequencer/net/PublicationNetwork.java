@@ -0,0 +1,52 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.util.MessageLength;
+import io.aeron.Publication;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A network whose consumers live in other processes, each reading the publication through a {@link SubscriptionAgent}.
+ *
+ * A message dispatched while nobody is subscribed is dropped. A process that subscribes late joins at the live
+ * position, and must catch up on what it missed from the journal.
+ */
+public class PublicationNetwork implements Network {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicationNetwork.class);
+
+    private final Publication publication;
+    private final IdleStrategy idleStrategy;
+
+    private long unsubscribedMessages = 0L;
+
+    public PublicationNetwork(final Publication publication) {
+        this(publication, new BackoffIdleStrategy());
+    }
+
+    public PublicationNetwork(final Publication publication, final IdleStrategy idleStrategy) {
+        this.publication = publication;
+        this.idleStrategy = idleStrategy;
+    }
+
+    @Override
+    public void dispatch(final DirectBuffer buffer) {
+        dispatch(buffer, 0, MessageLength.of(buffer, 0));
+    }
+
+    @Override
+    public void dispatch(final DirectBuffer buffer, final int offset, final int length) {
+        if(!AeronIpc.offer(publication, buffer, offset, length, idleStrategy)){
+            if(unsubscribedMessages++ == 0){
+                logger.warn("[NETWORK] Nothing is subscribed to stream " + publication.streamId() + ", dropping messages until something is");
+            }
+        }
+    }
+
+    public long getUnsubscribedMessages() {
+        return unsubscribedMessages;
+    }
+}
@@ -0,0 +1,102 @@
+package codingblackfemales.sequencer.net;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+
+/**
+ * The last capacity messages the sequencer dispatched, so a consumer that missed some can have them again from here
+ * rather than resyncing from scratch, see {@link codingblackfemales.sequencer.consumer.GapDetectingConsumer}.
+ *
+ * Everything is allocated up front: a slot per message, each big enough for the largest message, with the sequencer
+ * number it holds alongside. Only the sequencer's thread records, but any thread can read. A slot's sequencer number is
+ * cleared while it is being overwritten and only set once the message is in, so a reader that finds the same number
+ * before and after copying the message knows it copied the whole of it. Readers never hold up the sequencer.
+ */
+public class RetransmitCache {
+
+    private static final int SEQUENCER_NUMBER_OFFSET = 0;
+    private static final int LENGTH_OFFSET = 8;
+    private static final int SLOT_HEADER_LENGTH = 16;
+
+    private static final long EMPTY = 0L;
+
+    private final int capacity;
+    private final int mask;
+    private final int maxMessageLength;
+    private final int slotLength;
+    private final UnsafeBuffer slots;
+
+    public RetransmitCache(final int capacity, final int maxMessageLength) {
+        if(!BitUtil.isPowerOfTwo(capacity)){
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.maxMessageLength = maxMessageLength;
+        this.slotLength = BitUtil.align(SLOT_HEADER_LENGTH + maxMessageLength, BitUtil.CACHE_LINE_LENGTH);
+        this.slots = new UnsafeBuffer(ByteBuffer.allocateDirect(capacity * slotLength));
+    }
+
+    /**
+     * Called on the sequencer's thread once the message has been stamped with its sequencer number.
+     */
+    public void record(final long sequencerNumber, final DirectBuffer buffer, final int offset, final int length) {
+        if(length > maxMessageLength){
+            throw new IllegalArgumentException("Message of length " + length + " is longer than " + maxMessageLength);
+        }
+
+        final int slot = slotOffset(sequencerNumber);
+
+        slots.putLongOrdered(slot + SEQUENCER_NUMBER_OFFSET, EMPTY);
+        //nothing of the new message may land before the slot has been marked as being overwritten
+        VarHandle.storeStoreFence();
+
+        slots.putInt(slot + LENGTH_OFFSET, length);
+        slots.putBytes(slot + SLOT_HEADER_LENGTH, buffer, offset, length);
+
+        slots.putLongOrdered(slot + SEQUENCER_NUMBER_OFFSET, sequencerNumber);
+    }
+
+    /**
+     * Copies the message with the sequencer number into the buffer at offset 0.
+     *
+     * @return the length of the message, or -1 if it isn't held, either because it has not been recorded yet or because
+     * it has been overwritten by one capacity messages later.
+     */
+    public int read(final long sequencerNumber, final MutableDirectBuffer buffer) {
+        final int slot = slotOffset(sequencerNumber);
+
+        if(slots.getLongVolatile(slot + SEQUENCER_NUMBER_OFFSET) != sequencerNumber){
+            return -1;
+        }
+
+        final int length = slots.getInt(slot + LENGTH_OFFSET);
+        if(length < 0 || length > maxMessageLength){
+            //torn by a write under way, the check below would fail anyway
+            return -1;
+        }
+        buffer.putBytes(0, slots, slot + SLOT_HEADER_LENGTH, length);
+
+        //the copy must be done before we look again
+        VarHandle.loadLoadFence();
+
+        return slots.getLongVolatile(slot + SEQUENCER_NUMBER_OFFSET) == sequencerNumber ? length : -1;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int maxMessageLength() {
+        return maxMessageLength;
+    }
+
+    private int slotOffset(final long sequencerNumber) {
+        return (int) (sequencerNumber & mask) * slotLength;
+    }
+}
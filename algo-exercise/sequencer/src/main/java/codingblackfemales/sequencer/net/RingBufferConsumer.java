@@ -0,0 +1,118 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.util.MessageLength;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Moves consumers off the sequencer's thread and onto one of their own.
+ *
+ * Added to the sequencer's network like any consumer, it copies each message into a one-to-one ring buffer. The thread
+ * running this {@link Agent} drains the ring and dispatches to a network of its own, so the consumers added to that
+ * network, e.g. an algo container and the services it reads, all run on that thread and see the messages in sequence.
+ *
+ * Everything drained between the ring being found non-empty and it being found empty again is one batch. When the ring
+ * is full the sequencer's thread waits for space rather than lose a message. Whatever is left in the ring when the
+ * agent is closed is dispatched on the way out.
+ */
+public class RingBufferConsumer implements Consumer, Agent {
+
+    public static final int DEFAULT_CAPACITY = 1024 * 1024;
+    public static final int DEFAULT_DRAIN_LIMIT = 256;
+
+    private static final int MESSAGE_MSG_TYPE_ID = 1;
+
+    private final String roleName;
+    private final Network network;
+    private final OneToOneRingBuffer ringBuffer;
+    private final int drainLimit;
+
+    private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+    private final MessageHandler messageHandler = this::onQueuedMessage;
+
+    private boolean inBatch = false;
+    //written by the sequencer's thread, read by anyone
+    private volatile long ringFullCount = 0L;
+
+    public RingBufferConsumer(final String roleName, final Network network) {
+        this(roleName, network, DEFAULT_CAPACITY, DEFAULT_DRAIN_LIMIT);
+    }
+
+    public RingBufferConsumer(final String roleName, final Network network, final int capacity, final int drainLimit) {
+        this.roleName = roleName;
+        this.network = network;
+        this.drainLimit = drainLimit;
+        this.ringBuffer = new OneToOneRingBuffer(
+                new UnsafeBuffer(ByteBuffer.allocateDirect(capacity + RingBufferDescriptor.TRAILER_LENGTH)));
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        onMessage(buffer, 0, MessageLength.of(buffer, 0));
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer, final int offset, final int length) {
+        if(!ringBuffer.write(MESSAGE_MSG_TYPE_ID, buffer, offset, length)){
+            ringFullCount = ringFullCount + 1;
+            do {
+                Thread.onSpinWait();
+            } while(!ringBuffer.write(MESSAGE_MSG_TYPE_ID, buffer, offset, length));
+        }
+    }
+
+    @Override
+    public int doWork() {
+        final int messages = ringBuffer.read(messageHandler, drainLimit);
+
+        if(messages > 0){
+            inBatch = true;
+        }
+
+        if(inBatch && ringBuffer.size() == 0){
+            inBatch = false;
+            network.onBatchEnd();
+        }
+
+        return messages;
+    }
+
+    /**
+     * Dispatches whatever is still in the ring, so nothing written before the agent was stopped is lost.
+     */
+    @Override
+    public void onClose() {
+        while(doWork() > 0){
+        }
+    }
+
+    @Override
+    public String roleName() {
+        return roleName;
+    }
+
+    public Network getNetwork() {
+        return network;
+    }
+
+    public int size() {
+        return ringBuffer.size();
+    }
+
+    public long getRingFullCount() {
+        return ringFullCount;
+    }
+
+    private void onQueuedMessage(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length) {
+        //at offset 0, so consumers that only take the buffer don't need to wrap their own view
+        message.wrap(buffer, index, length);
+        network.dispatch(message, 0, length);
+    }
+}
@@ -0,0 +1,22 @@
+package codingblackfemales.sequencer.net;
+
+/**
+ * What a {@link MulticastNetwork} does about a consumer that can't keep up.
+ */
+public enum SlowConsumerPolicy {
+    /**
+     * The network waits for the consumer before reusing a slot, so it sees every message, and everyone waits with it.
+     */
+    BLOCK,
+    /**
+     * The network never waits for the consumer. Messages it falls a whole ring behind on are lost to it and counted,
+     * see {@link codingblackfemales.sequencer.consumer.GapDetectingConsumer} to fill them in.
+     */
+    DROP,
+    /**
+     * As DROP, except full book updates are never lost: the consumer gets the latest one for each instrument, however
+     * many it was too slow for. They can come ahead of messages dispatched before them. Book deltas are never delivered,
+     * so the consumer's book is as of the last full update.
+     */
+    CONFLATE
+}
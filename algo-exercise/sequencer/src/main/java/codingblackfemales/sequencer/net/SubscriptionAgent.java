@@ -0,0 +1,70 @@
+package codingblackfemales.sequencer.net;
+
+import io.aeron.FragmentAssembler;
+import io.aeron.Subscription;
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Reads sequenced messages off a subscription and dispatches them to a {@link Network} in this process, so consumers
+ * in another process from the sequencer are added to a network here just as they would be next to it.
+ *
+ * The buffer a consumer is given is a view of the subscription's log, only valid until its onMessage returns.
+ * Everything read between the subscription being found with messages and it being found drained is one batch.
+ */
+public class SubscriptionAgent implements Agent {
+
+    public static final int DEFAULT_FRAGMENT_LIMIT = 256;
+
+    private final Subscription subscription;
+    private final Network network;
+    private final int fragmentLimit;
+
+    private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+    private final FragmentHandler fragmentHandler = new FragmentAssembler(this::onFragment);
+
+    private boolean inBatch = false;
+
+    public SubscriptionAgent(final Subscription subscription, final Network network) {
+        this(subscription, network, DEFAULT_FRAGMENT_LIMIT);
+    }
+
+    public SubscriptionAgent(final Subscription subscription, final Network network, final int fragmentLimit) {
+        this.subscription = subscription;
+        this.network = network;
+        this.fragmentLimit = fragmentLimit;
+    }
+
+    @Override
+    public int doWork() {
+        final int fragments = subscription.poll(fragmentHandler, fragmentLimit);
+
+        if(fragments > 0){
+            inBatch = true;
+        }
+
+        if(inBatch && fragments < fragmentLimit){
+            inBatch = false;
+            network.onBatchEnd();
+        }
+
+        return fragments;
+    }
+
+    @Override
+    public String roleName() {
+        return "subscriber-" + subscription.streamId();
+    }
+
+    public boolean isConnected() {
+        return subscription.isConnected();
+    }
+
+    private void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header) {
+        message.wrap(buffer, offset, length);
+        network.dispatch(message, 0, length);
+    }
+}
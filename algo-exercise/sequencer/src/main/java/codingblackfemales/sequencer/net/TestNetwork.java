@@ -1,23 +1,69 @@
 package codingblackfemales.sequencer.net;
 
+import codingblackfemales.sequencer.metrics.LatencyHistograms;
+import codingblackfemales.sequencer.util.MessageLength;
 import org.agrona.DirectBuffer;
 
-import java.util.LinkedList;
-import java.util.List;
+/**
+ * Dispatches on the calling thread. It's a {@link Consumer} too, so one network can feed another, batch ends included.
+ */
+public class TestNetwork implements Network, Consumer {
 
-public class TestNetwork implements Network{
+    private final DispatchTable dispatchTable = new DispatchTable();
 
-    private final List<Consumer> consumers = new LinkedList<>();
+    private LatencyHistograms latencyHistograms;
 
     @Override
     public void dispatch(DirectBuffer buffer){
-        for (Consumer consumer: consumers) {
-            consumer.onMessage(buffer);
+        dispatch(buffer, 0, MessageLength.of(buffer, 0));
+    }
+
+    /**
+     * Consumers that are {@link codingblackfemales.sequencer.SequencerComponent}s only get the messages they required
+     * before being added, everyone else gets every message.
+     */
+    @Override
+    public void dispatch(final DirectBuffer buffer, final int offset, final int length){
+        for (Consumer consumer: dispatchTable.consumersFor(dispatchTable.messageKey(buffer, offset))) {
+            if(latencyHistograms == null){
+                consumer.onMessage(buffer, offset, length);
+            }else{
+                final long startNanos = System.nanoTime();
+                consumer.onMessage(buffer, offset, length);
+                latencyHistograms.recordConsumer(consumer, System.nanoTime() - startNanos);
+            }
         }
     }
 
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        dispatch(buffer);
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer, final int offset, final int length) {
+        dispatch(buffer, offset, length);
+    }
+
+    /**
+     * Every consumer is told, whatever messages it required.
+     */
+    @Override
+    public void onBatchEnd() {
+        for (Consumer consumer: dispatchTable.allConsumers()) {
+            consumer.onBatchEnd();
+        }
+    }
+
+    /**
+     * Records the time each consumer spends in onMessage, including anything dispatched in reaction on the way.
+     */
+    public void setLatencyHistograms(final LatencyHistograms latencyHistograms) {
+        this.latencyHistograms = latencyHistograms;
+    }
+
     public void addConsumer(Consumer consumer){
-        consumers.add(consumer);
+        dispatchTable.add(consumer);
     }
 
 }
@@ -0,0 +1,98 @@
+package codingblackfemales.sequencer.runtime;
+
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Runs each {@link Agent} added to it on a thread of its own, named after the agent's role.
+ *
+ * How each thread idles and which CPU it runs on come from config rather than code, so a deployment can trade CPU
+ * for latency without a rebuild:
+ *
+ *   cbf.agent.idle=backoff            how every agent idles unless told otherwise: busy-spin, yield, backoff or sleep
+ *   cbf.agent.[role].idle=busy-spin   how the agent with that role idles
+ *   cbf.agent.[role].cpu=3            pin the agent with that role to cpu 3, see {@link CpuAffinity}
+ */
+public class AgentRuntime implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgentRuntime.class);
+
+    public static final String PROPERTY_PREFIX = "cbf.agent.";
+    public static final IdleStrategyType DEFAULT_IDLE_STRATEGY = IdleStrategyType.BACKOFF;
+    public static final int NO_CPU = -1;
+
+    private final Properties config;
+    private final List<AgentRunner> runners = new ArrayList<>();
+    private boolean started = false;
+
+    public AgentRuntime() {
+        this(System.getProperties());
+    }
+
+    public AgentRuntime(final Properties config) {
+        this.config = config;
+    }
+
+    public AgentRuntime add(final Agent agent){
+        if(started){
+            throw new IllegalStateException("Can't add " + agent.roleName() + ", the runtime has already started");
+        }
+
+        final String role = agent.roleName();
+        runners.add(new AgentRunner(idleStrategyFor(role).newIdleStrategy(),
+                throwable -> logger.error("[RUNTIME] Agent " + role + " failed", throwable), null, agent));
+        return this;
+    }
+
+    public void start(){
+        started = true;
+        for (AgentRunner runner : runners) {
+            final String role = runner.agent().roleName();
+            final int cpu = cpuFor(role);
+
+            logger.info("[RUNTIME] Starting " + role + " idle=" + idleStrategyFor(role) + (cpu == NO_CPU ? "" : " cpu=" + cpu));
+
+            AgentRunner.startOnThread(runner, runnable -> {
+                final Thread thread = new Thread(() -> {
+                    if(cpu != NO_CPU){
+                        CpuAffinity.pinCurrentThread(cpu);
+                    }
+                    runnable.run();
+                }, role);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public IdleStrategyType idleStrategyFor(final String role){
+        final String name = config.getProperty(PROPERTY_PREFIX + role + ".idle", config.getProperty(PROPERTY_PREFIX + "idle"));
+        return name == null ? DEFAULT_IDLE_STRATEGY : IdleStrategyType.parse(name);
+    }
+
+    public int cpuFor(final String role){
+        final String cpu = config.getProperty(PROPERTY_PREFIX + role + ".cpu");
+        return cpu == null ? NO_CPU : Integer.parseInt(cpu.trim());
+    }
+
+    /**
+     * Stops the agents in the order they were added, so add upstream agents before what they feed. An agent draining a
+     * queue, e.g. a {@link codingblackfemales.sequencer.RingBufferSequencer} or a
+     * {@link codingblackfemales.sequencer.net.RingBufferConsumer}, works through what's in it before its thread exits,
+     * so nothing sent to an agent before it stopped is lost. What is sent back upstream while draining, e.g. orders from
+     * an algo after the sequencer has stopped, is left queued and dropped.
+     */
+    @Override
+    public void close() {
+        for (AgentRunner runner : runners) {
+            CloseHelper.close(runner);
+        }
+    }
+}
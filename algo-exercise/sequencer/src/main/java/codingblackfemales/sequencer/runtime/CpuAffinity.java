@@ -0,0 +1,54 @@
+package codingblackfemales.sequencer.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pins the calling thread to a CPU.
+ *
+ * The JDK has no API for this, so on Linux we find the thread's native id through /proc/thread-self and hand it to
+ * taskset, which saves pulling in a native library for something most deployments do once per thread at start up.
+ * Anywhere that doesn't work the thread is left where the OS put it, with a warning, rather than failing to start.
+ */
+public final class CpuAffinity {
+
+    private static final Logger logger = LoggerFactory.getLogger(CpuAffinity.class);
+
+    private static final Path THREAD_SELF = Paths.get("/proc/thread-self");
+    private static final long TASKSET_TIMEOUT_SECONDS = 5L;
+
+    private CpuAffinity() {
+    }
+
+    public static boolean pinCurrentThread(final int cpu){
+        final String threadName = Thread.currentThread().getName();
+        try {
+            //resolves to /proc/<pid>/task/<tid>
+            final String tid = Files.readSymbolicLink(THREAD_SELF).getFileName().toString();
+
+            final Process taskset = new ProcessBuilder("taskset", "-p", "-c", Integer.toString(cpu), tid)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+
+            if(taskset.waitFor(TASKSET_TIMEOUT_SECONDS, TimeUnit.SECONDS) && taskset.exitValue() == 0){
+                logger.info("[RUNTIME] Pinned " + threadName + " to cpu " + cpu);
+                return true;
+            }
+
+            taskset.destroy();
+            logger.warn("[RUNTIME] taskset could not pin " + threadName + " to cpu " + cpu);
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("[RUNTIME] Can't pin " + threadName + " to cpu " + cpu + " here: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+}
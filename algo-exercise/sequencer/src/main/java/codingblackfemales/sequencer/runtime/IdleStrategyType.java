@@ -0,0 +1,47 @@
+package codingblackfemales.sequencer.runtime;
+
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.SleepingMillisIdleStrategy;
+import org.agrona.concurrent.YieldingIdleStrategy;
+
+import java.util.Locale;
+
+/**
+ * What an agent's thread does when a duty cycle finds no work, from lowest latency and a whole core to itself, down
+ * to highest latency and next to no CPU.
+ */
+public enum IdleStrategyType {
+    BUSY_SPIN,
+    YIELD,
+    BACKOFF,
+    SLEEP;
+
+    public static final long SLEEP_MILLIS = 1L;
+
+    public IdleStrategy newIdleStrategy(){
+        switch (this){
+            case BUSY_SPIN:
+                return new BusySpinIdleStrategy();
+            case YIELD:
+                return new YieldingIdleStrategy();
+            case SLEEP:
+                return new SleepingMillisIdleStrategy(SLEEP_MILLIS);
+            case BACKOFF:
+            default:
+                return new BackoffIdleStrategy();
+        }
+    }
+
+    /**
+     * Takes the names as they'd be written in config, e.g. "busy-spin", "busy_spin" or "BUSY_SPIN".
+     */
+    public static IdleStrategyType parse(final String name){
+        try {
+            return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown idle strategy: " + name + ", expected busy-spin, yield, backoff or sleep", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package codingblackfemales.sequencer.util;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Views of a message somewhere in a bigger buffer, at offset 0 for the callers that only take a buffer, without
+ * allocating one per message.
+ *
+ * They are kept per thread, one per level of nesting, since a message handed on in a view can cause another one to be
+ * handed on, e.g. a command raised while a message is dispatched. Every {@link #wrap} must be matched by a
+ * {@link #release()} once the view is no longer used.
+ */
+public final class BufferViews {
+
+    private static final ThreadLocal<BufferViews> VIEWS = ThreadLocal.withInitial(BufferViews::new);
+
+    private UnsafeBuffer[] views = new UnsafeBuffer[0];
+    private int depth = 0;
+
+    private BufferViews() {
+    }
+
+    public static DirectBuffer wrap(final DirectBuffer buffer, final int offset, final int length){
+        return VIEWS.get().next(buffer, offset, length);
+    }
+
+    public static void release(){
+        VIEWS.get().depth--;
+    }
+
+    private DirectBuffer next(final DirectBuffer buffer, final int offset, final int length){
+        if(depth == views.length){
+            views = Arrays.copyOf(views, views.length + 1);
+            views[depth] = new UnsafeBuffer(0, 0);
+        }
+
+        final UnsafeBuffer view = views[depth++];
+        view.wrap(buffer, offset, length);
+        return view;
+    }
+}
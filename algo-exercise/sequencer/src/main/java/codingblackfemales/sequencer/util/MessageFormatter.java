@@ -0,0 +1,109 @@
+package codingblackfemales.sequencer.util;
+
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MarketDataDispatcher;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.marketdata.TradeDecoder;
+import messages.order.*;
+import org.agrona.DirectBuffer;
+
+import static codingblackfemales.sequencer.util.MessageUtil.bookUpdateToString;
+
+/**
+ * Renders a sequenced message as the text the {@link codingblackfemales.sequencer.consumer.LoggingConsumer} logs,
+ * prefixed with its sequencer number. Not thread safe, as the decoders are reused.
+ */
+public class MessageFormatter implements MarketDataDispatcher.Handler, OrderDispatcher.Handler {
+
+    //the header layout is shared by every schema, so the marketdata decoder reads them all
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+
+    private final MarketDataDispatcher marketDataDispatcher = new MarketDataDispatcher(this);
+    private final OrderDispatcher orderDispatcher = new OrderDispatcher(this);
+
+    private String formatted;
+
+    public String format(final DirectBuffer buffer, final int offset){
+        headerDecoder.wrap(buffer, offset);
+        final String prefix = "[" + headerDecoder.sequencerNumber() + "] ";
+
+        if(marketDataDispatcher.dispatch(buffer, offset) || orderDispatcher.dispatch(buffer, offset)){
+            return prefix + formatted;
+        }
+
+        return prefix + "schema " + headerDecoder.schemaId() + " template " + headerDecoder.templateId();
+    }
+
+    @Override
+    public void onBookUpdate(final BookUpdateDecoder bookUpdate) {
+        formatted = "\n" + bookUpdateToString(bookUpdate);
+    }
+
+    @Override
+    public void onBidBookUpdate(final BidBookUpdateDecoder bidBookUpdate) {
+        formatted = bidBookUpdate.toString();
+    }
+
+    @Override
+    public void onAskBookUpdate(final AskBookUpdateDecoder askBookUpdate) {
+        formatted = askBookUpdate.toString();
+    }
+
+    @Override
+    public void onBookDelta(final BookDeltaDecoder bookDelta) {
+        formatted = bookDelta.toString();
+    }
+
+    @Override
+    public void onTrade(final TradeDecoder trade) {
+        formatted = trade.toString();
+    }
+
+    @Override
+    public void onCreateOrder(final CreateOrderDecoder createOrder) {
+        formatted = createOrder.toString();
+    }
+
+    @Override
+    public void onBatchOrderCommand(final BatchOrderCommandDecoder batchOrderCommand) {
+        formatted = batchOrderCommand.toString();
+    }
+
+    @Override
+    public void onPendingOrder(final PendingOrderDecoder pendingOrder) {
+        formatted = pendingOrder.toString();
+    }
+
+    @Override
+    public void onCancelOrder(final CancelOrderDecoder cancelOrder) {
+        formatted = cancelOrder.toString();
+    }
+
+    @Override
+    public void onAmendOrder(final AmendOrderDecoder amendOrder) {
+        formatted = amendOrder.toString();
+    }
+
+    @Override
+    public void onAckedOrder(final AckedOrderDecoder ackedOrder) {
+        formatted = ackedOrder.toString();
+    }
+
+    @Override
+    public void onCancelAckedOrder(final CancelAckedOrderDecoder cancelAckedOrder) {
+        formatted = cancelAckedOrder.toString();
+    }
+
+    @Override
+    public void onPartialFillOrder(final PartialFillOrderDecoder partialFillOrder) {
+        formatted = partialFillOrder.toString();
+    }
+
+    @Override
+    public void onFillOrder(final FillOrderDecoder fillOrder) {
+        formatted = fillOrder.toString();
+    }
+}
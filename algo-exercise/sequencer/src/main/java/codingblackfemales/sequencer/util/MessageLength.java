@@ -0,0 +1,88 @@
+package codingblackfemales.sequencer.util;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.marketdata.TradeDecoder;
+import messages.order.BatchOrderCommandDecoder;
+import org.agrona.DirectBuffer;
+
+/**
+ * Works out how many bytes of a buffer a message actually takes up, i.e. the header, the block and any repeating
+ * groups, so that copies move only those rather than the whole buffer.
+ *
+ * The market data messages and a batch of order commands have to be walked to skip their groups. None of the other order
+ * messages has a group, so they end with their block. A message from a schema we don't know is taken to fill the buffer, up to
+ * {@link DefaultSequencer#MAX_MESSAGE_LENGTH}.
+ *
+ * The decoders are kept per thread, so measuring doesn't allocate and can happen on any thread.
+ */
+public final class MessageLength {
+
+    private static final ThreadLocal<MessageLength> DECODERS = ThreadLocal.withInitial(MessageLength::new);
+
+    //the header layout is shared by every schema, so the marketdata decoder reads them all
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final BookUpdateDecoder bookUpdateDecoder = new BookUpdateDecoder();
+    private final BidBookUpdateDecoder bidBookUpdateDecoder = new BidBookUpdateDecoder();
+    private final AskBookUpdateDecoder askBookUpdateDecoder = new AskBookUpdateDecoder();
+    private final BookDeltaDecoder bookDeltaDecoder = new BookDeltaDecoder();
+    private final BatchOrderCommandDecoder batchOrderCommandDecoder = new BatchOrderCommandDecoder();
+
+    private MessageLength() {
+    }
+
+    public static int of(final DirectBuffer buffer, final int offset){
+        return DECODERS.get().measure(buffer, offset);
+    }
+
+    private int measure(final DirectBuffer buffer, final int offset){
+        final int available = Math.min(buffer.capacity() - offset, DefaultSequencer.MAX_MESSAGE_LENGTH);
+        if(available < MessageHeaderDecoder.ENCODED_LENGTH){
+            return available;
+        }
+
+        headerDecoder.wrap(buffer, offset);
+
+        final int headerLength = headerDecoder.encodedLength();
+        final int bodyOffset = offset + headerLength;
+        final int blockLength = headerDecoder.blockLength();
+        final int version = headerDecoder.version();
+
+        final int length;
+        if(headerDecoder.schemaId() == BookUpdateDecoder.SCHEMA_ID){
+            switch (headerDecoder.templateId()){
+                case BookUpdateDecoder.TEMPLATE_ID:
+                    length = headerLength + bookUpdateDecoder.wrap(buffer, bodyOffset, blockLength, version).sbeDecodedLength();
+                    break;
+                case BidBookUpdateDecoder.TEMPLATE_ID:
+                    length = headerLength + bidBookUpdateDecoder.wrap(buffer, bodyOffset, blockLength, version).sbeDecodedLength();
+                    break;
+                case AskBookUpdateDecoder.TEMPLATE_ID:
+                    length = headerLength + askBookUpdateDecoder.wrap(buffer, bodyOffset, blockLength, version).sbeDecodedLength();
+                    break;
+                case BookDeltaDecoder.TEMPLATE_ID:
+                    length = headerLength + bookDeltaDecoder.wrap(buffer, bodyOffset, blockLength, version).sbeDecodedLength();
+                    break;
+                case TradeDecoder.TEMPLATE_ID:
+                    length = headerLength + blockLength;
+                    break;
+                default:
+                    length = available;
+            }
+        }else if(headerDecoder.schemaId() == BatchOrderCommandDecoder.SCHEMA_ID){
+            if(headerDecoder.templateId() == BatchOrderCommandDecoder.TEMPLATE_ID){
+                length = headerLength + batchOrderCommandDecoder.wrap(buffer, bodyOffset, blockLength, version).sbeDecodedLength();
+            }else{
+                length = headerLength + blockLength;
+            }
+        }else{
+            length = available;
+        }
+
+        return Math.min(length, available);
+    }
+}
@@ -0,0 +1,45 @@
+package codingblackfemales.sequencer;
+
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DefaultSequencerAllocationTest {
+
+    private static final int WARMUP_MESSAGES = 200_000;
+    private static final int MEASURED_MESSAGES = 100_000;
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+
+    private long lastSequencerNumber = 0L;
+
+    private void onMessage(final DirectBuffer buffer){
+        headerDecoder.wrap(buffer, 0);
+        lastSequencerNumber = headerDecoder.sequencerNumber();
+    }
+
+    @Test
+    public void sequencerDoesNotWriteIntoCallersBuffer() {
+        final DefaultSequencer sequencer = new DefaultSequencer(this::onMessage);
+        final UnsafeBuffer tick = TestFixtures.bookUpdate();
+
+        sequencer.onCommand(tick);
+        sequencer.onCommand(tick);
+
+        assertEquals(2L, lastSequencerNumber);
+        assertEquals(0L, headerDecoder.wrap(tick, 0).sequencerNumber());
+    }
+
+    @Test
+    public void noAllocationPerMessageInSteadyState() {
+        final DefaultSequencer sequencer = new DefaultSequencer(this::onMessage);
+        final UnsafeBuffer tick = TestFixtures.bookUpdate();
+
+        TestFixtures.assertNoAllocationPer("messages", WARMUP_MESSAGES, MEASURED_MESSAGES, () -> sequencer.onCommand(tick));
+
+        assertEquals(WARMUP_MESSAGES + MEASURED_MESSAGES, lastSequencerNumber);
+    }
+}
@@ -0,0 +1,96 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.collection.extrusive.LongDedupWindow;
+import codingblackfemales.sequencer.util.MessageLength;
+import messages.order.BatchOrderCommandDecoder;
+import messages.order.BatchOrderCommandEncoder;
+import messages.order.MessageHeaderDecoder;
+import messages.order.MessageHeaderEncoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DefaultSequencerBatchOrderTest {
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final BatchOrderCommandDecoder batchDecoder = new BatchOrderCommandDecoder();
+
+    private final List<Long> cancelledOrderIds = new ArrayList<>();
+    private final List<Long> createdOrderIds = new ArrayList<>();
+    private final List<Long> createdPrices = new ArrayList<>();
+    private final List<Integer> lengths = new ArrayList<>();
+
+    private final UnsafeBuffer command = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    //the slot is sized to the message
+    private void onMessage(final DirectBuffer buffer){
+        lengths.add(buffer.capacity());
+        batchDecoder.wrapAndApplyHeader(buffer, 0, headerDecoder);
+        for(BatchOrderCommandDecoder.CancelsDecoder cancel : batchDecoder.cancels()){
+            cancelledOrderIds.add(cancel.orderId());
+        }
+        for(BatchOrderCommandDecoder.CreatesDecoder create : batchDecoder.creates()){
+            createdOrderIds.add(create.orderId());
+            createdPrices.add(create.price());
+        }
+    }
+
+    //a ladder of levels either side of 100, replacing the orders before it
+    private void requote(final DefaultSequencer sequencer, final int levels, final long commandId, final long... ordersToCancel){
+        final BatchOrderCommandEncoder encoder = new BatchOrderCommandEncoder().wrapAndApplyHeader(command, 0, new MessageHeaderEncoder())
+                .instrumentId(1L).commandId(commandId);
+
+        final BatchOrderCommandEncoder.CancelsEncoder cancels = encoder.cancelsCount(ordersToCancel.length);
+        for (long orderId : ordersToCancel) {
+            cancels.next().orderId(orderId);
+        }
+
+        final BatchOrderCommandEncoder.CreatesEncoder creates = encoder.createsCount(levels * 2);
+        for (int level = 1; level <= levels; level++) {
+            creates.next().price(100L - level).quantity(10L).side(Side.BUY);
+            creates.next().price(100L + level).quantity(10L).side(Side.SELL);
+        }
+
+        sequencer.onCommand(command);
+    }
+
+    @Test
+    public void aBatchIsOneMessageWithAnOrderIdForEachCreate() {
+        final DefaultSequencer sequencer = new DefaultSequencer(this::onMessage);
+
+        requote(sequencer, 10, 0L);
+        requote(sequencer, 2, 0L, 2L, 3L, 4L);
+
+        //two dispatches for 27 commands
+        assertEquals(2, lengths.size());
+        assertEquals(24, createdOrderIds.size());
+        for (int i = 0; i < 24; i++) {
+            assertEquals(i + 2, (long) createdOrderIds.get(i));
+        }
+        assertEquals(List.of(2L, 3L, 4L), cancelledOrderIds);
+        assertEquals(List.of(99L, 101L, 98L, 102L), createdPrices.subList(20, 24));
+
+        //only the bytes in use are sequenced: header, block, two group headers and the entries
+        assertEquals(32 + 24 + 4 + 4 + 20 * 25, (int) lengths.get(0));
+        assertEquals(MessageLength.of(command, 0), (int) lengths.get(1));
+    }
+
+    @Test
+    public void aRetriedBatchIsOnlySequencedOnce() {
+        final DefaultSequencer sequencer = new DefaultSequencer(this::onMessage);
+        sequencer.setCommandDedupWindow(new LongDedupWindow(16));
+
+        requote(sequencer, 3, 100L);
+        requote(sequencer, 3, 100L);
+
+        assertEquals(1, lengths.size());
+        assertEquals(1, sequencer.getDuplicateCommandCount());
+    }
+}
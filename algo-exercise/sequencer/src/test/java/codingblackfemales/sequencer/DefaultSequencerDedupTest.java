@@ -0,0 +1,152 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.collection.extrusive.LongDedupWindow;
+import messages.order.CancelOrderEncoder;
+import messages.order.CreateOrderDecoder;
+import messages.order.CreateOrderEncoder;
+import messages.order.MessageHeaderDecoder;
+import messages.order.MessageHeaderEncoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DefaultSequencerDedupTest {
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
+    private final List<Long> createdOrderIds = new ArrayList<>();
+    private long sequenced = 0L;
+    private long nextCommandId = 1L;
+
+    private final UnsafeBuffer command = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    private void onMessage(final DirectBuffer buffer){
+        sequenced++;
+        headerDecoder.wrap(buffer, 0);
+        if(headerDecoder.templateId() == CreateOrderDecoder.TEMPLATE_ID){
+            createdOrderIds.add(createOrderDecoder.wrapAndApplyHeader(buffer, 0, headerDecoder).orderId());
+        }
+    }
+
+    private void create(final DefaultSequencer sequencer, final long commandId){
+        new CreateOrderEncoder().wrapAndApplyHeader(command, 0, new MessageHeaderEncoder())
+                .instrumentId(1L).price(100L).quantity(10L).side(Side.BUY).commandId(commandId);
+        sequencer.onCommand(command);
+    }
+
+    private void cancel(final DefaultSequencer sequencer, final long orderId, final long commandId){
+        new CancelOrderEncoder().wrapAndApplyHeader(command, 0, new MessageHeaderEncoder()).orderId(orderId).commandId(commandId);
+        sequencer.onCommand(command);
+    }
+
+    @Test
+    public void aRetriedCommandIsOnlySequencedOnce() {
+        final DefaultSequencer sequencer = new DefaultSequencer(this::onMessage);
+        sequencer.setCommandDedupWindow(new LongDedupWindow(16));
+
+        create(sequencer, 100L);
+        create(sequencer, 100L);
+        create(sequencer, 101L);
+        cancel(sequencer, 2L, 102L);
+        cancel(sequencer, 2L, 102L);
+
+        assertEquals(3, sequenced);
+        assertEquals(List.of(2L, 3L), createdOrderIds);
+        assertEquals(2, sequencer.getDuplicateCommandCount());
+    }
+
+    @Test
+    public void commandsWithoutAnIdAreNeverDropped() {
+        final DefaultSequencer sequencer = new DefaultSequencer(this::onMessage);
+        sequencer.setCommandDedupWindow(new LongDedupWindow(16));
+
+        create(sequencer, 0L);
+        create(sequencer, 0L);
+
+        assertEquals(2, sequenced);
+        assertEquals(0, sequencer.getDuplicateCommandCount());
+    }
+
+    @Test
+    public void commandsFromAVersion0SenderHaveNoId() {
+        final DefaultSequencer sequencer = new DefaultSequencer(this::onMessage);
+        sequencer.setCommandDedupWindow(new LongDedupWindow(16));
+
+        //the bytes where a later version has the id are not read
+        for (int i = 0; i < 2; i++) {
+            final MessageHeaderEncoder header = new MessageHeaderEncoder();
+            new CancelOrderEncoder().wrapAndApplyHeader(command, 0, header).orderId(2L).commandId(100L);
+            header.version(0);
+            sequencer.onCommand(command);
+        }
+
+        assertEquals(2, sequenced);
+        assertEquals(0, sequencer.getDuplicateCommandCount());
+    }
+
+    @Test
+    public void aCommandThatFailedBeforeBeingSequencedCanBeRetried() {
+        final DefaultSequencer sequencer = new DefaultSequencer(this::onMessage);
+        sequencer.setCommandDedupWindow(new LongDedupWindow(16));
+
+        new CancelOrderEncoder().wrapAndApplyHeader(command, 0, new MessageHeaderEncoder()).orderId(2L).commandId(100L);
+        try {
+            sequencer.onCommand(command, 0, DefaultSequencer.MAX_MESSAGE_LENGTH + 1);
+            fail("too long to sequence");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        cancel(sequencer, 2L, 100L);
+
+        assertEquals(1, sequenced);
+        assertEquals(0, sequencer.getDuplicateCommandCount());
+    }
+
+    @Test
+    public void aCommandThatFailedInDispatchWasSequencedSoIsNotRetried() {
+        final DefaultSequencer sequencer = new DefaultSequencer(buffer -> {
+            onMessage(buffer);
+            if(sequenced == 1){
+                throw new IllegalStateException("consumer failed");
+            }
+        });
+        sequencer.setCommandDedupWindow(new LongDedupWindow(16));
+
+        try {
+            create(sequencer, 100L);
+            fail("the consumer throws");
+        } catch (IllegalStateException expected) {
+        }
+
+        create(sequencer, 100L);
+
+        assertEquals(1, sequenced);
+        assertEquals(1, sequencer.getDuplicateCommandCount());
+    }
+
+    @Test
+    public void noAllocationPerCommandWithTheWindowOn() {
+        final DefaultSequencer sequencer = new DefaultSequencer(buffer -> sequenced++);
+        sequencer.setCommandDedupWindow(new LongDedupWindow(1024));
+
+        final CancelOrderEncoder encoder = new CancelOrderEncoder();
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        TestFixtures.assertNoAllocationPer("commands", 200_000, 100_000, () -> {
+            encoder.wrapAndApplyHeader(command, 0, headerEncoder).orderId(2L).commandId(nextCommandId++);
+            sequencer.onCommand(command);
+            //and a retry of it
+            sequencer.onCommand(command);
+        });
+
+        assertEquals(300_000, sequenced);
+        assertEquals(300_000, sequencer.getDuplicateCommandCount());
+    }
+}
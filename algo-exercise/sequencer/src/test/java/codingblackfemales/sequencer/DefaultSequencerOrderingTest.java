@@ -0,0 +1,77 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.DefaultSequencer.CommandOrdering;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DefaultSequencerOrderingTest {
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final AskBookUpdateDecoder askDecoder = new AskBookUpdateDecoder();
+
+    private final UnsafeBuffer command = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    private DefaultSequencer sequencer;
+
+    private long instrumentId(final DirectBuffer buffer){
+        headerDecoder.wrap(buffer, 0);
+        askDecoder.wrap(buffer, headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version());
+        return askDecoder.instrumentId();
+    }
+
+    //reacts to each update by sending the next one, until there have been as many as asked for
+    private void react(final DirectBuffer buffer, final long reactions){
+        final long instrumentId = instrumentId(buffer);
+        if(instrumentId < reactions){
+            sequencer.onCommand(TestFixtures.askUpdate(command, instrumentId + 1));
+        }
+    }
+
+    private List<Long> sequencerNumbersSeenAfterAReaction(final CommandOrdering commandOrdering){
+        final List<Long> seen = new ArrayList<>();
+
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(buffer -> react(buffer, 2));
+        network.addConsumer(buffer -> seen.add(headerDecoder.wrap(buffer, 0).sequencerNumber()));
+
+        sequencer = new DefaultSequencer(network, commandOrdering);
+        sequencer.onCommand(TestFixtures.askUpdate(command, 1));
+
+        return seen;
+    }
+
+    @Test
+    public void nestedReactionsOvertakeTheMessageTheyReactTo() {
+        assertEquals(List.of(2L, 1L), sequencerNumbersSeenAfterAReaction(CommandOrdering.NESTED));
+    }
+
+    @Test
+    public void queuedReactionsAreSeenInSequence() {
+        assertEquals(List.of(1L, 2L), sequencerNumbersSeenAfterAReaction(CommandOrdering.QUEUED));
+    }
+
+    @Test
+    public void queuedReactionsDoNotGrowTheStack() {
+        final int reactions = 100_000;
+        final long[] last = {0L};
+
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(buffer -> react(buffer, reactions));
+        network.addConsumer(buffer -> last[0] = headerDecoder.wrap(buffer, 0).sequencerNumber());
+
+        //far deeper than the slot ring would allow nested
+        sequencer = new DefaultSequencer(network, CommandOrdering.QUEUED);
+        sequencer.onCommand(TestFixtures.askUpdate(command, 1));
+
+        assertEquals(reactions, last[0]);
+    }
+}
@@ -0,0 +1,89 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.PriorityRingBufferSequencer.Lane;
+import codingblackfemales.sequencer.metrics.LatencyHistograms;
+import messages.marketdata.AskBookUpdateEncoder;
+import messages.marketdata.Venue;
+import messages.order.CancelOrderEncoder;
+import messages.order.CreateOrderEncoder;
+import messages.order.MessageHeaderDecoder;
+import messages.order.MessageHeaderEncoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class PriorityRingBufferSequencerTest {
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final List<Lane> sequenced = new ArrayList<>();
+
+    private final UnsafeBuffer command = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    private void onMessage(final DirectBuffer buffer){
+        headerDecoder.wrap(buffer, 0);
+        sequenced.add(Lane.of(headerDecoder.schemaId(), headerDecoder.templateId()));
+    }
+
+    private void createOrder(final PriorityRingBufferSequencer sequencer){
+        new CreateOrderEncoder().wrapAndApplyHeader(command, 0, new MessageHeaderEncoder())
+                .instrumentId(1L).price(100L).quantity(10L).side(Side.BUY);
+        sequencer.onCommand(command);
+    }
+
+    private void cancelOrder(final PriorityRingBufferSequencer sequencer){
+        new CancelOrderEncoder().wrapAndApplyHeader(command, 0, new MessageHeaderEncoder()).orderId(2L);
+        sequencer.onCommand(command);
+    }
+
+    private void askUpdate(final PriorityRingBufferSequencer sequencer){
+        new AskBookUpdateEncoder().wrapAndApplyHeader(command, 0, new messages.marketdata.MessageHeaderEncoder())
+                .instrumentId(1L).venue(Venue.XLON)
+                .askBookCount(1).next().price(100L).size(10L);
+        sequencer.onCommand(command);
+    }
+
+    @Test
+    public void cancelsJumpABurstOfOrdersWhichJumpMarketData() {
+        final PriorityRingBufferSequencer sequencer = new PriorityRingBufferSequencer(new DefaultSequencer(this::onMessage), 64 * 1024, new int[]{2, 4, 1});
+        final LatencyHistograms histograms = new LatencyHistograms();
+        sequencer.setLatencyHistograms(histograms);
+
+        for (int i = 0; i < 3; i++) {
+            askUpdate(sequencer);
+        }
+        for (int i = 0; i < 20; i++) {
+            createOrder(sequencer);
+        }
+        for (int i = 0; i < 3; i++) {
+            cancelOrder(sequencer);
+        }
+
+        //first round: the weight of each lane, highest first
+        sequencer.doWork();
+        assertEquals(List.of(Lane.CANCEL, Lane.CANCEL, Lane.ORDER, Lane.ORDER, Lane.ORDER, Lane.ORDER, Lane.MARKET_DATA), sequenced);
+
+        while(sequencer.size() > 0){
+            sequencer.doWork();
+        }
+
+        assertEquals(26, sequenced.size());
+        assertEquals(3, sequencer.sequencedCount(Lane.CANCEL));
+        assertEquals(20, sequencer.sequencedCount(Lane.ORDER));
+        assertEquals(3, sequencer.sequencedCount(Lane.MARKET_DATA));
+
+        final Map<String, Long> waits = new HashMap<>();
+        histograms.report((name, histogram) -> waits.put(name, histogram.getTotalCount()));
+        assertEquals(Long.valueOf(3), waits.get("lane CANCEL"));
+        assertEquals(Long.valueOf(20), waits.get("lane ORDER"));
+        assertEquals(Long.valueOf(3), waits.get("lane MARKET_DATA"));
+    }
+}
@@ -0,0 +1,112 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.net.AeronIpc;
+import codingblackfemales.sequencer.net.SubscriptionAgent;
+import codingblackfemales.sequencer.net.TestNetwork;
+import io.aeron.Aeron;
+import io.aeron.driver.MediaDriver;
+import messages.marketdata.*;
+import org.agrona.CloseHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RealSequencerTest {
+
+    private static final int MESSAGES = 100;
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final AskBookUpdateDecoder askDecoder = new AskBookUpdateDecoder();
+    private final List<Long> sequencerNumbers = new ArrayList<>();
+    private final List<Long> instrumentIds = new ArrayList<>();
+    private int batchEnds = 0;
+
+    private MediaDriver driver;
+    private Aeron aeron;
+    private RealSequencer sequencer;
+    private SubscriptionAgent subscriber;
+    private RemoteSequencer remoteSequencer;
+
+    @Before
+    public void setUp() {
+        driver = AeronIpc.launchEmbeddedDriver();
+        aeron = AeronIpc.connect(driver.aeronDirectoryName());
+
+        sequencer = new RealSequencer(aeron);
+
+        //what would be running in the algo's process
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(buffer -> {
+            headerDecoder.wrap(buffer, 0);
+            askDecoder.wrap(buffer, headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version());
+            sequencerNumbers.add(headerDecoder.sequencerNumber());
+            instrumentIds.add(askDecoder.instrumentId());
+        });
+        network.addConsumer(new codingblackfemales.sequencer.net.Consumer() {
+            @Override
+            public void onMessage(final org.agrona.DirectBuffer buffer) {
+            }
+
+            @Override
+            public void onBatchEnd() {
+                batchEnds++;
+            }
+        });
+
+        subscriber = new SubscriptionAgent(aeron.addSubscription(AeronIpc.CHANNEL, AeronIpc.EVENT_STREAM_ID), network);
+        remoteSequencer = new RemoteSequencer(aeron.addPublication(AeronIpc.CHANNEL, AeronIpc.COMMAND_STREAM_ID));
+
+        awaitWhileWorking(() -> subscriber.isConnected() && remoteSequencer.isConnected());
+    }
+
+    @After
+    public void tearDown() {
+        CloseHelper.closeAll(sequencer, aeron, driver);
+    }
+
+    //both agents would normally be on threads of their own, in processes of their own
+    private void awaitWhileWorking(final BooleanSupplier condition){
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while(!condition.getAsBoolean()){
+            assertTrue("timed out", System.nanoTime() < deadline);
+            sequencer.doWork();
+            subscriber.doWork();
+        }
+    }
+
+    @Test
+    public void remoteCommandsAreSequencedAndSeenByAnotherSubscriber() {
+        for (int i = 1; i <= MESSAGES; i++) {
+            remoteSequencer.onCommand(TestFixtures.askUpdate(i));
+        }
+
+        awaitWhileWorking(() -> sequencerNumbers.size() == MESSAGES);
+
+        for (int i = 0; i < MESSAGES; i++) {
+            assertEquals(i + 1, sequencerNumbers.get(i).longValue());
+            assertEquals(i + 1, instrumentIds.get(i).longValue());
+        }
+        assertEquals(MESSAGES, sequencer.getSequencerNumber());
+        assertTrue(batchEnds > 0);
+    }
+
+    @Test
+    public void localAndRemoteCommandsShareOneSequence() {
+        sequencer.onCommand(TestFixtures.askUpdate(1));
+        remoteSequencer.onCommand(TestFixtures.askUpdate(2));
+
+        awaitWhileWorking(() -> sequencerNumbers.size() == 2);
+
+        assertEquals(List.of(1L, 2L), sequencerNumbers);
+        assertEquals(List.of(1L, 2L), instrumentIds);
+        assertEquals(0L, sequencer.getNetwork().getUnsubscribedMessages());
+    }
+}
@@ -0,0 +1,97 @@
+package codingblackfemales.sequencer;
+
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class RingBufferSequencerTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int COMMANDS_PER_PRODUCER = 20_000;
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final AskBookUpdateDecoder askDecoder = new AskBookUpdateDecoder();
+
+    //only touched on the sequencing thread
+    private final long[] lastSizeByProducer = new long[PRODUCERS];
+    private long lastSequencerNumber = 0L;
+    private boolean outOfOrder = false;
+
+    private volatile int received = 0;
+
+    private void onMessage(final DirectBuffer buffer){
+        headerDecoder.wrap(buffer, 0);
+
+        if(headerDecoder.sequencerNumber() != lastSequencerNumber + 1){
+            outOfOrder = true;
+        }
+        lastSequencerNumber = headerDecoder.sequencerNumber();
+
+        askDecoder.wrap(buffer, headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version());
+        final int producer = (int) askDecoder.instrumentId();
+        final long size = askDecoder.askBook().next().size();
+
+        //each producer's commands must come out in the order they went in
+        if(size != lastSizeByProducer[producer] + 1){
+            outOfOrder = true;
+        }
+        lastSizeByProducer[producer] = size;
+
+        received = received + 1;
+    }
+
+    private void produce(final RingBufferSequencer sequencer, final int producer){
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        final AskBookUpdateEncoder encoder = new AskBookUpdateEncoder();
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        for (int i = 1; i <= COMMANDS_PER_PRODUCER; i++) {
+            encoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+            encoder.instrumentId(producer);
+            encoder.venue(Venue.XLON);
+            encoder.askBookCount(1).next().price(100L).size(i);
+            sequencer.onCommand(buffer);
+        }
+    }
+
+    @Test
+    public void commandsFromManyThreadsAreSequencedOnOneThread() throws Exception {
+        final RingBufferSequencer sequencer = new RingBufferSequencer(new DefaultSequencer(this::onMessage));
+
+        try (AgentRunner runner = new AgentRunner(new BusySpinIdleStrategy(), Throwable::printStackTrace, null, sequencer)) {
+            AgentRunner.startOnThread(runner);
+
+            final List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                final int producer = p;
+                final Thread thread = new Thread(() -> produce(sequencer, producer));
+                producers.add(thread);
+                thread.start();
+            }
+
+            for (Thread thread : producers) {
+                thread.join();
+            }
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (received < PRODUCERS * COMMANDS_PER_PRODUCER && System.nanoTime() < deadline) {
+                Thread.yield();
+            }
+        }
+
+        assertEquals(PRODUCERS * COMMANDS_PER_PRODUCER, received);
+        assertEquals(PRODUCERS * COMMANDS_PER_PRODUCER, lastSequencerNumber);
+        assertFalse(outOfOrder);
+    }
+}
@@ -0,0 +1,141 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import messages.order.CancelOrderDecoder;
+import messages.order.CancelOrderEncoder;
+import messages.order.CreateOrderDecoder;
+import messages.order.CreateOrderEncoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ShardedSequencerTest {
+
+    private static final int SHARDS = 4;
+    private static final int INSTRUMENTS = 100;
+
+    //what one shard's consumers saw, only touched on that shard's thread until it has been closed
+    private static class ShardRecorder {
+
+        private final messages.order.MessageHeaderDecoder headerDecoder = new messages.order.MessageHeaderDecoder();
+        private final AskBookUpdateDecoder askDecoder = new AskBookUpdateDecoder();
+        private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
+        private final CancelOrderDecoder cancelOrderDecoder = new CancelOrderDecoder();
+
+        private final Set<Long> instruments = new HashSet<>();
+        private final List<Long> orderIds = new ArrayList<>();
+        private final List<Long> cancelledOrderIds = new ArrayList<>();
+        private long lastSequencerNumber = 0L;
+        private boolean outOfOrder = false;
+
+        private void onMessage(final DirectBuffer buffer){
+            headerDecoder.wrap(buffer, 0);
+
+            if(headerDecoder.sequencerNumber() != lastSequencerNumber + 1){
+                outOfOrder = true;
+            }
+            lastSequencerNumber = headerDecoder.sequencerNumber();
+
+            final int offset = headerDecoder.encodedLength();
+            if(headerDecoder.schemaId() == AskBookUpdateDecoder.SCHEMA_ID && headerDecoder.templateId() == AskBookUpdateDecoder.TEMPLATE_ID){
+                instruments.add(askDecoder.wrap(buffer, offset, headerDecoder.blockLength(), headerDecoder.version()).instrumentId());
+            }else if(headerDecoder.schemaId() == CreateOrderDecoder.SCHEMA_ID && headerDecoder.templateId() == CreateOrderDecoder.TEMPLATE_ID){
+                createOrderDecoder.wrap(buffer, offset, headerDecoder.blockLength(), headerDecoder.version());
+                instruments.add(createOrderDecoder.instrumentId());
+                orderIds.add(createOrderDecoder.orderId());
+            }else if(headerDecoder.schemaId() == CancelOrderDecoder.SCHEMA_ID && headerDecoder.templateId() == CancelOrderDecoder.TEMPLATE_ID){
+                cancelledOrderIds.add(cancelOrderDecoder.wrap(buffer, offset, headerDecoder.blockLength(), headerDecoder.version()).orderId());
+            }
+        }
+    }
+
+    private final ShardRecorder[] recorders = new ShardRecorder[SHARDS];
+    private final UnsafeBuffer command = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    private ShardedSequencer sequencer(){
+        return new ShardedSequencer(SHARDS, shard -> {
+            recorders[shard] = new ShardRecorder();
+            final TestNetwork network = new TestNetwork();
+            network.addConsumer(recorders[shard]::onMessage);
+            return network;
+        });
+    }
+
+    private UnsafeBuffer createOrder(final long instrumentId){
+        new CreateOrderEncoder().wrapAndApplyHeader(command, 0, new messages.order.MessageHeaderEncoder())
+                .instrumentId(instrumentId)
+                .price(100L)
+                .quantity(50L)
+                .side(Side.BUY);
+        return command;
+    }
+
+    private UnsafeBuffer cancelOrder(final long orderId){
+        new CancelOrderEncoder().wrapAndApplyHeader(command, 0, new messages.order.MessageHeaderEncoder()).orderId(orderId);
+        return command;
+    }
+
+    @Test
+    public void eachInstrumentIsSequencedOnOneShard() {
+        try (ShardedSequencer sequencer = sequencer()) {
+            for (int round = 0; round < 10; round++) {
+                for (long instrumentId = 0; instrumentId < INSTRUMENTS; instrumentId++) {
+                    sequencer.onCommand(TestFixtures.askUpdate(command, instrumentId));
+                }
+            }
+        }
+
+        final Set<Long> seen = new HashSet<>();
+        long total = 0;
+        for (ShardRecorder recorder : recorders) {
+            assertFalse(recorder.outOfOrder);
+            assertFalse("a shard got nothing", recorder.instruments.isEmpty());
+            for (Long instrumentId : recorder.instruments) {
+                assertTrue("instrument " + instrumentId + " is on more than one shard", seen.add(instrumentId));
+            }
+            total += recorder.lastSequencerNumber;
+        }
+
+        assertEquals(INSTRUMENTS, seen.size());
+        assertEquals(10 * INSTRUMENTS, total);
+    }
+
+    @Test
+    public void orderIdsAreUniqueAndCancelsFollowTheirOrder() {
+        final ShardRouter router;
+        try (ShardedSequencer sequencer = sequencer()) {
+            router = sequencer.router();
+            for (long instrumentId = 0; instrumentId < INSTRUMENTS; instrumentId++) {
+                sequencer.onCommand(createOrder(instrumentId));
+            }
+        }
+
+        final Set<Long> orderIds = new HashSet<>();
+        for (ShardRecorder recorder : recorders) {
+            orderIds.addAll(recorder.orderIds);
+        }
+        assertEquals(INSTRUMENTS, orderIds.size());
+
+        //the cancel for an order must go to the shard that created it
+        try (ShardedSequencer sequencer = sequencer()) {
+            for (Long orderId : orderIds) {
+                sequencer.onCommand(cancelOrder(orderId));
+            }
+        }
+
+        for (int shard = 0; shard < SHARDS; shard++) {
+            for (Long orderId : recorders[shard].cancelledOrderIds) {
+                assertEquals(shard, router.shardForOrder(orderId));
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package codingblackfemales.sequencer;
+
+import messages.marketdata.AskBookUpdateEncoder;
+import messages.marketdata.BookUpdateEncoder;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.MessageHeaderEncoder;
+import messages.marketdata.Source;
+import messages.marketdata.Venue;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Messages the sequencer tests send, and the check that something doesn't allocate per message.
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    //123 on XLON, 100@98 bid and 101@100 offered
+    public static UnsafeBuffer bookUpdate(){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+        encoder.wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.bidBookCount(1).next().price(98L).size(100L);
+        encoder.askBookCount(1).next().price(100L).size(101L);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+
+        return buffer;
+    }
+
+    public static UnsafeBuffer askUpdate(final long instrumentId){
+        return askUpdate(new UnsafeBuffer(ByteBuffer.allocateDirect(1024)), instrumentId);
+    }
+
+    //200@100 offered on XLON, written over whatever the buffer had
+    public static UnsafeBuffer askUpdate(final UnsafeBuffer buffer, final long instrumentId){
+        new AskBookUpdateEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder())
+                .instrumentId(instrumentId)
+                .venue(Venue.XLON)
+                .askBookCount(1).next().price(100L).size(200L);
+        return buffer;
+    }
+
+    /**
+     * Runs the operation until warmed up, then fails if the thread allocated more than the measurement itself needs
+     * over the measured runs, i.e. anything that scales with them.
+     */
+    public static void assertNoAllocationPer(final String what, final int warmup, final int measured, final Runnable operation){
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < warmup; i++) {
+            operation.run();
+        }
+
+        final long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < measured; i++) {
+            operation.run();
+        }
+        final long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("allocated " + allocated + " bytes over " + measured + " " + what, allocated < 1024);
+    }
+}
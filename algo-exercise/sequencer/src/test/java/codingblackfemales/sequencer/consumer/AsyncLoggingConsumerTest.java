@@ -0,0 +1,127 @@
+package codingblackfemales.sequencer.consumer;
+
+import codingblackfemales.sequencer.AbstractSequencerComponent;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.TestFixtures;
+import codingblackfemales.sequencer.journal.JournalReader;
+import codingblackfemales.sequencer.journal.JournalWriter;
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.sequencer.util.MessageFormatter;
+import messages.marketdata.*;
+import messages.order.CancelOrderEncoder;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncLoggingConsumerTest {
+
+    private static final int MESSAGES = 1_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final UnsafeBuffer bookUpdate = TestFixtures.bookUpdate();
+    private final UnsafeBuffer cancelOrder = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    //what a LoggingConsumer would have logged, but on the draining thread
+    private static class RecordingSink extends AbstractSequencerComponent implements Consumer {
+
+        private final MessageFormatter formatter = new MessageFormatter();
+        private final List<String> lines = new ArrayList<>();
+        private final List<Integer> linesAtBatchEnd = new ArrayList<>();
+
+        private RecordingSink() {
+            requireMessage(BookUpdateDecoder.SCHEMA_ID, BookUpdateDecoder.TEMPLATE_ID);
+        }
+
+        @Override
+        public void onMessage(final DirectBuffer buffer) {
+            lines.add(formatter.format(buffer, 0));
+        }
+
+        @Override
+        public void onBatchEnd() {
+            linesAtBatchEnd.add(lines.size());
+        }
+    }
+
+    public AsyncLoggingConsumerTest() {
+        new CancelOrderEncoder().wrapAndApplyHeader(cancelOrder, 0, new messages.order.MessageHeaderEncoder()).orderId(42L);
+    }
+
+    //books have odd sequencer numbers, cancels even
+    private void send(final Consumer consumer){
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(consumer);
+
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        for (int i = 0; i < MESSAGES; i++) {
+            sequencer.onCommand(bookUpdate);
+            sequencer.onCommand(cancelOrder);
+        }
+    }
+
+    @Test
+    public void sinkSeesWhatItRequiresInSequence() {
+        final RecordingSink sink = new RecordingSink();
+
+        //a ring too small to keep up, so the dispatching side has to wait for space
+        try (AsyncLoggingConsumer consumer = new AsyncLoggingConsumer(sink, 1024, new BusySpinIdleStrategy())) {
+            send(consumer);
+        }
+
+        assertEquals(MESSAGES, sink.lines.size());
+        for (int i = 0; i < MESSAGES; i++) {
+            assertTrue(sink.lines.get(i), sink.lines.get(i).startsWith("[" + (2 * i + 1) + "] \n|----ASK-----|"));
+        }
+    }
+
+    @Test
+    public void sinkSeesEachBatchEndAfterTheMessagesOfTheBatch() {
+        final RecordingSink sink = new RecordingSink();
+
+        try (AsyncLoggingConsumer consumer = new AsyncLoggingConsumer(sink, 1024, new BusySpinIdleStrategy())) {
+            send(consumer);
+        }
+
+        //a book and a cancel per batch, the cancel filtered out
+        assertEquals(MESSAGES * 2, sink.linesAtBatchEnd.size());
+        for (int i = 0; i < MESSAGES; i++) {
+            assertEquals(i + 1, (int) sink.linesAtBatchEnd.get(2 * i));
+            assertEquals(i + 1, (int) sink.linesAtBatchEnd.get(2 * i + 1));
+        }
+    }
+
+    @Test
+    public void binaryLogPrintsAsText() throws Exception {
+        final File directory = folder.newFolder("audit");
+
+        try (JournalWriter writer = new JournalWriter(directory);
+             AsyncLoggingConsumer consumer = new AsyncLoggingConsumer(writer)) {
+            send(consumer);
+        }
+
+        final ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        try (JournalReader reader = new JournalReader(directory)) {
+            reader.read(1, 2, new AuditLogPrinter(new PrintStream(printed, true)));
+        }
+
+        final String text = printed.toString();
+        assertTrue(text, text.startsWith("[1] \n|----ASK-----|"));
+        assertTrue(text, text.contains("[2] [CancelOrder]"));
+    }
+}
@@ -0,0 +1,109 @@
+package codingblackfemales.sequencer.consumer;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.net.RetransmitCache;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.order.CancelOrderEncoder;
+import messages.order.MessageHeaderDecoder;
+import messages.order.MessageHeaderEncoder;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+import static org.junit.Assert.assertEquals;
+
+public class GapDetectingConsumerTest {
+
+    private static final int CAPACITY = 16;
+
+    private final RetransmitCache cache = new RetransmitCache(CAPACITY, DefaultSequencer.MAX_MESSAGE_LENGTH);
+    private final UnsafeBuffer cancelOrder = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    private final List<Long> sequencerNumbers = new ArrayList<>();
+    private final List<Long> orderIds = new ArrayList<>();
+    private final List<long[]> unrecoverable = new ArrayList<>();
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+
+    //what the consumer behind the gap detection saw
+    private final Consumer recorder = buffer -> {
+        headerDecoder.wrap(buffer, 0);
+        sequencerNumbers.add(headerDecoder.sequencerNumber());
+        orderIds.add(buffer.getLong(headerDecoder.encodedLength(), java.nio.ByteOrder.LITTLE_ENDIAN));
+    };
+
+    private final GapDetectingConsumer gapDetecting = new GapDetectingConsumer(recorder, cache,
+            (from, to) -> unrecoverable.add(new long[]{from, to}), 0L);
+
+    //a network that loses the messages the predicate picks on the way to the consumer
+    private void send(final int messages, final LongPredicate dropped){
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(new Consumer() {
+            @Override
+            public void onMessage(final DirectBuffer buffer) {
+                final long sequencerNumber = new MessageHeaderDecoder().wrap(buffer, 0).sequencerNumber();
+                if(!dropped.test(sequencerNumber)){
+                    gapDetecting.onMessage(buffer);
+                }
+            }
+        });
+
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        sequencer.setRetransmitCache(cache);
+
+        final CancelOrderEncoder encoder = new CancelOrderEncoder();
+        for (long orderId = 1; orderId <= messages; orderId++) {
+            encoder.wrapAndApplyHeader(cancelOrder, 0, new MessageHeaderEncoder()).orderId(orderId);
+            sequencer.onCommand(cancelOrder);
+        }
+    }
+
+    @Test
+    public void smallGapsAreFilledFromTheCache() {
+        send(100, sequencerNumber -> sequencerNumber % 3 == 0 && sequencerNumber != 99);
+
+        assertEquals(100, sequencerNumbers.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 1, (long) sequencerNumbers.get(i));
+            //the retransmitted copy is the message that was sent, not just its header
+            assertEquals(i + 1, (long) orderIds.get(i));
+        }
+        assertEquals(32, gapDetecting.getGapCount());
+        assertEquals(32, gapDetecting.getRetransmittedCount());
+        assertEquals(0, unrecoverable.size());
+    }
+
+    @Test
+    public void gapsLongerThanTheCacheAreReportedAndTheRestFilled() {
+        send(100, sequencerNumber -> sequencerNumber > 10 && sequencerNumber <= 60);
+
+        //61 arrived, so the cache still holds 46 to 60
+        assertEquals(1, unrecoverable.size());
+        assertEquals(11, unrecoverable.get(0)[0]);
+        assertEquals(45, unrecoverable.get(0)[1]);
+        assertEquals(35, gapDetecting.getUnrecoverableCount());
+        assertEquals(15, gapDetecting.getRetransmittedCount());
+
+        assertEquals(65, sequencerNumbers.size());
+        assertEquals(10, (long) sequencerNumbers.get(9));
+        assertEquals(46, (long) sequencerNumbers.get(10));
+        assertEquals(100, gapDetecting.getLastSequencerNumber());
+    }
+
+    @Test
+    public void messagesAlreadySeenAreDropped() {
+        send(5, sequencerNumber -> false);
+
+        cache.read(3, cancelOrder);
+        gapDetecting.onMessage(cancelOrder);
+
+        assertEquals(5, sequencerNumbers.size());
+        assertEquals(1, gapDetecting.getDuplicateCount());
+    }
+}
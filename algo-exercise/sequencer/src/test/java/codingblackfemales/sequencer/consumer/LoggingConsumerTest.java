@@ -0,0 +1,47 @@
+package codingblackfemales.sequencer.consumer;
+
+import codingblackfemales.sequencer.SequencerComponent;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.MessageHeaderEncoder;
+import messages.marketdata.TradeDecoder;
+import messages.order.AmendOrderDecoder;
+import messages.order.BatchOrderCommandDecoder;
+import messages.order.CancelOrderEncoder;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LoggingConsumerTest {
+
+    private static boolean requires(final int[] required, final int schemaId, final int templateId){
+        final int key = SequencerComponent.messageKey(schemaId, templateId);
+        return Arrays.stream(required).anyMatch(k -> k == key);
+    }
+
+    @Test
+    public void logsDeltasTradesAmendsAndBatchesOfOrders() {
+        final int[] required = new LoggingConsumer().requiredMessages();
+
+        assertTrue(requires(required, BookDeltaDecoder.SCHEMA_ID, BookDeltaDecoder.TEMPLATE_ID));
+        assertTrue(requires(required, TradeDecoder.SCHEMA_ID, TradeDecoder.TEMPLATE_ID));
+        assertTrue(requires(required, AmendOrderDecoder.SCHEMA_ID, AmendOrderDecoder.TEMPLATE_ID));
+        assertTrue(requires(required, BatchOrderCommandDecoder.SCHEMA_ID, BatchOrderCommandDecoder.TEMPLATE_ID));
+    }
+
+    @Test
+    public void onlyLogsWhatItRequiresWhenWiredStraightOntoANetwork() {
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[256]);
+        final LoggingConsumer consumer = new LoggingConsumer();
+
+        new CancelOrderEncoder().wrapAndApplyHeader(buffer, 16, new messages.order.MessageHeaderEncoder()).orderId(42L);
+        assertTrue(consumer.logs(buffer, 16));
+
+        //a header with a template it does not know
+        new MessageHeaderEncoder().wrap(buffer, 16).schemaId(TradeDecoder.SCHEMA_ID).templateId(999);
+        assertFalse(consumer.logs(buffer, 16));
+    }
+}
@@ -0,0 +1,100 @@
+package codingblackfemales.sequencer.event;
+
+import messages.marketdata.*;
+import messages.order.*;
+import messages.order.MessageHeaderEncoder;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class EventListenerDispatchTest {
+
+    private final List<String> seen = new ArrayList<>();
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    private final MarketDataEventListener marketData = new MarketDataEventListener() {
+        @Override
+        public void onBookUpdate(final BookUpdateDecoder bookUpdate) {
+            seen.add("book " + bookUpdate.instrumentId());
+        }
+
+        @Override
+        public void onAskBook(final AskBookUpdateDecoder askBook) {
+            seen.add("ask " + askBook.instrumentId());
+        }
+
+        @Override
+        public void onBidBook(final BidBookUpdateDecoder bidBook) {
+            seen.add("bid " + bidBook.instrumentId());
+        }
+    };
+
+    private final OrderEventListener orders = new OrderEventListener() {
+        @Override
+        public void onCreateOrder(final CreateOrderDecoder create) {
+            seen.add("create " + create.orderId());
+        }
+
+        @Override
+        public void onCancelOrder(final CancelOrderDecoder cancel) {
+            seen.add("cancel " + cancel.orderId());
+        }
+
+        @Override
+        public void onAckedOrder(final AckedOrderDecoder acked) {
+            seen.add("acked " + acked.orderId());
+        }
+
+        @Override
+        public void onCancelAckedOrder(final CancelAckedOrderDecoder cancelAcked) {
+            seen.add("cancelAcked " + cancelAcked.orderId());
+        }
+
+        @Override
+        public void onPendingOrder(final PendingOrderDecoder pending) {
+            seen.add("pending " + pending.orderId());
+        }
+
+        @Override
+        public void onPartialFill(final PartialFillOrderDecoder partialFill) {
+            seen.add("partialFill " + partialFill.orderId());
+        }
+
+        @Override
+        public void onFill(final FillOrderDecoder fill) {
+            seen.add("fill " + fill.orderId());
+        }
+    };
+
+    private void toBoth(){
+        marketData.onMessage(buffer);
+        orders.onMessage(buffer);
+    }
+
+    @Test
+    public void templateIdsSharedBetweenSchemasGoToTheRightListener() {
+        //both template 9
+        new BidBookUpdateEncoder().wrapAndApplyHeader(buffer, 0, new messages.marketdata.MessageHeaderEncoder())
+                .instrumentId(7L).venue(Venue.XLON).bidBookCount(0);
+        toBoth();
+
+        new PartialFillOrderEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder()).orderId(3L).quantity(10L).price(100L);
+        toBoth();
+
+        new FillOrderEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder()).orderId(4L).quantity(10L).price(100L);
+        toBoth();
+
+        assertEquals(List.of("bid 7", "partialFill 3", "fill 4"), seen);
+    }
+
+    @Test
+    public void listenersRequireEveryTemplateInTheirSchema() {
+        assertEquals(MarketDataDispatcher.TEMPLATE_IDS.length, marketData.requiredMessages().length);
+        assertEquals(OrderDispatcher.TEMPLATE_IDS.length, orders.requiredMessages().length);
+    }
+}
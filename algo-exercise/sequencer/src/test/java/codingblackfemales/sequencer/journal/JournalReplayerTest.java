@@ -0,0 +1,121 @@
+package codingblackfemales.sequencer.journal;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JournalReplayerTest {
+
+    private static final int MESSAGES = 200;
+    private static final int BATCH_SIZE = 4;
+    private static final long RECORDED_GAP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final List<Long> replayed = new ArrayList<>();
+    private int batchEnds = 0;
+
+    private File writeJournal() throws Exception {
+        final File directory = folder.newFolder("journal");
+
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        final BidBookUpdateEncoder encoder = new BidBookUpdateEncoder();
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        //pretend the messages were recorded a millisecond apart
+        final long[] now = {0L};
+        try (JournalWriter writer = new JournalWriter(directory, JournalWriter.DEFAULT_SEGMENT_LENGTH, 8, () -> now[0] += RECORDED_GAP_NANOS)) {
+            final TestNetwork network = new TestNetwork();
+            network.addConsumer(writer);
+            final DefaultSequencer sequencer = new DefaultSequencer(network);
+            for (int i = 1; i <= MESSAGES; i++) {
+                if(i % BATCH_SIZE == 1){
+                    sequencer.beginBatch();
+                }
+                encoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+                encoder.instrumentId(123L);
+                encoder.venue(Venue.XLON);
+                encoder.bidBookCount(1).next().price(98L).size(i);
+                sequencer.onCommand(buffer);
+                if(i % BATCH_SIZE == 0){
+                    sequencer.endBatch();
+                }
+            }
+        }
+
+        return directory;
+    }
+
+    private TestNetwork network(){
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(new Consumer() {
+            @Override
+            public void onMessage(final DirectBuffer buffer) {
+                replayed.add(headerDecoder.wrap(buffer, 0).sequencerNumber());
+            }
+
+            @Override
+            public void onBatchEnd() {
+                batchEnds++;
+            }
+        });
+        return network;
+    }
+
+    @Test
+    public void replaysFromASequencerNumberAtMaxSpeed() throws Exception {
+        try (JournalReader reader = new JournalReader(writeJournal())) {
+            final int count = new JournalReplayer(reader, network(), ReplaySpeed.MAX_SPEED).replayFrom(101);
+            assertEquals(100, count);
+        }
+
+        assertEquals(101L, replayed.get(0).longValue());
+        assertEquals(200L, replayed.get(99).longValue());
+    }
+
+    @Test
+    public void batchesEndWhereTheyEndedWhenJournaled() throws Exception {
+        try (JournalReader reader = new JournalReader(writeJournal())) {
+            new JournalReplayer(reader, network(), ReplaySpeed.MAX_SPEED).replayFrom(101);
+            assertEquals(100 / BATCH_SIZE, batchEnds);
+
+            //stopping part way through a batch still ends it
+            batchEnds = 0;
+            replayed.clear();
+            new JournalReplayer(reader, network(), ReplaySpeed.MAX_SPEED).replay(101, 102);
+            assertEquals(2, replayed.size());
+            assertEquals(1, batchEnds);
+        }
+    }
+
+    @Test
+    public void throttledReplayKeepsTheRecordedGapsScaledBySpeed() throws Exception {
+        try (JournalReader reader = new JournalReader(writeJournal())) {
+            final long start = System.nanoTime();
+            new JournalReplayer(reader, network(), ReplaySpeed.timesRealTime(10)).replayFrom(1);
+            final long elapsed = System.nanoTime() - start;
+
+            //199 gaps of 1ms each, played back ten times faster
+            assertTrue("replay took " + elapsed + "ns", elapsed >= (MESSAGES - 1) * RECORDED_GAP_NANOS / 10);
+        }
+
+        assertEquals(MESSAGES, replayed.size());
+    }
+}
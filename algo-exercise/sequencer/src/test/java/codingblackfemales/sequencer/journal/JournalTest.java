@@ -0,0 +1,135 @@
+package codingblackfemales.sequencer.journal;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import messages.marketdata.*;
+import org.agrona.concurrent.SystemEpochNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JournalTest {
+
+    private static final int MESSAGES = 5_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final AskBookUpdateDecoder askDecoder = new AskBookUpdateDecoder();
+
+    private UnsafeBuffer createAskUpdate(final long instrumentId){
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        final AskBookUpdateEncoder encoder = new AskBookUpdateEncoder();
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        encoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+        encoder.instrumentId(instrumentId);
+        encoder.venue(Venue.XLON);
+        encoder.askBookCount(1).next().price(100L).size(200L);
+        return buffer;
+    }
+
+    private File writeJournal() throws Exception {
+        final File directory = folder.newFolder("journal");
+
+        //small segments so the journal rolls a number of times
+        try (JournalWriter writer = new JournalWriter(directory, 256 * 1024, 16, new SystemEpochNanoClock())) {
+            final DefaultSequencer sequencer = new DefaultSequencer(writer::onMessage);
+            for (int i = 1; i <= MESSAGES; i++) {
+                sequencer.onCommand(createAskUpdate(i));
+            }
+        }
+
+        assertTrue(JournalDescriptor.segments(directory).length > 1);
+        return directory;
+    }
+
+    @Test
+    public void readsBackEveryMessageInOrder() throws Exception {
+        final File directory = writeJournal();
+        final List<Long> sequencerNumbers = new ArrayList<>();
+
+        try (JournalReader reader = new JournalReader(directory)) {
+            assertEquals(1L, reader.firstSequencerNumber());
+
+            final int read = reader.read(0, Long.MAX_VALUE, (sequencerNumber, timestamp, buffer, offset, length) -> {
+                headerDecoder.wrap(buffer, offset);
+                assertEquals(sequencerNumber, headerDecoder.sequencerNumber());
+                sequencerNumbers.add(sequencerNumber);
+            });
+
+            assertEquals(MESSAGES, read);
+        }
+
+        for (int i = 0; i < MESSAGES; i++) {
+            assertEquals(i + 1, sequencerNumbers.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void readsARangeFromTheMiddleOfTheJournal() throws Exception {
+        final File directory = writeJournal();
+        final List<Long> instrumentIds = new ArrayList<>();
+
+        try (JournalReader reader = new JournalReader(directory)) {
+            final int read = reader.read(3_333, 3_342, (sequencerNumber, timestamp, buffer, offset, length) -> {
+                headerDecoder.wrap(buffer, offset);
+                askDecoder.wrap(buffer, offset + headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version());
+                instrumentIds.add(askDecoder.instrumentId());
+            });
+
+            assertEquals(10, read);
+        }
+
+        assertEquals(3_333L, instrumentIds.get(0).longValue());
+        assertEquals(3_342L, instrumentIds.get(9).longValue());
+    }
+
+    @Test
+    public void aRestartedSequencerCarriesOnFromTheEndOfItsJournal() throws Exception {
+        final File directory = writeJournal();
+
+        try (JournalWriter writer = new JournalWriter(directory, 256 * 1024, 16, new SystemEpochNanoClock())) {
+            assertEquals(MESSAGES, writer.getLastSequencerNumber());
+
+            final DefaultSequencer sequencer = new DefaultSequencer(writer::onMessage);
+            sequencer.setLastSequencerNumber(writer.getLastSequencerNumber());
+            for (int i = MESSAGES + 1; i <= 2 * MESSAGES; i++) {
+                sequencer.onCommand(createAskUpdate(i));
+            }
+        }
+
+        final List<Long> instrumentIds = new ArrayList<>();
+        try (JournalReader reader = new JournalReader(directory)) {
+            final int read = reader.read(0, Long.MAX_VALUE, (sequencerNumber, timestamp, buffer, offset, length) -> {
+                headerDecoder.wrap(buffer, offset);
+                askDecoder.wrap(buffer, offset + headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version());
+                assertEquals(sequencerNumber, askDecoder.instrumentId());
+                instrumentIds.add(askDecoder.instrumentId());
+            });
+            assertEquals(2 * MESSAGES, read);
+
+            //the index picked up where it left off in the segment that was reopened
+            assertEquals(10, reader.read(MESSAGES - 4, MESSAGES + 5, (sequencerNumber, timestamp, buffer, offset, length) -> {}));
+        }
+
+        for (int i = 0; i < 2 * MESSAGES; i++) {
+            assertEquals(i + 1, instrumentIds.get(i).longValue());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void aJournalCanOnlyBeReopenedWithTheSameLayout() throws Exception {
+        final File directory = writeJournal();
+        new JournalWriter(directory, 512 * 1024, 16, new SystemEpochNanoClock()).close();
+    }
+}
@@ -0,0 +1,149 @@
+package codingblackfemales.sequencer.merge;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.journal.JournalReader;
+import codingblackfemales.sequencer.journal.JournalWriter;
+import messages.order.CancelOrderDecoder;
+import messages.order.CancelOrderEncoder;
+import messages.order.MessageHeaderDecoder;
+import messages.order.MessageHeaderEncoder;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimeOrderedMergeTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final CancelOrderDecoder decoder = new CancelOrderDecoder();
+    private final List<Long> merged = new ArrayList<>();
+
+    //each cancel's order id is (timestamp * 1000 + source), so what got sequenced says when and where it came from
+    private final DefaultSequencer sequencer = new DefaultSequencer(buffer -> merged.add(decoder.wrapAndApplyHeader(buffer, 0, headerDecoder).orderId()));
+
+    private static class TimestampSource implements MergeSource {
+        private final long[] timestamps;
+        private final int source;
+        private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(64));
+        private final CancelOrderEncoder encoder = new CancelOrderEncoder();
+        private int index = -1;
+
+        private TimestampSource(final int source, final long... timestamps) {
+            this.source = source;
+            this.timestamps = timestamps;
+        }
+
+        @Override
+        public boolean next() {
+            if(++index >= timestamps.length){
+                return false;
+            }
+            encoder.wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder()).orderId(timestamps[index] * 1000 + source);
+            return true;
+        }
+
+        @Override
+        public long timestamp() {
+            return timestamps[index];
+        }
+
+        @Override
+        public DirectBuffer buffer() {
+            return buffer;
+        }
+
+        @Override
+        public int offset() {
+            return 0;
+        }
+
+        @Override
+        public int length() {
+            return MessageHeaderEncoder.ENCODED_LENGTH + CancelOrderEncoder.BLOCK_LENGTH;
+        }
+    }
+
+    @Test
+    public void hundredsOfSourcesComeOutInTimeOrder() {
+        final Random random = new Random(42);
+        final MergeSource[] sources = new MergeSource[300];
+        int total = 0;
+        for (int i = 0; i < sources.length; i++) {
+            final long[] timestamps = new long[random.nextInt(50)];
+            long timestamp = 0L;
+            for (int j = 0; j < timestamps.length; j++) {
+                timestamp += random.nextInt(100);
+                timestamps[j] = timestamp;
+            }
+            sources[i] = new TimestampSource(i, timestamps);
+            total += timestamps.length;
+        }
+
+        final TimeOrderedMerge merge = new TimeOrderedMerge(sequencer, sources);
+        assertEquals(total, merge.drain());
+        assertTrue(merge.isDone());
+
+        assertEquals(total, merged.size());
+        for (int i = 1; i < merged.size(); i++) {
+            //same time goes in source order, which the order id sorts by too
+            assertTrue(merged.get(i - 1) + " before " + merged.get(i), merged.get(i - 1) <= merged.get(i));
+        }
+    }
+
+    @Test
+    public void pollsNoMoreThanTheLimit() {
+        final TimeOrderedMerge merge = new TimeOrderedMerge(sequencer, new TimestampSource(0, 1, 4, 5), new TimestampSource(1, 2, 3));
+
+        assertEquals(2, merge.poll(2));
+        assertEquals(List.of(1000L, 2001L), merged);
+        assertEquals(3, merge.poll(10));
+        assertEquals(List.of(1000L, 2001L, 3001L, 4000L, 5000L), merged);
+        assertEquals(0, merge.poll(10));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void aSourceGoingBackInTimeIsAnError() {
+        new TimeOrderedMerge(sequencer, new TimestampSource(0, 5, 3)).drain();
+    }
+
+    private File writeJournal(final String name, final long firstTimestamp, final long gap, final int messages, final int source) throws Exception {
+        final File directory = folder.newFolder(name);
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(64));
+        final long[] now = {firstTimestamp - gap};
+        try (JournalWriter writer = new JournalWriter(directory, JournalWriter.DEFAULT_SEGMENT_LENGTH, 8, () -> now[0] += gap)) {
+            final DefaultSequencer recording = new DefaultSequencer(writer::onMessage);
+            for (int i = 0; i < messages; i++) {
+                new CancelOrderEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder()).orderId((firstTimestamp + i * gap) * 1000 + source);
+                recording.onCommand(buffer);
+            }
+        }
+        return directory;
+    }
+
+    @Test
+    public void journalsMergeByWhenTheyWereJournaled() throws Exception {
+        try (JournalReader first = new JournalReader(writeJournal("first", 10, 10, 20, 0));
+             JournalReader second = new JournalReader(writeJournal("second", 15, 20, 10, 1))) {
+            assertEquals(25, new TimeOrderedMerge(sequencer, first.cursor(6), second.cursor(1)).drain());
+        }
+
+        assertEquals(25, merged.size());
+        assertEquals(15001L, (long) merged.get(0));
+        for (int i = 1; i < merged.size(); i++) {
+            assertTrue(merged.get(i - 1) < merged.get(i));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package codingblackfemales.sequencer.metrics;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.SequencerComponent;
+import codingblackfemales.sequencer.TestFixtures;
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramsTest {
+
+    private final LatencyHistograms histograms = new LatencyHistograms();
+    private final TestNetwork network = new TestNetwork();
+    private final DefaultSequencer sequencer = new DefaultSequencer(network);
+
+    private final Map<String, Long> counts = new HashMap<>();
+    private final Map<String, Long> maxima = new HashMap<>();
+
+    private static class SlowConsumer implements Consumer {
+        @Override
+        public void onMessage(final DirectBuffer buffer) {
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+
+    private static class FastConsumer implements Consumer {
+        @Override
+        public void onMessage(final DirectBuffer buffer) {
+        }
+    }
+
+    private void report(){
+        counts.clear();
+        maxima.clear();
+        histograms.report((name, histogram) -> {
+            counts.put(name, histogram.getTotalCount());
+            maxima.put(name, histogram.getMaxValue());
+        });
+    }
+
+    @Test
+    public void recordsByMessageTypeAndByConsumer() {
+        network.addConsumer(new SlowConsumer());
+        network.addConsumer(new FastConsumer());
+        network.setLatencyHistograms(histograms);
+        sequencer.setLatencyHistograms(histograms);
+
+        final UnsafeBuffer update = TestFixtures.askUpdate(123L);
+        for (int i = 0; i < 10; i++) {
+            sequencer.onCommand(update);
+        }
+
+        report();
+
+        assertEquals(10L, counts.get("message AskBookUpdate").longValue());
+        assertEquals(10L, counts.get("consumer SlowConsumer").longValue());
+        assertEquals(10L, counts.get("consumer FastConsumer").longValue());
+        assertTrue(maxima.get("consumer SlowConsumer") > maxima.get("consumer FastConsumer"));
+        assertTrue(maxima.get("message AskBookUpdate") >= 1_000_000);
+
+        //each report only covers what was recorded since the last one
+        report();
+        assertTrue(counts.isEmpty());
+    }
+
+    @Test
+    public void everyMessageTypeHasAName() {
+        assertEquals("BookDelta", LatencyHistograms.messageName(SequencerComponent.messageKey(BookDeltaEncoder.SCHEMA_ID, BookDeltaEncoder.TEMPLATE_ID)));
+        assertEquals("BatchOrderCommand", LatencyHistograms.messageName(SequencerComponent.messageKey(messages.order.BatchOrderCommandEncoder.SCHEMA_ID, messages.order.BatchOrderCommandEncoder.TEMPLATE_ID)));
+        assertEquals("AmendOrder", LatencyHistograms.messageName(SequencerComponent.messageKey(messages.order.AmendOrderEncoder.SCHEMA_ID, messages.order.AmendOrderEncoder.TEMPLATE_ID)));
+        assertEquals("Trade", LatencyHistograms.messageName(SequencerComponent.messageKey(messages.marketdata.TradeEncoder.SCHEMA_ID, messages.marketdata.TradeEncoder.TEMPLATE_ID)));
+    }
+
+    @Test
+    public void noAllocationPerMessageWhenRecording() {
+        network.addConsumer(new FastConsumer());
+        network.setLatencyHistograms(histograms);
+        sequencer.setLatencyHistograms(histograms);
+
+        final UnsafeBuffer update = TestFixtures.askUpdate(123L);
+        TestFixtures.assertNoAllocationPer("messages", 200_000, 100_000, () -> sequencer.onCommand(update));
+    }
+
+    @Test
+    public void threadsLookingUpTheSameRecordersForTheFirstTimeShareThem() throws Exception {
+        final int threads = 4;
+        final int keys = 100;
+        final Consumer[] consumers = new Consumer[keys];
+        for (int i = 0; i < keys; i++) {
+            consumers[i] = new FastConsumer();
+        }
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < keys; i++) {
+                        histograms.recordMessage(i, 1L);
+                        histograms.recordConsumer(consumers[i], 1L);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        final List<Long> recorded = new ArrayList<>();
+        histograms.report((name, histogram) -> recorded.add(histogram.getTotalCount()));
+
+        //one recorder per message type and per consumer, with every thread's recordings in it
+        assertEquals(2 * keys, recorded.size());
+        for (long count : recorded) {
+            assertEquals(threads, count);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package codingblackfemales.sequencer.metrics;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.RingBufferSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.AskBookUpdateEncoder;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.marketdata.MessageHeaderEncoder;
+import messages.marketdata.Venue;
+import messages.order.AmendOrderEncoder;
+import messages.order.BatchOrderCommandEncoder;
+import messages.order.CreateOrderEncoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class TickToTradeTest {
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final UnsafeBuffer tick = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+    private final UnsafeBuffer order = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    //ingress and sequencing timestamps of what was dispatched, in order
+    private final List<long[]> timestamps = new ArrayList<>();
+    private long nowNanos = 0L;
+
+    private void record(final DirectBuffer buffer){
+        headerDecoder.wrap(buffer, 0);
+        timestamps.add(new long[]{headerDecoder.ingressTimestamp(), headerDecoder.sequencingTimestamp()});
+    }
+
+    //wrapAndApplyHeader leaves the timestamps alone, so a reused buffer has to be given one each time
+    private void askUpdate(final long ingressTimestamp){
+        final MessageHeaderEncoder header = new MessageHeaderEncoder();
+        final AskBookUpdateEncoder encoder = new AskBookUpdateEncoder().wrapAndApplyHeader(tick, 0, header);
+        header.ingressTimestamp(ingressTimestamp);
+        encoder.instrumentId(1L).venue(Venue.XLON)
+                .askBookCount(1).next().price(100L).size(10L);
+    }
+
+    @Test
+    public void isFromTheTickReachingTheSequencerToTheOrderItCausedBeingSequenced() {
+        final LatencyHistograms histograms = new LatencyHistograms();
+        final TickToTrade tickToTrade = new TickToTrade(histograms);
+
+        final TestNetwork network = new TestNetwork();
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        sequencer.setClock(() -> nowNanos);
+
+        network.addConsumer(tickToTrade);
+        //an algo that takes 250ns to send an order for every tick
+        network.addConsumer(buffer -> {
+            headerDecoder.wrap(buffer, 0);
+            if(headerDecoder.templateId() == AskBookUpdateDecoder.TEMPLATE_ID){
+                final long cause = headerDecoder.sequencerNumber();
+                nowNanos += 250L;
+                new CreateOrderEncoder().wrapAndApplyHeader(order, 0, new messages.order.MessageHeaderEncoder())
+                        .instrumentId(1L).price(100L).quantity(10L).side(Side.BUY).causeSequencerNumber(cause);
+                sequencer.onCommand(order);
+            }
+        });
+        network.addConsumer(this::record);
+
+        //stamped on the way in by the feed, 50ns before it's sequenced
+        nowNanos = 1_000L;
+        askUpdate(950L);
+        sequencer.onCommand(tick);
+
+        //the order is dispatched nested, so seen first
+        assertEquals(2, timestamps.size());
+        assertEquals(1_250L, timestamps.get(0)[0]);
+        assertEquals(1_250L, timestamps.get(0)[1]);
+        assertEquals(950L, timestamps.get(1)[0]);
+        assertEquals(1_000L, timestamps.get(1)[1]);
+
+        //no ingress stamp, so it reached the sequencer as it was sequenced
+        nowNanos = 2_000L;
+        askUpdate(0L);
+        sequencer.onCommand(tick);
+
+        assertEquals(2_000L, timestamps.get(3)[0]);
+        assertEquals(2, tickToTrade.getRecordedCount());
+
+        final Map<String, Long> maxNanos = new HashMap<>();
+        histograms.report((name, histogram) -> maxNanos.put(name, histogram.getMaxValue()));
+        assertEquals(Long.valueOf(300L), maxNanos.get(TickToTrade.NAME));
+    }
+
+    @Test
+    public void batchesOfOrdersAndAmendsAreSamplesToo() {
+        final LatencyHistograms histograms = new LatencyHistograms();
+        final TickToTrade tickToTrade = new TickToTrade(histograms);
+
+        final TestNetwork network = new TestNetwork();
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        sequencer.setClock(() -> nowNanos);
+
+        network.addConsumer(tickToTrade);
+        //re-quotes two orders as a batch on the first tick, amends one on the second
+        network.addConsumer(buffer -> {
+            headerDecoder.wrap(buffer, 0);
+            if(headerDecoder.templateId() != AskBookUpdateDecoder.TEMPLATE_ID){
+                return;
+            }
+            final long cause = headerDecoder.sequencerNumber();
+            nowNanos += 100L;
+            if(cause == 1L){
+                final BatchOrderCommandEncoder batch = new BatchOrderCommandEncoder()
+                        .wrapAndApplyHeader(order, 0, new messages.order.MessageHeaderEncoder())
+                        .instrumentId(1L).causeSequencerNumber(cause);
+                batch.cancelsCount(0);
+                batch.createsCount(2)
+                        .next().price(100L).quantity(10L).side(Side.BUY)
+                        .next().price(99L).quantity(10L).side(Side.BUY);
+            }else{
+                new AmendOrderEncoder().wrapAndApplyHeader(order, 0, new messages.order.MessageHeaderEncoder())
+                        .orderId(2L).price(101L).quantity(5L).causeSequencerNumber(cause);
+            }
+            sequencer.onCommand(order);
+        });
+
+        nowNanos = 1_000L;
+        askUpdate(0L);
+        sequencer.onCommand(tick);
+
+        nowNanos = 2_000L;
+        askUpdate(1_800L);
+        sequencer.onCommand(tick);
+
+        //one sample for the batch, however many orders are in it
+        assertEquals(2, tickToTrade.getRecordedCount());
+
+        final Map<String, Long> maxNanos = new HashMap<>();
+        histograms.report((name, histogram) -> maxNanos.put(name, histogram.getMaxValue()));
+        assertEquals(Long.valueOf(300L), maxNanos.get(TickToTrade.NAME));
+    }
+
+    @Test
+    public void commandsAreStampedAsTheyGoIntoTheRing() {
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(this::record);
+
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        sequencer.setClock(() -> nowNanos);
+        final RingBufferSequencer ringBufferSequencer = new RingBufferSequencer(sequencer);
+        ringBufferSequencer.setClock(() -> nowNanos);
+
+        nowNanos = 100L;
+        askUpdate(0L);
+        ringBufferSequencer.onCommand(tick);
+
+        nowNanos = 175L;
+        ringBufferSequencer.doWork();
+
+        assertEquals(1, timestamps.size());
+        assertEquals(100L, timestamps.get(0)[0]);
+        assertEquals(175L, timestamps.get(0)[1]);
+        //the caller's buffer is left as it was
+        assertEquals(0L, tick.getLong(MessageHeaderDecoder.ingressTimestampEncodingOffset()));
+    }
+}
@@ -0,0 +1,298 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MulticastNetworkTest {
+
+    private static final int MESSAGES = 50_000;
+
+    private static class RecordingConsumer implements Consumer {
+
+        private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+
+        volatile long last = 0L;
+        boolean outOfOrder = false;
+
+        @Override
+        public void onMessage(final DirectBuffer buffer) {
+            final long sequencerNumber = headerDecoder.wrap(buffer, 0).sequencerNumber();
+            if(sequencerNumber != last + 1){
+                outOfOrder = true;
+            }
+            last = sequencerNumber;
+        }
+    }
+
+    private static class DependentConsumer extends RecordingConsumer {
+
+        private final RecordingConsumer[] dependencies;
+        boolean sawInconsistentState = false;
+
+        private DependentConsumer(final RecordingConsumer... dependencies) {
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        public void onMessage(final DirectBuffer buffer) {
+            super.onMessage(buffer);
+
+            //the consumers we depend on must have seen this message, and must not have moved past it
+            for (RecordingConsumer dependency : dependencies) {
+                if(dependency.last != last){
+                    sawInconsistentState = true;
+                }
+            }
+        }
+    }
+
+    //stuck on its first message until released, then records the rest
+    private static class StuckConsumer implements Consumer {
+
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+        private final BookUpdateDecoder bookUpdateDecoder = new BookUpdateDecoder();
+
+        final Map<Long, Long> lastBidSizes = new HashMap<>();
+        long received = 0L;
+        long deltas = 0L;
+        long batchEnds = 0L;
+        long last = 0L;
+        boolean outOfOrder = false;
+
+        @Override
+        public void onMessage(final DirectBuffer buffer) {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            received++;
+            headerDecoder.wrap(buffer, 0);
+            if(headerDecoder.templateId() == BookUpdateDecoder.TEMPLATE_ID){
+                bookUpdateDecoder.wrapAndApplyHeader(buffer, 0, headerDecoder);
+                lastBidSizes.put(bookUpdateDecoder.instrumentId(), bookUpdateDecoder.bidBook().next().size());
+            }else if(headerDecoder.templateId() == BookDeltaDecoder.TEMPLATE_ID){
+                deltas++;
+            }else{
+                if(headerDecoder.sequencerNumber() <= last){
+                    outOfOrder = true;
+                }
+                last = headerDecoder.sequencerNumber();
+            }
+        }
+
+        @Override
+        public void onBatchEnd() {
+            batchEnds++;
+        }
+    }
+
+    private void sendBooks(final DefaultSequencer sequencer, final int instruments, final int booksEach){
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        for (int i = 1; i <= booksEach; i++) {
+            for (long instrumentId = 1; instrumentId <= instruments; instrumentId++) {
+                encoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+                encoder.instrumentId(instrumentId);
+                encoder.venue(Venue.XLON);
+                encoder.bidBookCount(1).next().price(98L).size(i);
+                encoder.askBookCount(1).next().price(100L).size(i);
+                encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+                encoder.source(Source.STREAM);
+                sequencer.onCommand(buffer);
+            }
+        }
+    }
+
+    //a delta on the bid after every book, which would take the bid size past the book's own if applied
+    private void sendBooksAndDeltas(final DefaultSequencer sequencer, final int instruments, final int booksEach){
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+        final BookDeltaEncoder deltaEncoder = new BookDeltaEncoder();
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        for (int i = 1; i <= booksEach; i++) {
+            for (long instrumentId = 1; instrumentId <= instruments; instrumentId++) {
+                encoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+                encoder.instrumentId(instrumentId);
+                encoder.venue(Venue.XLON);
+                encoder.bidBookCount(1).next().price(98L).size(i);
+                encoder.askBookCount(1).next().price(100L).size(i);
+                encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+                encoder.source(Source.STREAM);
+                sequencer.onCommand(buffer);
+
+                deltaEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+                deltaEncoder.instrumentId(instrumentId);
+                deltaEncoder.venue(Venue.XLON);
+                deltaEncoder.source(Source.STREAM);
+                deltaEncoder.entriesCount(1).next().side(BookSide.BID).action(DeltaAction.MODIFY).price(98L).size(1_000_000L + i);
+                sequencer.onCommand(buffer);
+            }
+        }
+    }
+
+    private void send(final DefaultSequencer sequencer){
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        final AskBookUpdateEncoder encoder = new AskBookUpdateEncoder();
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        for (int i = 1; i <= MESSAGES; i++) {
+            encoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+            encoder.instrumentId(i);
+            encoder.venue(Venue.XLON);
+            encoder.askBookCount(1).next().price(100L).size(200L);
+            sequencer.onCommand(buffer);
+        }
+    }
+
+    @Test
+    public void everyConsumerSeesEveryMessageInOrder() throws Exception {
+        final RecordingConsumer first = new RecordingConsumer();
+        final RecordingConsumer second = new RecordingConsumer();
+
+        //a small ring so the producer has to wait on the consumers
+        try (MulticastNetwork network = new MulticastNetwork(64, YieldingIdleStrategy::new)) {
+            network.addConsumer(first);
+            network.addConsumer(second);
+            network.start();
+
+            send(new DefaultSequencer(network));
+        }
+
+        assertEquals(MESSAGES, first.last);
+        assertEquals(MESSAGES, second.last);
+        assertFalse(first.outOfOrder);
+        assertFalse(second.outOfOrder);
+    }
+
+    @Test
+    public void dependentConsumerSeesTheStateOfItsDependencies() throws Exception {
+        final RecordingConsumer marketData = new RecordingConsumer();
+        final RecordingConsumer orders = new RecordingConsumer();
+        final DependentConsumer algo = new DependentConsumer(marketData, orders);
+
+        try (MulticastNetwork network = new MulticastNetwork(64, YieldingIdleStrategy::new)) {
+            network.addConsumer(marketData);
+            network.addConsumer(orders);
+            network.addConsumer(algo, marketData, orders);
+            network.start();
+
+            send(new DefaultSequencer(network));
+        }
+
+        assertEquals(MESSAGES, algo.last);
+        assertFalse(algo.outOfOrder);
+        assertFalse(algo.sawInconsistentState);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void dependenciesMustBeAddedFirst() throws Exception {
+        try (MulticastNetwork network = new MulticastNetwork()) {
+            network.addConsumer(new RecordingConsumer(), new RecordingConsumer());
+        }
+    }
+
+    @Test(timeout = 60_000)
+    public void aDroppingConsumerNeverHoldsUpTheOthers() throws Exception {
+        final RecordingConsumer algo = new RecordingConsumer();
+        final StuckConsumer ui = new StuckConsumer();
+
+        try (MulticastNetwork network = new MulticastNetwork(64, YieldingIdleStrategy::new)) {
+            network.addConsumer(algo);
+            network.addConsumer(ui, SlowConsumerPolicy.DROP);
+            network.start();
+
+            //would never finish if it waited on the stuck consumer
+            send(new DefaultSequencer(network));
+            assertTrue(network.getLag(ui) > 0);
+
+            ui.released.countDown();
+            network.close();
+
+            assertTrue(network.getDroppedCount(ui) > 0);
+            //every message is a batch of its own, so half the slots are batch ends
+            assertEquals(2 * MESSAGES, ui.received + ui.batchEnds + network.getDroppedCount(ui));
+            assertEquals(0, network.getLag(ui));
+        }
+
+        assertEquals(MESSAGES, algo.last);
+        assertFalse(algo.outOfOrder);
+        assertFalse(ui.outOfOrder);
+    }
+
+    @Test(timeout = 60_000)
+    public void aConflatingConsumerGetsTheLatestBookForEveryInstrument() throws Exception {
+        final RecordingConsumer algo = new RecordingConsumer();
+        final StuckConsumer ui = new StuckConsumer();
+
+        try (MulticastNetwork network = new MulticastNetwork(64, YieldingIdleStrategy::new)) {
+            network.addConsumer(algo);
+            network.addConsumer(ui, SlowConsumerPolicy.CONFLATE);
+            network.start();
+
+            sendBooks(new DefaultSequencer(network), 3, 1_000);
+
+            ui.released.countDown();
+            network.close();
+
+            assertTrue(network.getConflatedCount(ui) > 0);
+        }
+
+        assertEquals(3_000, algo.last);
+        assertTrue("received " + ui.received, ui.received < 3_000);
+        for (long instrumentId = 1; instrumentId <= 3; instrumentId++) {
+            assertEquals(Long.valueOf(1_000), ui.lastBidSizes.get(instrumentId));
+        }
+    }
+
+    @Test(timeout = 60_000)
+    public void aConflatingConsumerNeverGetsADeltaAgainstABookItSkipped() throws Exception {
+        final RecordingConsumer algo = new RecordingConsumer();
+        final StuckConsumer ui = new StuckConsumer();
+
+        try (MulticastNetwork network = new MulticastNetwork(64, YieldingIdleStrategy::new)) {
+            network.addConsumer(algo);
+            network.addConsumer(ui, SlowConsumerPolicy.CONFLATE);
+            network.start();
+
+            sendBooksAndDeltas(new DefaultSequencer(network), 3, 1_000);
+
+            ui.released.countDown();
+            network.close();
+        }
+
+        //the algo sees the lot, the ui only the books
+        assertEquals(6_000, algo.last);
+        assertEquals(0, ui.deltas);
+        for (long instrumentId = 1; instrumentId <= 3; instrumentId++) {
+            assertEquals(Long.valueOf(1_000), ui.lastBidSizes.get(instrumentId));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aConsumerThatDoesNotBlockCannotBeDependedOn() throws Exception {
+        final RecordingConsumer ui = new RecordingConsumer();
+        try (MulticastNetwork network = new MulticastNetwork()) {
+            network.addConsumer(ui, SlowConsumerPolicy.DROP);
+            network.addConsumer(new RecordingConsumer(), ui);
+        }
+    }
+}
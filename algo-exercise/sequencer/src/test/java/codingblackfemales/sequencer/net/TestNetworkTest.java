@@ -0,0 +1,102 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.AbstractSequencerComponent;
+import messages.marketdata.*;
+import messages.order.PartialFillOrderEncoder;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestNetworkTest {
+
+    private final List<String> received = new ArrayList<>();
+
+    private class SubscribingConsumer extends AbstractSequencerComponent implements Consumer {
+
+        private final String name;
+
+        private SubscribingConsumer(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void onMessage(final DirectBuffer buffer) {
+            received.add(name);
+        }
+    }
+
+    private DirectBuffer bidBookUpdate(){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        new BidBookUpdateEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder())
+                .instrumentId(1L)
+                .venue(Venue.XLON)
+                .bidBookCount(0);
+        return buffer;
+    }
+
+    private DirectBuffer partialFill(){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        new PartialFillOrderEncoder().wrapAndApplyHeader(buffer, 0, new messages.order.MessageHeaderEncoder())
+                .orderId(1L);
+        return buffer;
+    }
+
+    @Test
+    public void messagesOnlyGoToConsumersThatRequireThem() {
+        final SubscribingConsumer marketData = new SubscribingConsumer("marketData");
+        marketData.requireMessage(BidBookUpdateDecoder.SCHEMA_ID, BidBookUpdateDecoder.TEMPLATE_ID);
+
+        final SubscribingConsumer orders = new SubscribingConsumer("orders");
+        orders.requireMessage(PartialFillOrderEncoder.SCHEMA_ID, PartialFillOrderEncoder.TEMPLATE_ID);
+
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(marketData);
+        network.addConsumer(buffer -> received.add("everything"));
+        network.addConsumer(orders);
+
+        //both messages have template id 9, only the schema tells them apart
+        network.dispatch(bidBookUpdate());
+        assertEquals(List.of("marketData", "everything"), received);
+
+        received.clear();
+        network.dispatch(partialFill());
+        assertEquals(List.of("everything", "orders"), received);
+    }
+
+    @Test
+    public void unknownMessagesOnlyGoToConsumersOfEverything() {
+        final SubscribingConsumer orders = new SubscribingConsumer("orders");
+        orders.requireMessage(PartialFillOrderEncoder.SCHEMA_ID, PartialFillOrderEncoder.TEMPLATE_ID);
+
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(orders);
+        network.addConsumer(new SubscribingConsumer("everything"));
+
+        network.dispatch(bidBookUpdate());
+        assertEquals(List.of("everything"), received);
+    }
+
+    @Test
+    public void aNetworkFedByAnotherGetsItsBatchEndsToo() {
+        final TestNetwork downstream = new TestNetwork();
+        downstream.addConsumer(new SubscribingConsumer("downstream"){
+            @Override
+            public void onBatchEnd() {
+                received.add("batch end");
+            }
+        });
+
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(downstream);
+
+        network.dispatch(bidBookUpdate());
+        network.onBatchEnd();
+        assertEquals(List.of("downstream", "batch end"), received);
+    }
+}
@@ -0,0 +1,61 @@
+package codingblackfemales.sequencer.runtime;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.RingBufferSequencer;
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.net.RingBufferConsumer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.AskBookUpdateEncoder;
+import messages.marketdata.MessageHeaderEncoder;
+import messages.marketdata.Venue;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+public class AgentRuntimeTest {
+
+    private static final int COMMANDS = 10_000;
+
+    private long dispatched = 0L;
+
+    @Test
+    public void closingDrainsWhatIsQueuedBetweenTheAgents() {
+        final TestNetwork network = new TestNetwork();
+        final RingBufferSequencer sequencer = new RingBufferSequencer(new DefaultSequencer(network));
+
+        final TestNetwork downstreamNetwork = new TestNetwork();
+        downstreamNetwork.addConsumer(new Consumer() {
+            @Override
+            public void onMessage(final DirectBuffer buffer) {
+                dispatched++;
+            }
+        });
+        final RingBufferConsumer downstream = new RingBufferConsumer("downstream", downstreamNetwork);
+        network.addConsumer(downstream);
+
+        //sleeping agents, so plenty is still queued when we close
+        final Properties config = new Properties();
+        config.setProperty("cbf.agent.idle", "sleep");
+
+        final UnsafeBuffer command = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        new AskBookUpdateEncoder().wrapAndApplyHeader(command, 0, new MessageHeaderEncoder())
+                .instrumentId(1L).venue(Venue.XLON)
+                .askBookCount(1).next().price(100L).size(10L);
+
+        try (AgentRuntime runtime = new AgentRuntime(config).add(sequencer).add(downstream)) {
+            runtime.start();
+            for (int i = 0; i < COMMANDS; i++) {
+                sequencer.onCommand(command);
+            }
+        }
+
+        assertEquals(COMMANDS, dispatched);
+        assertEquals(0, sequencer.size());
+        assertEquals(0, downstream.size());
+    }
+}
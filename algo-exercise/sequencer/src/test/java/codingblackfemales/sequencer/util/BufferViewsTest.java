@@ -0,0 +1,56 @@
+package codingblackfemales.sequencer.util;
+
+import codingblackfemales.sequencer.net.Consumer;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class BufferViewsTest {
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[64]);
+
+    public BufferViewsTest() {
+        buffer.putLong(8, 42L);
+        buffer.putLong(32, 43L);
+    }
+
+    @Test
+    public void aConsumerOnlyTakingTheBufferSeesTheMessageAtOffsetZero() {
+        final List<DirectBuffer> seen = new ArrayList<>();
+        final List<Long> values = new ArrayList<>();
+        final Consumer consumer = message -> {
+            seen.add(message);
+            values.add(message.getLong(0));
+        };
+
+        consumer.onMessage(buffer, 8, 8);
+        consumer.onMessage(buffer, 32, 8);
+
+        assertEquals(List.of(42L, 43L), values);
+        assertSame(seen.get(0), seen.get(1));
+    }
+
+    @Test
+    public void aViewTakenWhileAnotherIsInUseLeavesItAlone() {
+        final DirectBuffer outer = BufferViews.wrap(buffer, 8, 8);
+        try {
+            final DirectBuffer inner = BufferViews.wrap(buffer, 32, 8);
+            try {
+                assertNotSame(outer, inner);
+                assertEquals(43L, inner.getLong(0));
+            } finally {
+                BufferViews.release();
+            }
+            assertEquals(42L, outer.getLong(0));
+        } finally {
+            BufferViews.release();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package codingblackfemales.sequencer.util;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import messages.order.CancelOrderEncoder;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class MessageLengthTest {
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    private int bookUpdate(final int offset){
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+        encoder.wrapAndApplyHeader(buffer, offset, new MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.bidBookCount(2)
+                .next().price(98L).size(100L)
+                .next().price(97L).size(200L);
+        encoder.askBookCount(1).next().price(100L).size(101L);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+        return MessageHeaderEncoder.ENCODED_LENGTH + encoder.encodedLength();
+    }
+
+    private int cancelOrder(){
+        new CancelOrderEncoder().wrapAndApplyHeader(buffer, 0, new messages.order.MessageHeaderEncoder()).orderId(42L);
+        return messages.order.MessageHeaderEncoder.ENCODED_LENGTH + CancelOrderEncoder.BLOCK_LENGTH;
+    }
+
+    @Test
+    public void measuresTheGroupsOfMarketData() {
+        final int expected = bookUpdate(0);
+
+        assertEquals(expected, MessageLength.of(buffer, 0));
+    }
+
+    @Test
+    public void measuresAnOrderMessageByItsBlock() {
+        final int expected = cancelOrder();
+
+        assertEquals(expected, MessageLength.of(buffer, 0));
+    }
+
+    @Test
+    public void sequencerDispatchesOnlyTheBytesInUse() {
+        final List<Integer> dispatched = new ArrayList<>();
+
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(message -> dispatched.add(message.capacity()));
+
+        final int expected = cancelOrder();
+        new DefaultSequencer(network).onCommand(buffer);
+
+        assertEquals(List.of(expected), dispatched);
+    }
+
+    @Test
+    public void sequencerTakesACommandFromAnOffset() {
+        final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+        final BookUpdateDecoder decoder = new BookUpdateDecoder();
+        final List<Long> instrumentIds = new ArrayList<>();
+
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(message -> {
+            headerDecoder.wrap(message, 0);
+            decoder.wrap(message, headerDecoder.encodedLength(), headerDecoder.blockLength(), headerDecoder.version());
+            instrumentIds.add(decoder.instrumentId());
+        });
+
+        final int length = bookUpdate(100);
+        new DefaultSequencer(network).onCommand(buffer, 100, length);
+
+        assertEquals(List.of(123L), instrumentIds);
+    }
+}
@@ -4,13 +4,17 @@ import codingblackfemales.algo.PassiveAlgoLogic;
 import codingblackfemales.container.Actioner;
 import codingblackfemales.container.AlgoContainer;
 import codingblackfemales.container.RunTrigger;
-import codingblackfemales.marketdata.api.MarketDataEncoder;
-import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.gen.MarketDataFeedAgent;
 import codingblackfemales.marketdata.gen.RandomMarketDataGenerator;
 import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.PriorityRingBufferSequencer;
 import codingblackfemales.sequencer.Sequencer;
 import codingblackfemales.sequencer.consumer.LoggingConsumer;
+import codingblackfemales.sequencer.net.RingBufferConsumer;
+import codingblackfemales.sequencer.net.MulticastNetwork;
+import codingblackfemales.sequencer.net.SlowConsumerPolicy;
 import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.sequencer.runtime.AgentRuntime;
 import codingblackfemales.service.MarketDataService;
 import codingblackfemales.service.OrderService;
 import codingblackfemales.ui.module.AlgoModule;
@@ -35,14 +39,13 @@ import org.finos.vuu.state.VuiStateStore;
 import scala.Option;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
 
 public class VuuUiMain {
 
     private static final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
     private static final BookUpdateEncoder encoder = new BookUpdateEncoder();
 
-    private static final MarketDataEncoder marketDataEncoder = new MarketDataEncoder();
-
     private static void tick(final Sequencer sequencer) {
 
         final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
@@ -72,13 +75,6 @@ public class VuuUiMain {
         sequencer.onCommand(directBuffer);
     }
 
-    private static void processMarketDataMessage(final Sequencer sequencer, final MarketDataMessage message) {
-        System.out.println(message);
-        final UnsafeBuffer buffer = marketDataEncoder.encode(message);
-        sequencer.onCommand(buffer);
-    }
-
-
     public static void main(String[] args) {
 
         //Vuu implicits
@@ -88,8 +84,9 @@ public class VuuUiMain {
         final TableDefContainer tableDefContainer = new TableDefContainer();
 
         //Algo Stuff
-        final TestNetwork network = new TestNetwork();
-        final Sequencer sequencer = new DefaultSequencer(network);
+        final MulticastNetwork network = new MulticastNetwork();
+        //the market data feed and the algo both feed the lanes, only the sequencer thread dispatches
+        final PriorityRingBufferSequencer sequencer = new PriorityRingBufferSequencer(new DefaultSequencer(network));
 
         final RunTrigger runTrigger = new RunTrigger();
         final Actioner actioner = new Actioner(sequencer);
@@ -97,7 +94,19 @@ public class VuuUiMain {
         final AlgoContainer container = new AlgoContainer(new MarketDataService(runTrigger), new OrderService(runTrigger), runTrigger, actioner);
         container.setLogic(new PassiveAlgoLogic());
 
-        network.addConsumer(new LoggingConsumer());
+        //the algo runs on a thread of its own, off the sequencer's
+        final TestNetwork algoNetwork = new TestNetwork();
+        algoNetwork.addConsumer(container.getMarketDataService());
+        algoNetwork.addConsumer(container.getOrderService());
+        algoNetwork.addConsumer(container);
+        final RingBufferConsumer algo = new RingBufferConsumer("algo", algoNetwork);
+
+        //only the algo holds up the sequencer, the log and the ui conflate books and drop anything else they fall behind on
+        final TestNetwork uiNetwork = new TestNetwork();
+        network.addConsumer(algo);
+        network.addConsumer(new LoggingConsumer(), SlowConsumerPolicy.CONFLATE);
+        network.addConsumer(uiNetwork, SlowConsumerPolicy.CONFLATE);
+        network.start();
 
         //Vuu Stuff
         final VuiStateStore store = new MemoryBackedVuiStateStore(100);
@@ -133,7 +142,7 @@ public class VuuUiMain {
                         .withViewPortThreads(4),
                 new scala.collection.mutable.ListBuffer<ViewServerModule>().toList(),
                 new scala.collection.mutable.ListBuffer<Plugin>().toList()
-        ).withModule(new AlgoModule().create(tableDefContainer, network, clock));
+        ).withModule(new AlgoModule().create(tableDefContainer, uiNetwork, clock));
 
         final VuuServer vuuServer = new VuuServer(config, lifecycle, clock, metrics);
 
@@ -141,20 +150,13 @@ public class VuuUiMain {
 
         final RandomMarketDataGenerator generator = new RandomMarketDataGenerator(123L, Venue.XLON, 1_000, 100, 15);
 
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                while (!Thread.interrupted()) {
-                    try {
-                        Thread.sleep(600);
-                        final MarketDataMessage update = generator.updateBook();
-                        processMarketDataMessage(sequencer, update);
-                    } catch (Exception ex) {
-                        ex.printStackTrace();
-                    }
-                }
-            }
-        }).run();
+        //idle strategies and cpus for each agent come from -Dcbf.agent.* properties, see AgentRuntime
+        final AgentRuntime runtime = new AgentRuntime()
+                .add(new MarketDataFeedAgent(generator, sequencer, TimeUnit.MILLISECONDS.toNanos(600)))
+                .add(sequencer)
+                .add(algo);
+        runtime.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(runtime::close));
 
         //tick(sequencer);
 